@@ -3,12 +3,8 @@ package com.rassix.randomNumberGenerator;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 
 @SpringBootApplication
-@EnableScheduling
-@EnableWebSocketMessageBroker
 @EnableAsync
 public class Application {
 
@@ -1,21 +1,101 @@
 package com.rassix.randomNumberGenerator.config;
 
+import com.rassix.randomNumberGenerator.constant.GameTimerType;
 import com.rassix.randomNumberGenerator.repository.GameRepository;
+import com.rassix.randomNumberGenerator.service.timer.GameTimerFactory;
+import com.rassix.randomNumberGenerator.service.timer.HashedWheelGameTimer;
+import com.rassix.randomNumberGenerator.service.timer.TaskSchedulerGameTimer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class BeanConfig {
 
     @Bean
+    @Profile("!simulation")
     public Random random() {
         return new Random();
     }
 
     @Bean
-    public GameRepository gameRepository() {
-        return new GameRepository();
+    @Profile("!simulation")
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
+    @Bean
+    @Profile("!simulation")
+    public GameTimerFactory gameTimerFactory(
+        @Value("${game.timer.type}") GameTimerType type,
+        @Value("${game.timer.tick-duration}") Duration tickDuration,
+        @Value("${game.timer.wheel-size}") int wheelSize,
+        Clock clock
+    ) {
+        if (type == GameTimerType.SCHEDULER) {
+            return TaskSchedulerGameTimer::new;
+        }
+        return name -> new HashedWheelGameTimer(name, tickDuration, wheelSize, clock);
+    }
+
+    @Bean
+    public GameRepository gameRepository(
+        @Value("${game.history.max-ended-games}") int maxEndedGames,
+        @Value("${game.history.max-ended-game-age}") Duration maxEndedGameAge,
+        Clock clock
+    ) {
+        return new GameRepository(maxEndedGames, maxEndedGameAge, clock);
+    }
+
+    /**
+     * Settles finished games. A table has at most one game waiting for settlement at a time, so the queue holds at
+     * least one game per table and a settlement is never rejected, even when every table closes betting at once.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @Profile("!simulation")
+    public ExecutorService settlementExecutor(
+        @Value("${game.settlement.threads}") int threads,
+        @Value("${game.settlement.queue-capacity}") int queueCapacity,
+        @Value("${game.tables.count}") int tableCount
+    ) {
+        return new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(queueCapacity, tableCount)),
+            new CustomizableThreadFactory("settlement-")
+        );
+    }
+
+    /**
+     * Pushes chunks of batched player notifications to the broker. When all threads are busy the thread handing out
+     * the chunks sends the chunk itself, so a large round slows notifications down rather than dropping them.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @Profile("!simulation")
+    public ExecutorService notificationExecutor(
+        @Value("${game.notification.threads}") int threads,
+        @Value("${game.notification.queue-capacity}") int queueCapacity
+    ) {
+        return new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("notification-"),
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
     }
 }
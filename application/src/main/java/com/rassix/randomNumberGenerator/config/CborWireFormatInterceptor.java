@@ -0,0 +1,123 @@
+package com.rassix.randomNumberGenerator.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in CBOR wire format, negotiated per session: a client connected to the plain websocket endpoint that sends
+ * {@code content-type:application/cbor} in its CONNECT frame receives every JSON message transcoded to CBOR.
+ * STOMP only uses binary websocket frames for {@code application/octet-stream}, so transcoded messages carry that
+ * content type. SockJS can only carry text, so sessions connected through it always stay on JSON.
+ * <p>
+ * Broadcasts share one payload between all receiving sessions, so every payload is transcoded only once.
+ * Decimals are written as CBOR decimal fractions, so amounts keep their exact value.
+ */
+public class CborWireFormatInterceptor implements ChannelInterceptor {
+
+    public static final MimeType APPLICATION_CBOR = new MimeType("application", "cbor");
+
+    private static final String BINARY_TRANSPORT_ATTRIBUTE = "binaryTransport";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final CBORFactory cborFactory = new CBORFactory();
+    private final Set<String> cborSessionIds = ConcurrentHashMap.newKeySet();
+    private final Map<byte[], byte[]> transcodedPayloads = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Marks sessions of an endpoint as able to receive binary frames.
+     */
+    public HandshakeInterceptor binaryTransportMarker() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                attributes.put(BINARY_TRANSPORT_ATTRIBUTE, Boolean.TRUE);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler, Exception exception) {
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, SimpMessageHeaderAccessor.class);
+        if (accessor == null || accessor.getSessionId() == null) {
+            return message;
+        }
+
+        SimpMessageType messageType = accessor.getMessageType();
+        if (SimpMessageType.CONNECT == messageType) {
+            if (APPLICATION_CBOR.equalsTypeAndSubtype(accessor.getContentType()) && hasBinaryTransport(accessor)) {
+                cborSessionIds.add(accessor.getSessionId());
+            }
+        } else if (SimpMessageType.DISCONNECT == messageType) {
+            cborSessionIds.remove(accessor.getSessionId());
+        } else if (SimpMessageType.MESSAGE == messageType
+            && cborSessionIds.contains(accessor.getSessionId())
+            && MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(accessor.getContentType())
+            && message.getPayload() instanceof byte[]) {
+            return toCbor(message);
+        }
+
+        return message;
+    }
+
+    private boolean hasBinaryTransport(SimpMessageHeaderAccessor accessor) {
+        Map<String, Object> sessionAttributes = accessor.getSessionAttributes();
+        return sessionAttributes != null && Boolean.TRUE.equals(sessionAttributes.get(BINARY_TRANSPORT_ATTRIBUTE));
+    }
+
+    private Message<byte[]> toCbor(Message<?> message) {
+        byte[] cbor = transcodedPayloads.computeIfAbsent((byte[]) message.getPayload(), this::transcode);
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+    }
+
+    byte[] transcode(byte[] json) {
+        ByteArrayOutputStream cbor = new ByteArrayOutputStream(json.length);
+
+        try (JsonParser parser = jsonFactory.createParser(json); JsonGenerator generator = cborFactory.createGenerator(cbor)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    generator.writeNumber(parser.getDecimalValue());
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+            }
+        } catch (IOException e) {
+            throw new MessageConversionException("JSON payload could not be transcoded to CBOR", e);
+        }
+
+        return cbor.toByteArray();
+    }
+}
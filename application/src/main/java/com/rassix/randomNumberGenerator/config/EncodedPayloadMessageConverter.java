@@ -0,0 +1,32 @@
+package com.rassix.randomNumberGenerator.config;
+
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Writes {@link EncodedPayload}s as JSON messages without serializing them again.
+ */
+public class EncodedPayloadMessageConverter extends AbstractMessageConverter {
+
+    public EncodedPayloadMessageConverter() {
+        super(MimeTypeUtils.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EncodedPayload.class == clazz;
+    }
+
+    @Override
+    protected boolean canConvertFrom(Message<?> message, Class<?> targetClass) {
+        return false;
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        return ((EncodedPayload) payload).getBytes();
+    }
+}
@@ -0,0 +1,25 @@
+package com.rassix.randomNumberGenerator.config;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Binds a raw websocket session to the player named in the {@value #LOGIN_HEADER} header of its handshake, the way
+ * {@link PlayerSessionInterceptor} does for the login header of the STOMP CONNECT frame. Sessions without a login can
+ * still follow the tables.
+ */
+public class PlayerHandshakeHandler extends DefaultHandshakeHandler {
+
+    static final String LOGIN_HEADER = "login";
+
+    @Override
+    protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String login = request.getHeaders().getFirst(LOGIN_HEADER);
+        return StringUtils.hasText(login) ? new PlayerPrincipal(login) : super.determineUser(request, wsHandler, attributes);
+    }
+}
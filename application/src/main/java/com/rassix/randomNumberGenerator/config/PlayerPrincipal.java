@@ -0,0 +1,22 @@
+package com.rassix.randomNumberGenerator.config;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.security.Principal;
+
+/**
+ * Player a websocket session belongs to, taken from the login header of the STOMP CONNECT frame or of the raw
+ * websocket handshake.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class PlayerPrincipal implements Principal {
+
+    private final String name;
+
+}
@@ -0,0 +1,37 @@
+package com.rassix.randomNumberGenerator.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.util.StringUtils;
+
+/**
+ * Binds a websocket session to the player named in the login header of its CONNECT frame, so private notifications
+ * can be routed through the user registry to that player's sessions only. Sessions without a login can still
+ * follow the tables. Per-session queues can only be subscribed through the user destination prefix,
+ * never directly.
+ */
+public class PlayerSessionInterceptor implements ChannelInterceptor {
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT == accessor.getCommand() && StringUtils.hasText(accessor.getLogin())) {
+            accessor.setUser(new PlayerPrincipal(accessor.getLogin()));
+        } else if (StompCommand.SUBSCRIBE == accessor.getCommand()
+            && accessor.getDestination() != null
+            && accessor.getDestination().startsWith(WebSocketConfig.QUEUE_PREFIX)) {
+            throw new MessagingException(message, "Queues can only be subscribed through the /user prefix");
+        }
+
+        return message;
+    }
+}
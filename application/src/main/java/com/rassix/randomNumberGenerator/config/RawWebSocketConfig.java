@@ -0,0 +1,21 @@
+package com.rassix.randomNumberGenerator.config;
+
+import com.rassix.randomNumberGenerator.controller.RawGameWebSocketHandler;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@AllArgsConstructor
+public class RawWebSocketConfig implements WebSocketConfigurer {
+
+    private final RawGameWebSocketHandler rawGameWebSocketHandler;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(rawGameWebSocketHandler, "/game-raw").setHandshakeHandler(new PlayerHandshakeHandler());
+    }
+}
@@ -0,0 +1,52 @@
+package com.rassix.randomNumberGenerator.config;
+
+import com.rassix.randomNumberGenerator.service.timer.GameTimerFactory;
+import com.rassix.randomNumberGenerator.service.timer.SimulationGameTimer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+/**
+ * Beans of the simulation profile: every table shares one virtual clock timer and settlement runs inline,
+ * so a seeded run always plays out the same way, regardless of the machine.
+ */
+@Configuration
+@Profile("simulation")
+public class SimulationConfig {
+
+    @Bean
+    public Random random(@Value("${game.simulation.seed}") long seed) {
+        return new Random(seed);
+    }
+
+    @Bean
+    public SimulationGameTimer simulationGameTimer(@Value("${game.simulation.start}") String start) {
+        return new SimulationGameTimer(Instant.parse(start));
+    }
+
+    @Bean
+    public Clock clock(SimulationGameTimer simulationGameTimer) {
+        return simulationGameTimer.getClock();
+    }
+
+    @Bean
+    public GameTimerFactory gameTimerFactory(SimulationGameTimer simulationGameTimer) {
+        return name -> simulationGameTimer;
+    }
+
+    @Bean
+    public Executor settlementExecutor() {
+        return Runnable::run;
+    }
+
+    @Bean
+    public Executor notificationExecutor() {
+        return Runnable::run;
+    }
+}
@@ -0,0 +1,74 @@
+package com.rassix.randomNumberGenerator.config;
+
+import com.rassix.randomNumberGenerator.constant.SlowConsumerPolicy;
+import com.rassix.randomNumberGenerator.service.GameMetrics;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the slow consumer policy to every session. Messages to a session whose socket can not keep up are
+ * buffered up to the send buffer size limit, beyond that either the oldest buffered messages are dropped or the
+ * session is closed. A session stuck sending a single message for longer than the send time limit is always closed.
+ * <p>
+ * Exposes the bytes buffered for the sessions and counts disconnects by their reason.
+ */
+public class SlowConsumerWebSocketHandler extends SubProtocolWebSocketHandler {
+
+    private static final Map<Integer, String> DISCONNECT_REASONS = Map.of(
+        CloseStatus.NORMAL.getCode(), "normal",
+        CloseStatus.GOING_AWAY.getCode(), "going-away",
+        CloseStatus.NO_CLOSE_FRAME.getCode(), "connection-lost",
+        CloseStatus.POLICY_VIOLATION.getCode(), "policy-violation",
+        CloseStatus.TOO_BIG_TO_PROCESS.getCode(), "message-too-big",
+        CloseStatus.SERVER_ERROR.getCode(), "server-error",
+        CloseStatus.SESSION_NOT_RELIABLE.getCode(), "slow-consumer"
+    );
+
+    private final OverflowStrategy overflowStrategy;
+    private final GameMetrics gameMetrics;
+    private final Map<String, ConcurrentWebSocketSessionDecorator> decoratedSessions = new ConcurrentHashMap<>();
+
+    public SlowConsumerWebSocketHandler(
+        MessageChannel clientInboundChannel,
+        SubscribableChannel clientOutboundChannel,
+        SlowConsumerPolicy slowConsumerPolicy,
+        GameMetrics gameMetrics
+    ) {
+        super(clientInboundChannel, clientOutboundChannel);
+        this.overflowStrategy = slowConsumerPolicy == SlowConsumerPolicy.DROP ? OverflowStrategy.DROP : OverflowStrategy.TERMINATE;
+        this.gameMetrics = gameMetrics;
+
+        gameMetrics.registerGauge("websocket.sessions", decoratedSessions::size);
+        gameMetrics.registerGauge("websocket.buffered-bytes.total", () -> decoratedSessions.values().stream()
+            .mapToLong(ConcurrentWebSocketSessionDecorator::getBufferSize)
+            .sum());
+        gameMetrics.registerGauge("websocket.buffered-bytes.max", () -> decoratedSessions.values().stream()
+            .mapToInt(ConcurrentWebSocketSessionDecorator::getBufferSize)
+            .max()
+            .orElse(0));
+    }
+
+    @Override
+    protected WebSocketSession decorateSession(WebSocketSession session) {
+        ConcurrentWebSocketSessionDecorator decoratedSession = new ConcurrentWebSocketSessionDecorator(
+            session, getSendTimeLimit(), getSendBufferSizeLimit(), overflowStrategy
+        );
+        decoratedSessions.put(session.getId(), decoratedSession);
+        return decoratedSession;
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        decoratedSessions.remove(session.getId());
+        gameMetrics.increment("websocket.disconnects." + DISCONNECT_REASONS.getOrDefault(closeStatus.getCode(), "other"));
+        super.afterConnectionClosed(session, closeStatus);
+    }
+}
@@ -0,0 +1,38 @@
+package com.rassix.randomNumberGenerator.config;
+
+import com.rassix.randomNumberGenerator.constant.SlowConsumerPolicy;
+import com.rassix.randomNumberGenerator.service.GameMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+
+/**
+ * Enables the STOMP broker like {@code @EnableWebSocketMessageBroker} does, but with a websocket handler that applies
+ * the slow consumer policy. Everything else is still configured by {@link WebSocketConfig}.
+ */
+@Configuration
+public class WebSocketBrokerConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    private final GameMetrics gameMetrics;
+
+    public WebSocketBrokerConfig(
+        @Value("${game.websocket.slow-consumer-policy}") SlowConsumerPolicy slowConsumerPolicy,
+        GameMetrics gameMetrics
+    ) {
+        this.slowConsumerPolicy = slowConsumerPolicy;
+        this.gameMetrics = gameMetrics;
+    }
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(
+        AbstractSubscribableChannel clientInboundChannel,
+        AbstractSubscribableChannel clientOutboundChannel
+    ) {
+        return new SlowConsumerWebSocketHandler(clientInboundChannel, clientOutboundChannel, slowConsumerPolicy, gameMetrics);
+    }
+}
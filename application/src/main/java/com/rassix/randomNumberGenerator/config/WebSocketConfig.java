@@ -1,21 +1,104 @@
 package com.rassix.randomNumberGenerator.config;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    static final String QUEUE_PREFIX = "/queue/";
+
+    private final int destinationCacheLimit;
+    private final Duration sendTimeLimit;
+    private final DataSize sendBufferSizeLimit;
+    private final int outboundThreads;
+    private final int outboundQueueCapacity;
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+    private final CborWireFormatInterceptor cborWireFormatInterceptor = new CborWireFormatInterceptor();
+
+    public WebSocketConfig(
+        @Value("${game.websocket.destination-cache-limit}") int destinationCacheLimit,
+        @Value("${game.websocket.send-time-limit}") Duration sendTimeLimit,
+        @Value("${game.websocket.send-buffer-size-limit}") DataSize sendBufferSizeLimit,
+        @Value("${game.websocket.outbound-threads}") int outboundThreads,
+        @Value("${game.websocket.outbound-queue-capacity}") int outboundQueueCapacity,
+        Jackson2ObjectMapperBuilder objectMapperBuilder
+    ) {
+        this.destinationCacheLimit = destinationCacheLimit;
+        this.sendTimeLimit = sendTimeLimit;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.outboundThreads = outboundThreads;
+        this.outboundQueueCapacity = outboundQueueCapacity;
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic/", "/queue/");
+        registry.enableSimpleBroker("/topic/", QUEUE_PREFIX);
         registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+        registry.setCacheLimit(destinationCacheLimit);
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(0, new EncodedPayloadMessageConverter());
+
+        MappingJackson2MessageConverter cborMessageConverter = new MappingJackson2MessageConverter(CborWireFormatInterceptor.APPLICATION_CBOR);
+        cborMessageConverter.setObjectMapper(objectMapperBuilder.factory(new CBORFactory()).build());
+        cborMessageConverter.setStrictContentTypeMatch(true);
+        messageConverters.add(cborMessageConverter);
+
+        return true;
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new PlayerSessionInterceptor(), cborWireFormatInterceptor);
+    }
+
+    /**
+     * Messages to clients are handed to a bounded pool. When its queue is full the broker thread writes the message
+     * itself, which slows the broker down instead of piling up messages in heap. Writing to a slow client only
+     * buffers the message in the client's session, see {@link SlowConsumerWebSocketHandler}.
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        ThreadPoolTaskExecutor outboundExecutor = new ThreadPoolTaskExecutor();
+        outboundExecutor.setThreadNamePrefix("clientOutboundChannel-");
+        outboundExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        registration.taskExecutor(outboundExecutor)
+            .corePoolSize(outboundThreads)
+            .maxPoolSize(outboundThreads)
+            .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(cborWireFormatInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(Math.toIntExact(sendTimeLimit.toMillis()));
+        registration.setSendBufferSizeLimit(Math.toIntExact(sendBufferSizeLimit.toBytes()));
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/game").withSockJS();
+        registry.addEndpoint("/game-ws").addInterceptors(cborWireFormatInterceptor.binaryTransportMarker());
     }
 }
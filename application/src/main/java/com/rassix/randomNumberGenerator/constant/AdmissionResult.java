@@ -0,0 +1,8 @@
+package com.rassix.randomNumberGenerator.constant;
+
+public enum AdmissionResult {
+    ADMITTED,
+    PLAYER_RATE_LIMITED,
+    ADDRESS_RATE_LIMITED,
+    OVERLOADED
+}
@@ -0,0 +1,8 @@
+package com.rassix.randomNumberGenerator.constant;
+
+public enum BetResult {
+    ACCEPTED,
+    PLAYER_EXISTS,
+    BETTING_CLOSED,
+    QUEUE_FULL
+}
@@ -0,0 +1,6 @@
+package com.rassix.randomNumberGenerator.constant;
+
+public enum GameTimerType {
+    WHEEL,
+    SCHEDULER
+}
@@ -0,0 +1,6 @@
+package com.rassix.randomNumberGenerator.constant;
+
+public enum SlowConsumerPolicy {
+    DROP,
+    TERMINATE
+}
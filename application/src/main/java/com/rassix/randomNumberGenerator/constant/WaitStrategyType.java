@@ -0,0 +1,8 @@
+package com.rassix.randomNumberGenerator.constant;
+
+public enum WaitStrategyType {
+    BUSY_SPIN,
+    YIELDING,
+    SLEEPING,
+    BLOCKING
+}
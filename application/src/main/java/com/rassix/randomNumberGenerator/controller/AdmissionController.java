@@ -0,0 +1,67 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.controller.dto.ErrorResponse;
+import com.rassix.randomNumberGenerator.service.AdmissionControl;
+import com.rassix.randomNumberGenerator.service.dto.AdmissionLimits;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Bet intake limits, readable and adjustable while the game runs. Changing them takes the admin token in the
+ * {@value #ADMIN_TOKEN_HEADER} header. Without a configured token the limits can not be changed at all.
+ */
+@RestController
+public class AdmissionController {
+
+    static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
+    private final AdmissionControl admissionControl;
+    private final byte[] adminToken;
+
+    public AdmissionController(
+        AdmissionControl admissionControl,
+        @Value("${game.admission.admin-token}") String adminToken
+    ) {
+        this.admissionControl = admissionControl;
+        this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @GetMapping("/admission/limits")
+    public AdmissionLimits limits() {
+        return admissionControl.getLimits();
+    }
+
+    @PutMapping("/admission/limits")
+    public ResponseEntity<?> setLimits(
+        @RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token,
+        @RequestBody @Valid AdmissionLimits limits
+    ) {
+        if (!isAdmin(token)) {
+            return new ResponseEntity<>(
+                new ErrorResponse("FORBIDDEN", "Changing the admission limits takes the admin token"),
+                HttpStatus.FORBIDDEN
+            );
+        }
+
+        admissionControl.setLimits(limits);
+        return ResponseEntity.ok(admissionControl.getLimits());
+    }
+
+    private boolean isAdmin(String token) {
+        return adminToken.length > 0 && !isNull(token)
+            && MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
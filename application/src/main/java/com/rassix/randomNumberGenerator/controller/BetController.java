@@ -0,0 +1,105 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
+import com.rassix.randomNumberGenerator.controller.dto.BetRequest;
+import com.rassix.randomNumberGenerator.controller.dto.ErrorResponse;
+import com.rassix.randomNumberGenerator.exception.GameMissingException;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.AdmissionControl;
+import com.rassix.randomNumberGenerator.service.GameService;
+import com.rassix.randomNumberGenerator.service.dto.Admission;
+import com.rassix.randomNumberGenerator.service.dto.Notification;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import javax.validation.Valid;
+import java.security.Principal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Bets placed as STOMP messages on the session the player already holds, so a bet costs no extra HTTP request.
+ * The player is the one the session logged in as. Every bet is answered on {@value #BET_REPLY_QUEUE} of the sending
+ * session only, with {@code BET_ACCEPTED} carrying the bet or {@code BET_REJECTED} carrying the same error codes as
+ * the HTTP endpoint, sent once the table's bet writer added the bet.
+ */
+@Slf4j
+@Controller
+@AllArgsConstructor
+public class BetController {
+
+    static final String BET_REPLY_QUEUE = "/queue/bets";
+
+    private final GameService gameService;
+    private final AdmissionControl admissionControl;
+    private final Clock clock;
+
+    @MessageMapping("/bet")
+    @SendToUser(destinations = BET_REPLY_QUEUE, broadcast = false)
+    public CompletableFuture<Notification> placeBet(@Payload @Valid BetRequest betRequest, Principal player) {
+        Instant requestReceived = clock.instant();
+        if (isNull(player)) {
+            return CompletableFuture.completedFuture(rejected(new ErrorResponse("NOT_LOGGED_IN", "Connect with a login before placing bets")));
+        }
+
+        Admission admission = admissionControl.admit(player.getName(), null);
+        if (!admission.isAdmitted()) {
+            return CompletableFuture.completedFuture(rejected(BetErrors.of(admission)));
+        }
+
+        return admissionControl.placeAdmitted(() -> placeBet(betRequest, player, requestReceived));
+    }
+
+    private CompletableFuture<Notification> placeBet(BetRequest betRequest, Principal player, Instant requestReceived) {
+        Game game = gameService.getGameDetails(betRequest.getGameId());
+        if (requestReceived.isAfter(game.getBetEndingTime())) {
+            log.warn("Player request made after bidding time is over. Aborting operation");
+            return CompletableFuture.completedFuture(rejected(BetErrors.biddingClosed()));
+        }
+
+        return gameService.addPlayer(betRequest.getGameId(), AddPlayerRequest.builder()
+            .username(player.getName())
+            .guessedNumber(betRequest.getGuessedNumber())
+            .bid(betRequest.getBid())
+            .build()
+        ).thenApply(betResult -> betResult == BetResult.ACCEPTED
+            ? Notification.builder().messageCode("BET_ACCEPTED").messagePayload(betRequest).build()
+            : rejected(BetErrors.of(betResult, player.getName())));
+    }
+
+    @MessageExceptionHandler
+    @SendToUser(destinations = BET_REPLY_QUEUE, broadcast = false)
+    public Notification invalidBet(MethodArgumentNotValidException ex) {
+        return rejected(new ErrorResponse("INVALID_REQUEST", isNull(ex.getBindingResult())
+            ? "Bet is missing"
+            : ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + " " + error.getDefaultMessage())
+                .sorted()
+                .collect(Collectors.joining(", "))));
+    }
+
+    @MessageExceptionHandler
+    @SendToUser(destinations = BET_REPLY_QUEUE, broadcast = false)
+    public Notification gameMissing(GameMissingException ex) {
+        return rejected(new ErrorResponse("GAME_MISSING", ex.getMessage()));
+    }
+
+    private static Notification rejected(ErrorResponse error) {
+        return Notification.builder()
+            .messageCode("BET_REJECTED")
+            .messagePayload(error)
+            .build();
+    }
+
+}
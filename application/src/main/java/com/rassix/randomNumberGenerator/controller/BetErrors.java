@@ -0,0 +1,55 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.controller.dto.ErrorResponse;
+import com.rassix.randomNumberGenerator.service.dto.Admission;
+
+import java.time.Duration;
+
+/**
+ * Error codes of rejected and shed bets, shared by every way of placing a bet.
+ */
+final class BetErrors {
+
+    private BetErrors() {
+    }
+
+    static ErrorResponse of(BetResult betResult, String username) {
+        switch (betResult) {
+            case PLAYER_EXISTS:
+                return new ErrorResponse("PLAYER_EXISTS", "Player " + username + " already exists in game");
+            case BETTING_CLOSED:
+                return biddingClosed();
+            case QUEUE_FULL:
+                return new ErrorResponse("BETS_QUEUE_FULL", "Too many bets at once, try again");
+            default:
+                throw new IllegalArgumentException("Bet was not rejected: " + betResult);
+        }
+    }
+
+    static ErrorResponse of(Admission admission) {
+        switch (admission.getResult()) {
+            case PLAYER_RATE_LIMITED:
+                return new ErrorResponse("TOO_MANY_BETS", "Too many bets from this player, retry in " + retryAfterSeconds(admission) + "s");
+            case ADDRESS_RATE_LIMITED:
+                return new ErrorResponse("TOO_MANY_BETS", "Too many bets from this address, retry in " + retryAfterSeconds(admission) + "s");
+            case OVERLOADED:
+                return new ErrorResponse("OVERLOADED", "Too many bets at once, retry in " + retryAfterSeconds(admission) + "s");
+            default:
+                throw new IllegalArgumentException("Bet was not shed: " + admission.getResult());
+        }
+    }
+
+    /**
+     * @return whole seconds to wait, rounded up so a client waiting that long finds a token
+     */
+    static long retryAfterSeconds(Admission admission) {
+        Duration retryAfter = admission.getRetryAfter();
+        return Math.max(1, retryAfter.getSeconds() + (retryAfter.getNano() > 0 ? 1 : 0));
+    }
+
+    static ErrorResponse biddingClosed() {
+        return new ErrorResponse("INVALID_BID", "Bidding made after expiry time");
+    }
+
+}
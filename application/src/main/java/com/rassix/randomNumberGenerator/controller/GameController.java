@@ -3,13 +3,20 @@ package com.rassix.randomNumberGenerator.controller;
 import com.rassix.randomNumberGenerator.constant.GamePhase;
 import com.rassix.randomNumberGenerator.controller.dto.GameInfoResponse;
 import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
 import com.rassix.randomNumberGenerator.service.GameService;
+import com.rassix.randomNumberGenerator.service.GameTable;
+import com.rassix.randomNumberGenerator.service.PayloadEncoder;
+import com.rassix.randomNumberGenerator.service.TableRegistry;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static java.util.Objects.isNull;
 
@@ -19,17 +26,28 @@ import static java.util.Objects.isNull;
 public class GameController {
 
     private final GameService gameService;
+    private final TableRegistry tableRegistry;
+    private final PayloadEncoder payloadEncoder;
+
+    @SubscribeMapping("/topic/tables")
+    public List<String> tablesSubscription() {
+        return tableRegistry.getTables()
+            .stream()
+            .map(GameTable::getTableId)
+            .collect(Collectors.toList());
+    }
 
-    @SubscribeMapping("/topic/getActiveGame")
-    public GameInfoResponse gameDataEventSubscription() {
-        Map.Entry<String, Game> activeGame = gameService.getActiveGame();
+    @SubscribeMapping("/topic/tables/{tableId}/getActiveGame")
+    public EncodedPayload gameDataEventSubscription(@DestinationVariable("tableId") String tableId) {
+        Map.Entry<String, Game> activeGame = gameService.getActiveGame(tableId);
 
-        return !isNull(activeGame) ? GameInfoResponse.builder()
+        return payloadEncoder.encodeGameInfo(!isNull(activeGame) ? GameInfoResponse.builder()
+                .tableId(tableId)
                 .gameId(activeGame.getKey())
                 .gamePhase(activeGame.getValue().getGamePhase())
                 .bettingEndTime(activeGame.getValue().getBetEndingTime())
                 .build()
-            : GameInfoResponse.builder().gamePhase(GamePhase.NO_ACTIVE_GAME).build();
+            : GameInfoResponse.builder().tableId(tableId).gamePhase(GamePhase.NO_ACTIVE_GAME).build());
     }
 
 }
@@ -1,7 +1,8 @@
 package com.rassix.randomNumberGenerator.controller;
 
 import com.rassix.randomNumberGenerator.controller.dto.ErrorResponse;
-import com.rassix.randomNumberGenerator.exception.PlayerExistsException;
+import com.rassix.randomNumberGenerator.exception.GameMissingException;
+import com.rassix.randomNumberGenerator.exception.IdempotencyKeyReusedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -42,13 +43,23 @@ public class GlobalControllerExceptionHandler {
     }
 
 
-    @ExceptionHandler(PlayerExistsException.class)
+    @ExceptionHandler(GameMissingException.class)
     @ResponseBody
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ResponseEntity<ErrorResponse> exceptionResponse(PlayerExistsException ex) {
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ResponseEntity<ErrorResponse> exceptionResponse(GameMissingException ex) {
         return new ResponseEntity<>(
-            new ErrorResponse("PLAYER_EXISTS", ex.getMessage()),
-            HttpStatus.BAD_REQUEST
+            new ErrorResponse("GAME_MISSING", ex.getMessage()),
+            HttpStatus.NOT_FOUND
+        );
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    @ResponseBody
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public ResponseEntity<ErrorResponse> exceptionResponse(IdempotencyKeyReusedException ex) {
+        return new ResponseEntity<>(
+            new ErrorResponse("IDEMPOTENCY_KEY_REUSED", ex.getMessage()),
+            HttpStatus.UNPROCESSABLE_ENTITY
         );
     }
 
@@ -0,0 +1,21 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.service.GameMetrics;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@AllArgsConstructor
+public class MetricsController {
+
+    private final GameMetrics gameMetrics;
+
+    @GetMapping("/metrics")
+    public Map<String, Number> metrics() {
+        return gameMetrics.snapshot();
+    }
+
+}
@@ -1,44 +1,227 @@
 package com.rassix.randomNumberGenerator.controller;
 
+import com.rassix.randomNumberGenerator.constant.AdmissionResult;
+import com.rassix.randomNumberGenerator.constant.BetResult;
 import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayerResult;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayersResponse;
 import com.rassix.randomNumberGenerator.controller.dto.ErrorResponse;
-import com.rassix.randomNumberGenerator.exception.PlayerExistsException;
 import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.AdmissionControl;
 import com.rassix.randomNumberGenerator.service.GameService;
-import lombok.AllArgsConstructor;
+import com.rassix.randomNumberGenerator.service.IdempotencyCache;
+import com.rassix.randomNumberGenerator.service.dto.Admission;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.isNull;
 
 @RestController
-@AllArgsConstructor
 @Slf4j
 @Validated
 public class PlayerController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int IDEMPOTENCY_KEY_MAX_LENGTH = 255;
+
     private final GameService gameService;
+    private final IdempotencyCache idempotencyCache;
+    private final AdmissionControl admissionControl;
+    private final Validator validator;
+    private final Clock clock;
+    private final int batchMaxSize;
 
+    public PlayerController(
+        GameService gameService,
+        IdempotencyCache idempotencyCache,
+        AdmissionControl admissionControl,
+        Validator validator,
+        Clock clock,
+        @Value("${game.bets.batch-max-size}") int batchMaxSize
+    ) {
+        this.gameService = gameService;
+        this.idempotencyCache = idempotencyCache;
+        this.admissionControl = admissionControl;
+        this.validator = validator;
+        this.clock = clock;
+        this.batchMaxSize = batchMaxSize;
+    }
+
+    /**
+     * Answered once the table's bet writer added the bet, without holding the request thread in the meantime. A bet
+     * sent with an {@value #IDEMPOTENCY_KEY_HEADER} header is answered with the original result when retried with the
+     * same key, even after betting ended. Players and addresses betting faster than allowed are answered with 429,
+     * and everybody with 503 while too many bets are being placed, both telling when to retry.
+     */
     @PostMapping("/game/addPlayer/{gameId}")
     @ResponseBody
-    public ResponseEntity<?> addPlayer(@PathVariable("gameId") String gameId, @RequestBody @Valid AddPlayerRequest addPlayerRequest) throws PlayerExistsException {
-        Instant requestReceived = Instant.now();
+    public CompletableFuture<ResponseEntity<?>> addPlayer(
+        @PathVariable("gameId") String gameId,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+        @RequestBody @Valid AddPlayerRequest addPlayerRequest,
+        HttpServletRequest request
+    ) {
+        Instant requestReceived = clock.instant();
+
+        if (!isNull(idempotencyKey) && (idempotencyKey.isEmpty() || idempotencyKey.length() > IDEMPOTENCY_KEY_MAX_LENGTH)) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(
+                new ErrorResponse("INVALID_REQUEST", IDEMPOTENCY_KEY_HEADER + " must have between 1 and " + IDEMPOTENCY_KEY_MAX_LENGTH + " characters"),
+                HttpStatus.BAD_REQUEST
+            ));
+        }
+
+        Admission admission = admissionControl.admit(addPlayerRequest.getUsername(), request.getRemoteAddr());
+        if (!admission.isAdmitted()) {
+            return CompletableFuture.completedFuture(shed(admission));
+        }
+
+        return admissionControl.placeAdmitted(() -> isNull(idempotencyKey)
+            ? placeBet(gameId, addPlayerRequest, requestReceived)
+            : idempotencyCache.getOrPlace(gameId, idempotencyKey, addPlayerRequest, () -> placeBet(gameId, addPlayerRequest, requestReceived))
+        ).thenApply(result -> {
+            switch (result) {
+                case ACCEPTED:
+                    return new ResponseEntity<>(HttpStatus.CREATED);
+                case QUEUE_FULL:
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(BetErrors.of(result, addPlayerRequest.getUsername()));
+                default:
+                    return new ResponseEntity<>(BetErrors.of(result, addPlayerRequest.getUsername()), HttpStatus.BAD_REQUEST);
+            }
+        });
+    }
+
+    /**
+     * Places the bets of many players, e.g. forwarded by an aggregator, with one bidding time check for the whole batch.
+     * Every bet is validated on its own, so invalid bets, players that already bet and bets that lost the race with
+     * the end of betting are reported in the results without rejecting the rest of the batch. The valid bets reach
+     * the table's bet writer together. A batch counts as a single request of the sending address.
+     */
+    @PostMapping("/game/addPlayers/{gameId}")
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<?>> addPlayers(
+        @PathVariable("gameId") String gameId,
+        @RequestBody List<AddPlayerRequest> addPlayerRequests,
+        HttpServletRequest request
+    ) {
+        Instant requestReceived = clock.instant();
+
+        if (isNull(addPlayerRequests) || addPlayerRequests.isEmpty() || addPlayerRequests.size() > batchMaxSize) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(
+                new ErrorResponse("INVALID_REQUEST", "Batch must contain between 1 and " + batchMaxSize + " bets"),
+                HttpStatus.BAD_REQUEST
+            ));
+        }
+
+        Admission admission = admissionControl.admit(null, request.getRemoteAddr());
+        if (!admission.isAdmitted()) {
+            return CompletableFuture.completedFuture(shed(admission));
+        }
+
+        return admissionControl.placeAdmitted(() -> placeBatch(gameId, addPlayerRequests, requestReceived));
+    }
+
+    private CompletableFuture<ResponseEntity<?>> placeBatch(String gameId, List<AddPlayerRequest> addPlayerRequests, Instant requestReceived) {
         Game game = gameService.getGameDetails(gameId);
+        if (requestReceived.isAfter(game.getBetEndingTime())) {
+            log.warn("Batch of {} bets made after bidding time is over. Aborting operation", addPlayerRequests.size());
+            return CompletableFuture.completedFuture(new ResponseEntity<>(BetErrors.biddingClosed(), HttpStatus.BAD_REQUEST));
+        }
+
+        AddPlayerResult[] results = new AddPlayerResult[addPlayerRequests.size()];
+        List<AddPlayerRequest> validRequests = new ArrayList<>(addPlayerRequests.size());
+        List<Integer> validIndexes = new ArrayList<>(addPlayerRequests.size());
+        for (int index = 0; index < addPlayerRequests.size(); index++) {
+            AddPlayerRequest addPlayerRequest = addPlayerRequests.get(index);
+            String violations = validate(addPlayerRequest);
+            if (isNull(violations)) {
+                validRequests.add(addPlayerRequest);
+                validIndexes.add(index);
+            } else {
+                results[index] = rejected(index, addPlayerRequest, new ErrorResponse("INVALID_REQUEST", violations));
+            }
+        }
+
+        CompletableFuture<List<BetResult>> betResults = validRequests.isEmpty()
+            ? CompletableFuture.completedFuture(List.of())
+            : gameService.addPlayers(gameId, validRequests);
+        return betResults.thenApply(validResults -> {
+            int acceptedCount = 0;
+            for (int i = 0; i < validRequests.size(); i++) {
+                int index = validIndexes.get(i);
+                AddPlayerRequest addPlayerRequest = validRequests.get(i);
+                BetResult betResult = validResults.get(i);
+                if (betResult == BetResult.ACCEPTED) {
+                    acceptedCount++;
+                    results[index] = AddPlayerResult.builder().index(index).username(addPlayerRequest.getUsername()).accepted(true).build();
+                } else {
+                    results[index] = rejected(index, addPlayerRequest, BetErrors.of(betResult, addPlayerRequest.getUsername()));
+                }
+            }
 
+            return ResponseEntity.ok(AddPlayersResponse.builder()
+                .gameId(gameId)
+                .acceptedCount(acceptedCount)
+                .rejectedCount(results.length - acceptedCount)
+                .results(List.of(results))
+                .build());
+        });
+    }
+
+    private CompletableFuture<BetResult> placeBet(String gameId, AddPlayerRequest addPlayerRequest, Instant requestReceived) {
+        Game game = gameService.getGameDetails(gameId);
         if (requestReceived.isAfter(game.getBetEndingTime())) {
             log.warn("Player request made after bidding time is over. Aborting operation");
-            return new ResponseEntity<>(
-                new ErrorResponse("INVALID_BID", "Bidding made after expiry time"),
-                HttpStatus.BAD_REQUEST
-            );
+            return CompletableFuture.completedFuture(BetResult.BETTING_CLOSED);
         }
+        return gameService.addPlayer(gameId, addPlayerRequest);
+    }
+
+    private static ResponseEntity<?> shed(Admission admission) {
+        return ResponseEntity.status(admission.getResult() == AdmissionResult.OVERLOADED ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(BetErrors.retryAfterSeconds(admission)))
+            .body(BetErrors.of(admission));
+    }
+
+    /**
+     * @return violations of the request joined the way the single bet endpoint reports them, null if it is valid
+     */
+    private String validate(AddPlayerRequest addPlayerRequest) {
+        if (isNull(addPlayerRequest)) {
+            return "bet is missing";
+        }
+
+        Set<ConstraintViolation<AddPlayerRequest>> violations = validator.validate(addPlayerRequest);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return Violations.join(violations);
+    }
 
-        gameService.addPlayer(gameId, addPlayerRequest);
-        return new ResponseEntity<>(HttpStatus.CREATED);
+    private static AddPlayerResult rejected(int index, AddPlayerRequest addPlayerRequest, ErrorResponse error) {
+        return AddPlayerResult.builder()
+            .index(index)
+            .username(isNull(addPlayerRequest) ? null : addPlayerRequest.getUsername())
+            .errorCode(error.getErrorCode())
+            .errorMessage(error.getErrorMessage())
+            .build();
     }
 
 }
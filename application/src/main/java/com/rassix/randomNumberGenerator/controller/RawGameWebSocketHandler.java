@@ -0,0 +1,249 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.constant.GamePhase;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
+import com.rassix.randomNumberGenerator.controller.dto.BetRequest;
+import com.rassix.randomNumberGenerator.controller.dto.ErrorResponse;
+import com.rassix.randomNumberGenerator.controller.dto.GameInfoResponse;
+import com.rassix.randomNumberGenerator.controller.dto.JoinTableRequest;
+import com.rassix.randomNumberGenerator.controller.dto.ReplayRequest;
+import com.rassix.randomNumberGenerator.exception.GameMissingException;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.AdmissionControl;
+import com.rassix.randomNumberGenerator.service.GameService;
+import com.rassix.randomNumberGenerator.service.PayloadEncoder;
+import com.rassix.randomNumberGenerator.service.RawSessionRegistry;
+import com.rassix.randomNumberGenerator.service.ReplayLog;
+import com.rassix.randomNumberGenerator.service.TableRegistry;
+import com.rassix.randomNumberGenerator.service.dto.Admission;
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Raw websocket endpoint for native clients, carrying the same events as the STOMP endpoints without STOMP framing,
+ * SockJS and the broker. Every frame is a text frame holding the frame type, a line feed and a JSON body.
+ * <p>
+ * Client frames: {@code join} ({@link JoinTableRequest}), answered by {@code joined} with the table's active game,
+ * {@code bet} ({@link BetRequest}), answered by {@code betAccepted} or {@code error} ({@link ErrorResponse}), and
+ * {@code replay} ({@link ReplayRequest}), answered by {@code replay} with the messages missed on a stream.
+ * Server frames: {@code newGame}, {@code biddingClosed}, {@code message} (e.g. the winner listing) and
+ * {@code privateMessage} (win / loss), each followed by its sequence in the stream of the matching STOMP destination.
+ * <p>
+ * A session plays as the player named in the login header of its handshake; a join naming another player is rejected.
+ * <p>
+ * Bets are answered on the threads writing messages to clients, never on the table's bet writer.
+ */
+@Slf4j
+@Component
+public class RawGameWebSocketHandler extends TextWebSocketHandler {
+
+    private final GameService gameService;
+    private final AdmissionControl admissionControl;
+    private final TableRegistry tableRegistry;
+    private final RawSessionRegistry rawSessionRegistry;
+    private final PayloadEncoder payloadEncoder;
+    private final ReplayLog replayLog;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final Clock clock;
+    private final Executor replyExecutor;
+
+    public RawGameWebSocketHandler(
+        GameService gameService,
+        AdmissionControl admissionControl,
+        TableRegistry tableRegistry,
+        RawSessionRegistry rawSessionRegistry,
+        PayloadEncoder payloadEncoder,
+        ReplayLog replayLog,
+        ObjectMapper objectMapper,
+        Validator validator,
+        Clock clock,
+        @Qualifier("clientOutboundChannelExecutor") Executor replyExecutor
+    ) {
+        this.gameService = gameService;
+        this.admissionControl = admissionControl;
+        this.tableRegistry = tableRegistry;
+        this.rawSessionRegistry = rawSessionRegistry;
+        this.payloadEncoder = payloadEncoder;
+        this.replayLog = replayLog;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.clock = clock;
+        this.replyExecutor = replyExecutor;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        rawSessionRegistry.register(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        rawSessionRegistry.unregister(session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        String frame = message.getPayload();
+        int separator = frame.indexOf('\n');
+        String type = separator < 0 ? frame : frame.substring(0, separator);
+        String body = separator < 0 ? "" : frame.substring(separator + 1);
+
+        try {
+            switch (type) {
+                case "join":
+                    join(session, read(body, JoinTableRequest.class));
+                    break;
+                case "bet":
+                    placeBet(session, read(body, BetRequest.class));
+                    break;
+                case "replay":
+                    reply(session, "replay", payloadEncoder.encode(
+                        ReplayController.replay(replayLog, read(body, ReplayRequest.class), session.getPrincipal())
+                    ));
+                    break;
+                default:
+                    replyError(session, "INVALID_REQUEST", "Unknown frame type " + type);
+            }
+        } catch (InvalidFrameException e) {
+            replyError(session, "INVALID_REQUEST", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Frame {} of session {} failed", type, session.getId(), e);
+            replyError(session, "UNKNOWN_ERROR", "Internal server error");
+        }
+    }
+
+    private void join(WebSocketSession session, JoinTableRequest joinTableRequest) {
+        String tableId = joinTableRequest.getTableId();
+        if (isNull(tableRegistry.getTable(tableId))) {
+            replyError(session, "TABLE_MISSING", "Table with the id \"" + tableId + "\" does not exist");
+            return;
+        }
+
+        Principal principal = session.getPrincipal();
+        String username = joinTableRequest.getUsername();
+        if (!isNull(username) && (isNull(principal) || !username.equals(principal.getName()))) {
+            replyError(session, "USERNAME_MISMATCH", "Joining as \"" + username + "\" takes a connection logged in as that player");
+            return;
+        }
+
+        rawSessionRegistry.join(session, tableId, isNull(principal) ? null : principal.getName());
+
+        Map.Entry<String, Game> activeGame = gameService.getActiveGame(tableId);
+        reply(session, "joined", payloadEncoder.encodeGameInfo(!isNull(activeGame) ? GameInfoResponse.builder()
+                .tableId(tableId)
+                .gameId(activeGame.getKey())
+                .gamePhase(activeGame.getValue().getGamePhase())
+                .bettingEndTime(activeGame.getValue().getBetEndingTime())
+                .build()
+            : GameInfoResponse.builder().tableId(tableId).gamePhase(GamePhase.NO_ACTIVE_GAME).build()));
+    }
+
+    private void placeBet(WebSocketSession session, BetRequest betRequest) {
+        Instant requestReceived = clock.instant();
+        String username = rawSessionRegistry.getUsername(session);
+        if (isNull(username)) {
+            replyError(session, "NOT_JOINED", "Join a table with a username before placing bets");
+            return;
+        }
+
+        Admission admission = admissionControl.admit(username, remoteAddress(session));
+        if (!admission.isAdmitted()) {
+            ErrorResponse error = BetErrors.of(admission);
+            replyError(session, error.getErrorCode(), error.getErrorMessage());
+            return;
+        }
+
+        admissionControl.placeAdmitted(() -> placeBet(session, betRequest, username, requestReceived));
+    }
+
+    private CompletableFuture<BetResult> placeBet(WebSocketSession session, BetRequest betRequest, String username, Instant requestReceived) {
+        Game game;
+        try {
+            game = gameService.getGameDetails(betRequest.getGameId());
+        } catch (GameMissingException e) {
+            replyError(session, "GAME_MISSING", e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        if (requestReceived.isAfter(game.getBetEndingTime())) {
+            replyError(session, "INVALID_BID", "Bidding made after expiry time");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return gameService.addPlayer(betRequest.getGameId(), AddPlayerRequest.builder()
+            .username(username)
+            .guessedNumber(betRequest.getGuessedNumber())
+            .bid(betRequest.getBid())
+            .build()
+        ).whenCompleteAsync((betResult, failure) -> {
+            if (!isNull(failure)) {
+                log.error("Bet of player {} failed", username, failure);
+                replyError(session, "UNKNOWN_ERROR", "Internal server error");
+            } else if (betResult == BetResult.ACCEPTED) {
+                reply(session, "betAccepted", payloadEncoder.encode(betRequest));
+            } else {
+                ErrorResponse error = BetErrors.of(betResult, username);
+                replyError(session, error.getErrorCode(), error.getErrorMessage());
+            }
+        }, replyExecutor);
+    }
+
+    private static String remoteAddress(WebSocketSession session) {
+        InetSocketAddress remoteAddress = session.getRemoteAddress();
+        return isNull(remoteAddress) || isNull(remoteAddress.getAddress()) ? null : remoteAddress.getAddress().getHostAddress();
+    }
+
+    private <T> T read(String body, Class<T> type) {
+        T request;
+        try {
+            request = objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new InvalidFrameException("Frame body is not a valid " + type.getSimpleName());
+        }
+        if (isNull(request)) {
+            throw new InvalidFrameException("Frame body is missing");
+        }
+
+        Set<ConstraintViolation<T>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new InvalidFrameException(Violations.join(violations));
+        }
+        return request;
+    }
+
+    private void replyError(WebSocketSession session, String errorCode, String errorMessage) {
+        reply(session, "error", payloadEncoder.encode(new ErrorResponse(errorCode, errorMessage)));
+    }
+
+    private void reply(WebSocketSession session, String type, EncodedPayload payload) {
+        rawSessionRegistry.send(session, RawSessionRegistry.frame(type, payload));
+    }
+
+    private static class InvalidFrameException extends RuntimeException {
+        private InvalidFrameException(String msg) {
+            super(msg);
+        }
+    }
+}
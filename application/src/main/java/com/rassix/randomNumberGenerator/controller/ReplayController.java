@@ -0,0 +1,69 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.controller.dto.ReplayRequest;
+import com.rassix.randomNumberGenerator.controller.dto.ReplayResponse;
+import com.rassix.randomNumberGenerator.controller.dto.ReplayResponse.ReplayedMessage;
+import com.rassix.randomNumberGenerator.service.NotificationService;
+import com.rassix.randomNumberGenerator.service.ReplayLog;
+import com.rassix.randomNumberGenerator.service.dto.Replay;
+import lombok.AllArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Lets a client that reconnected catch up on a stream from the last sequence it saw instead of fetching the whole
+ * state again. Streams are the table topics and {@value #PLAYER_DESTINATION} for the player's private notifications.
+ */
+@Controller
+@AllArgsConstructor
+public class ReplayController {
+
+    static final String PLAYER_DESTINATION = "/user" + NotificationService.PLAYER_QUEUE;
+    private static final String TABLE_TOPIC_PREFIX = "/topic/tables/";
+
+    private final ReplayLog replayLog;
+
+    @MessageMapping("/replay")
+    @SendToUser(destinations = "/queue/replay", broadcast = false)
+    public ReplayResponse replay(ReplayRequest replayRequest, SimpMessageHeaderAccessor headerAccessor) {
+        return replay(replayLog, replayRequest, headerAccessor.getUser());
+    }
+
+    /**
+     * Missed messages of the requested stream, also answering the replay frames of the raw websocket endpoint.
+     */
+    static ReplayResponse replay(ReplayLog replayLog, ReplayRequest replayRequest, Principal player) {
+        String destination = replayRequest.getDestination();
+        String stream = getStream(destination, player);
+        Replay replay = isNull(stream)
+            ? new Replay(false, List.of())
+            : replayLog.getMessagesAfter(stream, replayRequest.getLastSequence());
+
+        return ReplayResponse.builder()
+            .destination(destination)
+            .complete(replay.isComplete())
+            .messages(replay.getMessages().stream()
+                .map(message -> new ReplayedMessage(message.getSequence(), new String(message.getPayload().getBytes(), StandardCharsets.UTF_8)))
+                .collect(Collectors.toList()))
+            .build();
+    }
+
+    private static String getStream(String destination, Principal player) {
+        if (PLAYER_DESTINATION.equals(destination)) {
+            return isNull(player) ? null : NotificationService.playerStream(player.getName());
+        }
+        if (!isNull(destination) && destination.startsWith(TABLE_TOPIC_PREFIX)) {
+            return destination;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import javax.validation.ConstraintViolation;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Error message of a request that failed bean validation outside of Spring MVC, shared by the batch bet endpoint and
+ * the raw websocket endpoint.
+ */
+final class Violations {
+
+    private Violations() {
+    }
+
+    /**
+     * @return every violation as its property path and message, sorted so the message is stable
+     */
+    static String join(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.controller.dto.ErrorResponse;
+import com.rassix.randomNumberGenerator.controller.dto.WinnersPageResponse;
+import com.rassix.randomNumberGenerator.service.GameService;
+import com.rassix.randomNumberGenerator.service.dto.WinningPlayer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Full list of a game's winners, the WINNER_LISTING broadcast only carries the biggest wins.
+ * Winners of a settled game never change, so pages are cacheable by clients and proxies.
+ */
+@RestController
+public class WinnersController {
+
+    private final GameService gameService;
+    private final int maxPageSize;
+    private final CacheControl cacheControl;
+
+    public WinnersController(
+        GameService gameService,
+        @Value("${game.winners.max-page-size}") int maxPageSize,
+        @Value("${game.winners.cache-max-age}") Duration cacheMaxAge
+    ) {
+        this.gameService = gameService;
+        this.maxPageSize = maxPageSize;
+        this.cacheControl = CacheControl.maxAge(cacheMaxAge).cachePublic();
+    }
+
+    @GetMapping("/game/{gameId}/winners")
+    public ResponseEntity<?> winners(
+        @PathVariable("gameId") String gameId,
+        @RequestParam(value = "page", defaultValue = "0") int page,
+        @RequestParam(value = "size", defaultValue = "100") int size
+    ) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            return new ResponseEntity<>(
+                new ErrorResponse("INVALID_REQUEST", "page must not be negative and size must be between 1 and " + maxPageSize),
+                HttpStatus.BAD_REQUEST
+            );
+        }
+
+        List<WinningPlayer> winners = gameService.getGameDetails(gameId).getWinners();
+        if (isNull(winners)) {
+            return new ResponseEntity<>(
+                new ErrorResponse("GAME_NOT_SETTLED", "Winners are known once the game is settled"),
+                HttpStatus.CONFLICT
+            );
+        }
+
+        int from = (int) Math.min((long) page * size, winners.size());
+        int to = Math.min(from + size, winners.size());
+        return ResponseEntity.ok()
+            .cacheControl(cacheControl)
+            .body(WinnersPageResponse.builder()
+                .gameId(gameId)
+                .page(page)
+                .size(size)
+                .totalWinners(winners.size())
+                .winners(winners.subList(from, to))
+                .build());
+    }
+
+}
@@ -1,33 +1,49 @@
 package com.rassix.randomNumberGenerator.controller.dto;
 
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Builder;
 
+import javax.validation.constraints.Digits;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import java.math.BigDecimal;
 
+import static java.util.Objects.isNull;
+
 
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class AddPlayerRequest {
 
     @NotNull
+    @EqualsAndHashCode.Include
     private String username;
 
     @NotNull
     @Min(1)
     @Max(10)
+    @EqualsAndHashCode.Include
     private Integer guessedNumber;
 
     @NotNull
     @Positive
+    @Digits(integer = 12, fraction = 2)
     private BigDecimal bid;
 
+    /**
+     * The bid without trailing zeros, so a bid of 5 equals a bid of 5.00.
+     */
+    @EqualsAndHashCode.Include
+    private BigDecimal normalizedBid() {
+        return isNull(bid) ? null : bid.stripTrailingZeros();
+    }
+
 }
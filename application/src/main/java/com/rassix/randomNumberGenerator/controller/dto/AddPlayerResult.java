@@ -0,0 +1,25 @@
+package com.rassix.randomNumberGenerator.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one bet of a batch, errors carry the same codes as the single bet endpoint.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AddPlayerResult {
+
+    private int index;
+    private String username;
+    private boolean accepted;
+    private String errorCode;
+    private String errorMessage;
+
+}
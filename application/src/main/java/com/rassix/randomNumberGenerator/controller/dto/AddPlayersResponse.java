@@ -0,0 +1,21 @@
+package com.rassix.randomNumberGenerator.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AddPlayersResponse {
+
+    private String gameId;
+    private int acceptedCount;
+    private int rejectedCount;
+    private List<AddPlayerResult> results;
+
+}
@@ -0,0 +1,37 @@
+package com.rassix.randomNumberGenerator.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+/**
+ * Bet placed over a websocket, the player is the one the session belongs to.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BetRequest {
+
+    @NotNull
+    private String gameId;
+
+    @NotNull
+    @Min(1)
+    @Max(10)
+    private Integer guessedNumber;
+
+    @NotNull
+    @Positive
+    @Digits(integer = 12, fraction = 2)
+    private BigDecimal bid;
+
+}
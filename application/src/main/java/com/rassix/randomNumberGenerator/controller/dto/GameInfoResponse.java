@@ -14,6 +14,7 @@ import java.time.Instant;
 @Builder
 public class GameInfoResponse {
 
+    private String tableId;
     private String gameId;
     private GamePhase gamePhase;
     private Instant bettingEndTime;
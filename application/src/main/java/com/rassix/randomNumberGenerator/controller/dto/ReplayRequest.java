@@ -0,0 +1,21 @@
+package com.rassix.randomNumberGenerator.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReplayRequest {
+
+    @NotNull
+    private String destination;
+
+    private long lastSequence;
+
+}
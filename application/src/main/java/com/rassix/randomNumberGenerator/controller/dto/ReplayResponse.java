@@ -0,0 +1,32 @@
+package com.rassix.randomNumberGenerator.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReplayResponse {
+
+    private String destination;
+    private boolean complete;
+    private List<ReplayedMessage> messages;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReplayedMessage {
+
+        private long sequence;
+
+        @JsonRawValue
+        private String body;
+
+    }
+}
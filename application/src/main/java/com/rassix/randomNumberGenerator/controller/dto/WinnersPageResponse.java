@@ -0,0 +1,23 @@
+package com.rassix.randomNumberGenerator.controller.dto;
+
+import com.rassix.randomNumberGenerator.service.dto.WinningPlayer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WinnersPageResponse {
+
+    private String gameId;
+    private int page;
+    private int size;
+    private int totalWinners;
+    private List<WinningPlayer> winners;
+
+}
@@ -0,0 +1,9 @@
+package com.rassix.randomNumberGenerator.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String msg) {
+        super(msg);
+    }
+
+}
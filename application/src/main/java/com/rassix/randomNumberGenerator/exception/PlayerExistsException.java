@@ -1,9 +0,0 @@
-package com.rassix.randomNumberGenerator.exception;
-
-public class PlayerExistsException extends Exception{
-
-    public PlayerExistsException(String msg) {
-        super(msg);
-    }
-
-}
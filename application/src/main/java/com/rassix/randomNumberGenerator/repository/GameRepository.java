@@ -1,27 +1,51 @@
 package com.rassix.randomNumberGenerator.repository;
 
+import com.rassix.randomNumberGenerator.constant.BetResult;
 import com.rassix.randomNumberGenerator.constant.GamePhase;
 import com.rassix.randomNumberGenerator.exception.GameMissingException;
-import com.rassix.randomNumberGenerator.exception.PlayerExistsException;
 import com.rassix.randomNumberGenerator.repository.model.Game;
 import com.rassix.randomNumberGenerator.repository.model.Game.Player;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static java.util.Objects.isNull;
-
+/**
+ * Keeps the currently active game of every table behind a direct reference and only a bounded archive of
+ * ended games per table, so lookups and memory usage do not grow with application uptime.
+ * <p>
+ * Safe for concurrent use: bets are accepted without a repository wide lock, duplicate players are
+ * detected atomically by the game's concurrent player map, bets racing the end of betting are either added before the
+ * game is sealed or rejected, and only archiving ended games of a table is serialized.
+ */
 @Slf4j
 public class GameRepository {
 
-    private Map<String, Game> games = new HashMap<>();
+    private final Map<String, Game> games = new ConcurrentHashMap<>();
+    private final Map<String, Map.Entry<String, Game>> activeGames = new ConcurrentHashMap<>();
+    private final Map<String, Deque<Map.Entry<String, Instant>>> endedGames = new ConcurrentHashMap<>();
+
+    private final int maxEndedGames;
+    private final Duration maxEndedGameAge;
+    private final Clock clock;
+
+    public GameRepository(int maxEndedGames, Duration maxEndedGameAge, Clock clock) {
+        this.maxEndedGames = maxEndedGames;
+        this.maxEndedGameAge = maxEndedGameAge;
+        this.clock = clock;
+    }
 
     public String createGame(Game game) {
         String gameId = UUID.randomUUID().toString();
         games.put(gameId, game);
+        activeGames.put(game.getTableId(), Map.entry(gameId, game));
         return gameId;
     }
 
@@ -34,17 +58,51 @@ public class GameRepository {
         return games;
     }
 
-    public synchronized void addPlayer(String gameId, String playerName, Player player) throws PlayerExistsException {
-        Game game = games.get(gameId);
-        if(!isNull(game.getPlayers().get(playerName))) {
-            throw new PlayerExistsException("Player " + playerName + " already exists in game");
-        }
-        game.getPlayers().put(playerName, player);
+    public Map.Entry<String, Game> getActiveGame(String tableId) {
+        return activeGames.get(tableId);
     }
 
+    public BetResult addPlayer(String gameId, String playerName, Player player) {
+        return getGame(gameId).addPlayer(playerName, player);
+    }
+
+    /**
+     * Leaving the betting phase seals the game before the new phase becomes visible, so whoever acts on the new phase
+     * sees the final set of players.
+     */
     public void changeGamePhase(String gameId, GamePhase newPhase) {
-        Game game = games.get(gameId);
+        Game game = getGame(gameId);
+        GamePhase oldPhase = game.getGamePhase();
+        if (GamePhase.BETTING_PHASE != newPhase) {
+            game.seal();
+        }
         game.setGamePhase(newPhase);
+
+        if (GamePhase.ENDED == newPhase && GamePhase.ENDED != oldPhase) {
+            archiveGame(gameId, game.getTableId());
+        }
+    }
+
+    private void archiveGame(String gameId, String tableId) {
+        activeGames.computeIfPresent(tableId, (x, activeGame) -> gameId.equals(activeGame.getKey()) ? null : activeGame);
+
+        Deque<Map.Entry<String, Instant>> endedTableGames = endedGames.computeIfAbsent(tableId, x -> new ArrayDeque<>());
+        synchronized (endedTableGames) {
+            Instant now = clock.instant();
+            endedTableGames.addLast(Map.entry(gameId, now));
+            evictEndedGames(endedTableGames, now);
+        }
+    }
+
+    private void evictEndedGames(Deque<Map.Entry<String, Instant>> endedTableGames, Instant now) {
+        Instant oldestAllowed = now.minus(maxEndedGameAge);
+
+        while (!endedTableGames.isEmpty()
+            && (endedTableGames.size() > maxEndedGames || !endedTableGames.peekFirst().getValue().isAfter(oldestAllowed))) {
+            String evictedGameId = endedTableGames.pollFirst().getKey();
+            games.remove(evictedGameId);
+            log.debug("Game with id " + evictedGameId + " evicted from history");
+        }
     }
 
 }
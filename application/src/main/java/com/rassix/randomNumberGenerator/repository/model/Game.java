@@ -1,32 +1,145 @@
 package com.rassix.randomNumberGenerator.repository.model;
 
+import com.rassix.randomNumberGenerator.constant.BetResult;
 import com.rassix.randomNumberGenerator.constant.GamePhase;
+import com.rassix.randomNumberGenerator.service.dto.WinningPlayer;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.isNull;
 
 @Getter
 @NoArgsConstructor
-@Builder
-@AllArgsConstructor
 public class Game {
 
+    public static final int LOWEST_NUMBER = 1;
+    public static final int HIGHEST_NUMBER = 10;
+
+    private static final int SEALED = Integer.MIN_VALUE;
+
+    private String tableId;
     private Instant betEndingTime;
     @Setter
-    private GamePhase gamePhase;
+    private volatile GamePhase gamePhase;
     private Integer winningNumber;
-    @Builder.Default
-    private Map<String, Player> players = new HashMap<>();
+    private final Map<String, Player> players = new ConcurrentHashMap<>();
+
+    /**
+     * Players indexed by the number they guessed, so settling a game only has to look at the bucket
+     * of the winning number. Only filled together with {@link #players}, so the two never disagree.
+     */
+    @Getter(AccessLevel.NONE)
+    private final List<Map<String, Player>> playersByGuessedNumber = createGuessedNumberBuckets();
+
+    /**
+     * All winners of the game, set once the game is settled and never changed afterwards.
+     */
+    @Setter
+    private volatile List<WinningPlayer> winners;
+
+    /**
+     * Number of bets being added right now, with the sign bit set once the game is sealed. A bet only enters while
+     * the game is not sealed and late bets leave the counter untouched, so sealing and betting never interleave:
+     * every bet either lands before {@link #seal()} returns or is rejected, and a burst of late bets cannot hold
+     * the seal up.
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger betsInProgress = new AtomicInteger();
+
+    /**
+     * @param players added as if each had placed a bet
+     */
+    @Builder
+    private Game(String tableId, Instant betEndingTime, GamePhase gamePhase, Integer winningNumber,
+                 Map<String, Player> players, List<WinningPlayer> winners) {
+        this.tableId = tableId;
+        this.betEndingTime = betEndingTime;
+        this.gamePhase = gamePhase;
+        this.winningNumber = winningNumber;
+        this.winners = winners;
+        if (!isNull(players)) {
+            players.forEach(this::addPlayer);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the guessed number is outside {@value #LOWEST_NUMBER}..{@value #HIGHEST_NUMBER}
+     */
+    public BetResult addPlayer(String playerName, Player player) {
+        if (!isGuessable(player.getGuessedNumber())) {
+            throw new IllegalArgumentException("Guessed number " + player.getGuessedNumber() + " is outside "
+                + LOWEST_NUMBER + ".." + HIGHEST_NUMBER);
+        }
+
+        int inProgress;
+        do {
+            inProgress = betsInProgress.get();
+            if (inProgress < 0) {
+                return BetResult.BETTING_CLOSED;
+            }
+        } while (!betsInProgress.compareAndSet(inProgress, inProgress + 1));
+
+        try {
+            if (!isNull(players.putIfAbsent(playerName, player))) {
+                return BetResult.PLAYER_EXISTS;
+            }
+            playersByGuessedNumber.get(player.getGuessedNumber() - LOWEST_NUMBER).put(playerName, player);
+            return BetResult.ACCEPTED;
+        } finally {
+            betsInProgress.decrementAndGet();
+        }
+    }
+
+    /**
+     * Rejects all further bets and waits for the ones already being added, so once it returns the players of the
+     * game never change again and settlement can read them without any coordination.
+     */
+    public void seal() {
+        int inProgress = betsInProgress.get();
+        while (inProgress >= 0 && !betsInProgress.compareAndSet(inProgress, inProgress | SEALED)) {
+            inProgress = betsInProgress.get();
+        }
+
+        while (betsInProgress.get() != SEALED) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public boolean isSealed() {
+        return betsInProgress.get() < 0;
+    }
+
+    /**
+     * @return empty for numbers nobody can guess
+     */
+    public Map<String, Player> getPlayersWhoGuessed(int number) {
+        return isGuessable(number) ? playersByGuessedNumber.get(number - LOWEST_NUMBER) : Map.of();
+    }
+
+    private static boolean isGuessable(Integer number) {
+        return !isNull(number) && number >= LOWEST_NUMBER && number <= HIGHEST_NUMBER;
+    }
+
+    private static List<Map<String, Player>> createGuessedNumberBuckets() {
+        List<Map<String, Player>> buckets = new ArrayList<>(HIGHEST_NUMBER - LOWEST_NUMBER + 1);
+        for (int number = LOWEST_NUMBER; number <= HIGHEST_NUMBER; number++) {
+            buckets.add(new ConcurrentHashMap<>());
+        }
+        return buckets;
+    }
 
     @Getter
     @AllArgsConstructor
     @NoArgsConstructor
     @Builder
     public static class Player {
-        private BigDecimal betAmount;
+        private Money betAmount;
         private Integer guessedNumber;
     }
 }
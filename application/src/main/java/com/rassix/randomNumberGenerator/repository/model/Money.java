@@ -0,0 +1,77 @@
+package com.rassix.randomNumberGenerator.repository.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount of money kept as a whole number of minor units (cents), so bet and payout arithmetic
+ * works on longs instead of allocating BigDecimals. Converted to {@link BigDecimal} only at the JSON edge.
+ */
+@Getter
+@EqualsAndHashCode
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has more than {@link #SCALE} decimal places or does not fit into a long
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    public Money add(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * Multiplies the amount by {@code numerator / denominator}, rounding the exact result to minor units with
+     * {@link RoundingMode#HALF_EVEN}, the same way {@code BigDecimal#setScale(SCALE, HALF_EVEN)} would.
+     */
+    public Money multiply(long numerator, long denominator) {
+        if (denominator <= 0) {
+            throw new IllegalArgumentException("Denominator must be positive");
+        }
+
+        long product = Math.multiplyExact(minorUnits, numerator);
+        long quotient = Math.floorDiv(product, denominator);
+        long doubledRemainder = 2 * Math.floorMod(product, denominator);
+
+        if (doubledRemainder > denominator || (doubledRemainder == denominator && (quotient & 1) != 0)) {
+            quotient++;
+        }
+        return new Money(quotient);
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
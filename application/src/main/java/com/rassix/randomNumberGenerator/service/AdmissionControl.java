@@ -0,0 +1,155 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.constant.AdmissionResult;
+import com.rassix.randomNumberGenerator.service.dto.Admission;
+import com.rassix.randomNumberGenerator.service.dto.AdmissionLimits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Decides whether a bet may be placed before any work is done for it, so a flooding client is turned away for the
+ * cost of a few atomic operations and cannot slow the round down for everybody else.
+ * <p>
+ * Every player and every address has a token bucket, and only so many bets are placed at the same time over all
+ * players. Nothing here locks: buckets and the count of bets being placed are updated with compare-and-set. The
+ * limits can be changed while running and apply to the next bet.
+ */
+@Service
+@Slf4j
+public class AdmissionControl {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Duration OVERLOADED_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final TokenBuckets playerBuckets = new TokenBuckets();
+    private final TokenBuckets addressBuckets = new TokenBuckets();
+    private final AtomicInteger betsInProgress = new AtomicInteger();
+    private final AtomicLong nextSweepNanos;
+
+    private final Clock clock;
+    private final GameMetrics gameMetrics;
+    private volatile AdmissionLimits limits;
+
+    public AdmissionControl(
+        Clock clock,
+        GameMetrics gameMetrics,
+        @Value("${game.admission.player.rate}") double playerRate,
+        @Value("${game.admission.player.burst}") int playerBurst,
+        @Value("${game.admission.address.rate}") double addressRate,
+        @Value("${game.admission.address.burst}") int addressBurst,
+        @Value("${game.admission.max-concurrent-bets}") int maxConcurrentBets
+    ) {
+        this.clock = clock;
+        this.gameMetrics = gameMetrics;
+        setLimits(new AdmissionLimits(playerRate, playerBurst, addressRate, addressBurst, maxConcurrentBets));
+        this.nextSweepNanos = new AtomicLong(nowNanos() + SWEEP_INTERVAL_NANOS);
+
+        gameMetrics.registerGauge("admission.bets-in-progress", betsInProgress::get);
+        gameMetrics.registerGauge("admission.buckets", () -> playerBuckets.size() + addressBuckets.size());
+    }
+
+    public AdmissionLimits getLimits() {
+        return limits;
+    }
+
+    public void setLimits(AdmissionLimits limits) {
+        if (limits.getPlayerRate() < 0 || limits.getAddressRate() < 0
+            || limits.getPlayerBurst() < 1 || limits.getAddressBurst() < 1 || limits.getMaxConcurrentBets() < 1) {
+            throw new IllegalArgumentException("Admission rates must not be negative, bursts and concurrent bets must be at least 1");
+        }
+        this.limits = limits;
+        log.info("Bet admission limits: player {}/s burst {}, address {}/s burst {}, {} concurrent bets",
+            limits.getPlayerRate(), limits.getPlayerBurst(), limits.getAddressRate(), limits.getAddressBurst(), limits.getMaxConcurrentBets());
+    }
+
+    /**
+     * Takes a place among the bets in progress and a token of the player and of the address. A bet turned away by a
+     * later check gets back what the earlier checks took, so a player is not charged for bets that were never placed.
+     * An admitted bet has to be placed with {@link #placeAdmitted(Supplier)}, which gives the place back.
+     *
+     * @param username null for requests carrying bets of many players
+     * @param address null when not known
+     */
+    public Admission admit(String username, String address) {
+        AdmissionLimits current = limits;
+        long now = nowNanos();
+        evictFullBuckets(now);
+
+        int inProgress;
+        do {
+            inProgress = betsInProgress.get();
+            if (inProgress >= current.getMaxConcurrentBets()) {
+                return shed(AdmissionResult.OVERLOADED, OVERLOADED_RETRY_AFTER);
+            }
+        } while (!betsInProgress.compareAndSet(inProgress, inProgress + 1));
+
+        boolean playerLimited = !isNull(username) && current.getPlayerRate() > 0;
+        if (playerLimited) {
+            long waitNanos = playerBuckets.tryTake(username, now, tokenInterval(current.getPlayerRate()), current.getPlayerBurst());
+            if (waitNanos > 0) {
+                betsInProgress.decrementAndGet();
+                return shed(AdmissionResult.PLAYER_RATE_LIMITED, Duration.ofNanos(waitNanos));
+            }
+        }
+        if (!isNull(address) && current.getAddressRate() > 0) {
+            long waitNanos = addressBuckets.tryTake(address, now, tokenInterval(current.getAddressRate()), current.getAddressBurst());
+            if (waitNanos > 0) {
+                betsInProgress.decrementAndGet();
+                if (playerLimited) {
+                    playerBuckets.giveBack(username, tokenInterval(current.getPlayerRate()));
+                }
+                return shed(AdmissionResult.ADDRESS_RATE_LIMITED, Duration.ofNanos(waitNanos));
+            }
+        }
+        return Admission.ADMITTED;
+    }
+
+    /**
+     * Places an admitted bet and gives its place among the bets in progress back once the bet is placed or failed.
+     */
+    public <T> CompletableFuture<T> placeAdmitted(Supplier<CompletableFuture<T>> placeBet) {
+        CompletableFuture<T> result;
+        try {
+            result = placeBet.get();
+        } catch (RuntimeException e) {
+            betsInProgress.decrementAndGet();
+            throw e;
+        }
+        return result.whenComplete((x, error) -> betsInProgress.decrementAndGet());
+    }
+
+    private Admission shed(AdmissionResult result, Duration retryAfter) {
+        gameMetrics.increment("admission.shed." + result.name().toLowerCase().replace('_', '-'));
+        return new Admission(result, retryAfter);
+    }
+
+    private void evictFullBuckets(long now) {
+        long sweepNanos = nextSweepNanos.get();
+        if (now - sweepNanos < 0 || !nextSweepNanos.compareAndSet(sweepNanos, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        playerBuckets.evictFull(now);
+        addressBuckets.evictFull(now);
+    }
+
+    private long nowNanos() {
+        Instant now = clock.instant();
+        return TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+    }
+
+    private static long tokenInterval(double rate) {
+        return Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+    }
+}
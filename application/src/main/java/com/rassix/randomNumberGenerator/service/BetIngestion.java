@@ -0,0 +1,131 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.constant.WaitStrategyType;
+import com.rassix.randomNumberGenerator.repository.GameRepository;
+import com.rassix.randomNumberGenerator.repository.model.Game.Player;
+import com.rassix.randomNumberGenerator.service.ring.RingBuffer;
+import com.rassix.randomNumberGenerator.service.ring.WaitStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bets on their way into the games. Request threads only claim a slot of a preallocated ring buffer and get a future
+ * of the result, while one writer thread per table adds the bets to the games, everything published since its last
+ * pass at once. Request threads therefore never contend on a game, even in the last second of betting when most
+ * bets arrive.
+ * <p>
+ * The futures are completed on the writer thread, so callers should only hand the result off. When the ring is full
+ * the bets are rejected right away rather than queued. Without writers bets are added on the submitting thread, as in
+ * the simulation.
+ */
+@Service
+@Slf4j
+public class BetIngestion {
+
+    private final GameRepository gameRepository;
+    private final GameMetrics gameMetrics;
+    private final RingBuffer<BetEvent> ringBuffer;
+
+    public BetIngestion(
+        GameRepository gameRepository,
+        GameMetrics gameMetrics,
+        @Value("${game.bets.ring.capacity}") int capacity,
+        @Value("${game.bets.ring.writers}") int writers,
+        @Value("${game.bets.ring.wait-strategy}") WaitStrategyType waitStrategyType
+    ) {
+        if (writers < 0) {
+            throw new IllegalArgumentException("Bet ring writers must not be negative");
+        }
+        this.gameRepository = gameRepository;
+        this.gameMetrics = gameMetrics;
+        this.ringBuffer = writers == 0 ? null : new RingBuffer<>(
+            "bet-writer", capacity, BetEvent::new, writers, this::apply, WaitStrategy.create(waitStrategyType)
+        );
+
+        if (ringBuffer != null) {
+            gameMetrics.registerGauge("bets.ring.backlog", ringBuffer::getBacklog);
+        }
+    }
+
+    /**
+     * @return result of every bet in order
+     */
+    public CompletableFuture<List<BetResult>> submit(String tableId, String gameId, List<String> playerNames, List<Player> players) {
+        CompletableFuture<List<BetResult>> results = new CompletableFuture<>();
+        BetEvent event;
+        if (ringBuffer == null) {
+            event = new BetEvent();
+        } else {
+            long sequence = ringBuffer.tryClaim(tableId.hashCode());
+            if (sequence < 0) {
+                gameMetrics.increment("bets.ring.overflow", players.size());
+                log.warn("Bet ring is full, rejecting {} bets on table {}", players.size(), tableId);
+                results.complete(Collections.nCopies(players.size(), BetResult.QUEUE_FULL));
+                return results;
+            }
+            event = ringBuffer.get(sequence);
+            event.sequence = sequence;
+        }
+
+        event.gameId = gameId;
+        event.playerNames = playerNames;
+        event.players = players;
+        event.results = results;
+
+        if (ringBuffer == null) {
+            apply(event);
+        } else {
+            ringBuffer.publish(event.sequence);
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ringBuffer != null) {
+            ringBuffer.shutdown();
+        }
+    }
+
+    private void apply(BetEvent event) {
+        CompletableFuture<List<BetResult>> results = event.results;
+        try {
+            List<BetResult> betResults = new ArrayList<>(event.players.size());
+            for (int i = 0; i < event.players.size(); i++) {
+                betResults.add(gameRepository.addPlayer(event.gameId, event.playerNames.get(i), event.players.get(i)));
+            }
+            results.complete(betResults);
+        } catch (RuntimeException e) {
+            results.completeExceptionally(e);
+        } finally {
+            event.clear();
+        }
+    }
+
+    /**
+     * Slot of the ring, reused for every submission. Cleared once applied so the slot does not keep the bets alive
+     * until it is reused.
+     */
+    private static final class BetEvent {
+        private long sequence;
+        private String gameId;
+        private List<String> playerNames;
+        private List<Player> players;
+        private CompletableFuture<List<BetResult>> results;
+
+        private void clear() {
+            gameId = null;
+            playerNames = null;
+            players = null;
+            results = null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.rassix.randomNumberGenerator.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Minimal in-process registry for counters, gauges and timings, exposed through the metrics endpoint.
+ */
+@Component
+public class GameMetrics {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<Number>> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Timing> timings = new ConcurrentHashMap<>();
+
+    public void increment(String name) {
+        increment(name, 1);
+    }
+
+    public void increment(String name, long amount) {
+        counters.computeIfAbsent(name, x -> new LongAdder()).add(amount);
+    }
+
+    public long getCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public void registerGauge(String name, Supplier<Number> valueSupplier) {
+        gauges.put(name, valueSupplier);
+    }
+
+    public void recordTime(String name, Duration duration) {
+        timings.computeIfAbsent(name, x -> new Timing()).record(duration.toMillis());
+    }
+
+    public Map<String, Number> snapshot() {
+        Map<String, Number> snapshot = new TreeMap<>();
+
+        counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> snapshot.put(name, gauge.get()));
+        timings.forEach((name, timing) -> {
+            long count = timing.count.sum();
+            snapshot.put(name + ".count", count);
+            snapshot.put(name + ".last-ms", timing.last.get());
+            snapshot.put(name + ".max-ms", timing.max.get());
+            snapshot.put(name + ".mean-ms", count == 0 ? 0 : timing.total.sum() / (double) count);
+        });
+
+        return snapshot;
+    }
+
+    private static class Timing {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong last = new AtomicLong();
+        private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        private void record(long millis) {
+            count.increment();
+            total.add(millis);
+            last.set(millis);
+            max.accumulate(millis);
+        }
+    }
+}
@@ -2,56 +2,160 @@ package com.rassix.randomNumberGenerator.service;
 
 
 import com.rassix.randomNumberGenerator.constant.GamePhase;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
-@AllArgsConstructor
+/**
+ * Drives the games of every table as a timer based state machine: BETTING_PHASE -> RESULTS_PHASE -> ENDED.
+ * <p>
+ * Every transition is scheduled for an exact instant on the table's event loop and no thread waits for the
+ * betting window to pass. Rounds of a table start on a fixed cadence anchored at its first round,
+ * so settlement time does not shift later rounds.
+ * <p>
+ * In pipelined mode the next round opens as soon as betting of the previous one closes, while the previous round
+ * is settled in the background. Settlements of a table still run one after another in round order, so a player
+ * always receives the result of a round before the result of the next one, although the next round's
+ * newGame message may arrive before the previous round's results.
+ */
 @Service
 @Slf4j
 public class GameScheduler {
 
+    private static final Duration LATE_START_TOLERANCE = Duration.ofMillis(500);
+
     private final NumberGenerationService numberGenerationService;
     private final GameService gameService;
+    private final TableRegistry tableRegistry;
+    private final Executor settlementExecutor;
+    private final GameMetrics gameMetrics;
+    private final Clock clock;
+    private final Duration bettingDuration;
+    private final Duration roundDuration;
+    private final boolean pipelined;
+
+    public GameScheduler(
+        NumberGenerationService numberGenerationService,
+        GameService gameService,
+        TableRegistry tableRegistry,
+        @Qualifier("settlementExecutor") Executor settlementExecutor,
+        GameMetrics gameMetrics,
+        Clock clock,
+        @Value("${game.round.betting-duration}") Duration bettingDuration,
+        @Value("${game.round.results-duration}") Duration resultsDuration,
+        @Value("${game.round.pipelined}") boolean pipelined
+    ) {
+        this.numberGenerationService = numberGenerationService;
+        this.gameService = gameService;
+        this.tableRegistry = tableRegistry;
+        this.settlementExecutor = settlementExecutor;
+        this.gameMetrics = gameMetrics;
+        this.clock = clock;
+        this.bettingDuration = bettingDuration;
+        this.roundDuration = pipelined ? bettingDuration : bettingDuration.plus(resultsDuration);
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * Starts the first rounds of the tables spread evenly over one round, so the tables do not all close betting and
+     * settle at the same instant.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Instant now = clock.instant();
+        List<GameTable> tables = new ArrayList<>(tableRegistry.getTables());
+
+        for (int i = 0; i < tables.size(); i++) {
+            GameTable table = tables.get(i);
+            Instant firstRoundStart = now.plus(roundDuration.multipliedBy(i).dividedBy(tables.size()));
+            table.getEventLoop().schedule(() -> startRound(table, firstRoundStart), firstRoundStart);
+        }
+    }
+
+    void startRound(GameTable table, Instant roundStart) {
+        gameMetrics.recordTime("round.start-drift", Duration.between(roundStart, clock.instant()));
 
-    @Scheduled(initialDelay = 0, fixedDelay = 2500)
-    public void initGame() throws InterruptedException, ExecutionException {
-        Instant now = Instant.now();
-        Instant betEndingTime = now.plus(10, ChronoUnit.SECONDS);
+        try {
+            Instant betEndingTime = roundStart.plus(bettingDuration);
 
-        log.info("Starting a new game");
-        Integer winningNumber = numberGenerationService.generateNumber();
-        System.out.println(winningNumber);
-        String gameId = gameService.createGame(betEndingTime, winningNumber);
-        log.info("Game with id " + gameId + " created");
+            log.info("Starting a new game on table " + table.getTableId());
+            Integer winningNumber = numberGenerationService.generateNumber(table.getRandom());
+            String gameId = gameService.createGame(table.getTableId(), betEndingTime, winningNumber);
+            log.info("Game with id " + gameId + " created");
 
-        Thread.sleep(ChronoUnit.MILLIS.between(now, betEndingTime));
+            table.getEventLoop().schedule(() -> closeBetting(table, gameId, roundStart), betEndingTime);
+        } catch (RuntimeException e) {
+            log.error("Failed to start game on table " + table.getTableId(), e);
+            scheduleNextRound(table, roundStart);
+        }
+    }
+
+    private void closeBetting(GameTable table, String gameId, Instant roundStart) {
+        try {
+            log.info("Betting phase ended");
+            gameService.changeGamePhase(gameId, GamePhase.RESULTS_PHASE);
+        } catch (RuntimeException e) {
+            try {
+                endRound(table, gameId, roundStart, e);
+            } finally {
+                if (pipelined) {
+                    scheduleNextRound(table, roundStart);
+                }
+            }
+            return;
+        }
+
+        if (pipelined) {
+            scheduleNextRound(table, roundStart);
+        }
+
+        CompletableFuture<Void> settlement = table.getLastSettlement()
+            .exceptionally(previousSettlementFailure -> null)
+            .thenRunAsync(() -> gameService.settleGame(gameId), settlementExecutor);
+        table.setLastSettlement(settlement);
+
+        settlement.whenComplete((result, settlementFailure) -> endRound(table, gameId, roundStart, settlementFailure));
+    }
 
-        log.info("Betting phase ended");
-        gameService.changeGamePhase(gameId, GamePhase.RESULTS_PHASE);
-        broadCastRoundResults(gameId);
+    private void endRound(GameTable table, String gameId, Instant roundStart, Throwable failure) {
+        if (failure != null) {
+            log.error("Failed to settle game with id " + gameId, failure);
+        }
 
-        gameService.changeGamePhase(gameId, GamePhase.ENDED);
-        log.info("Game with id " + gameId + " ended");
+        try {
+            gameService.changeGamePhase(gameId, GamePhase.ENDED);
+            gameMetrics.increment("round.ended");
+            log.info("Game with id " + gameId + " ended");
+        } finally {
+            if (!pipelined) {
+                scheduleNextRound(table, roundStart);
+            }
+        }
     }
 
-    private void broadCastRoundResults(String gameId) throws ExecutionException, InterruptedException {
-        CompletableFuture<Void> notifyWinnersResult = CompletableFuture.supplyAsync(
-            () -> gameService.getWinningPlayers(gameId)
-        ).thenAccept(gameService::notifyOfWinners);
+    private void scheduleNextRound(GameTable table, Instant roundStart) {
+        Instant now = clock.instant();
+        Instant nextRoundStart = roundStart.plus(roundDuration);
 
-        CompletableFuture<Void> notifyUnluckyPlayers = CompletableFuture.supplyAsync(
-            () -> gameService.getUnluckyPlayers(gameId)
-        ).thenAccept(gameService::notifyLoss);
+        while (nextRoundStart.plus(LATE_START_TOLERANCE).isBefore(now)) {
+            log.warn("Round of table " + table.getTableId() + " starting at " + nextRoundStart + " skipped, previous round finished too late");
+            gameMetrics.increment("round.skipped");
+            nextRoundStart = nextRoundStart.plus(roundDuration);
+        }
 
-        notifyWinnersResult.get();
-        notifyUnluckyPlayers.get();
+        Instant scheduledStart = nextRoundStart;
+        table.getEventLoop().schedule(() -> startRound(table, scheduledStart), scheduledStart);
     }
 
 }
@@ -1,48 +1,75 @@
 package com.rassix.randomNumberGenerator.service;
 
+import com.rassix.randomNumberGenerator.constant.BetResult;
 import com.rassix.randomNumberGenerator.constant.GamePhase;
 import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
-import com.rassix.randomNumberGenerator.exception.PlayerExistsException;
 import com.rassix.randomNumberGenerator.repository.GameRepository;
 import com.rassix.randomNumberGenerator.repository.model.Game;
 import com.rassix.randomNumberGenerator.repository.model.Game.Player;
+import com.rassix.randomNumberGenerator.repository.model.Money;
 import com.rassix.randomNumberGenerator.service.dto.Notification;
+import com.rassix.randomNumberGenerator.service.dto.WinnerListing;
 import com.rassix.randomNumberGenerator.service.dto.WinningPlayer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static com.rassix.randomNumberGenerator.constant.GamePhase.RESULTS_PHASE;
+import static com.rassix.randomNumberGenerator.repository.model.Game.HIGHEST_NUMBER;
+import static com.rassix.randomNumberGenerator.repository.model.Game.LOWEST_NUMBER;
 
 @Service
 @Slf4j
 public class GameService {
 
-    private final NotificationService notificationService;
+    private final NotificationPublisher notificationPublisher;
+    private final BetIngestion betIngestion;
     private final GameRepository gameRepository;
-
-    public GameService(NotificationService notificationService, GameRepository gameRepository) {
-        this.notificationService = notificationService;
+    private final int winnerListingSize;
+
+    public GameService(
+        NotificationPublisher notificationPublisher,
+        BetIngestion betIngestion,
+        GameRepository gameRepository,
+        @Value("${game.winners.listing-size}") int winnerListingSize
+    ) {
+        if (winnerListingSize < 1) {
+            throw new IllegalArgumentException("Winner listing size must be positive");
+        }
+        this.notificationPublisher = notificationPublisher;
+        this.betIngestion = betIngestion;
         this.gameRepository = gameRepository;
+        this.winnerListingSize = winnerListingSize;
     }
 
     private static final BigDecimal WINNING_COEF = new BigDecimal("9.9");
+    private static final long WINNING_COEF_NUMERATOR = WINNING_COEF.unscaledValue().longValueExact();
+    private static final long WINNING_COEF_DENOMINATOR = BigDecimal.ONE.movePointRight(WINNING_COEF.scale()).longValueExact();
+    private static final Notification LOSS_NOTIFICATION = Notification.builder().messageCode("LOSS_NOTIFICATION").build();
+    private static final Comparator<WinningPlayer> BY_WON_AMOUNT = Comparator.comparing(WinningPlayer::getWonAmount);
+    private static final CompletableFuture<BetResult> PLAYER_EXISTS = CompletableFuture.completedFuture(BetResult.PLAYER_EXISTS);
 
-    public String createGame(Instant betEndingTime, Integer winningNumber) {
+    public String createGame(String tableId, Instant betEndingTime, Integer winningNumber) {
         Game game = Game.builder()
+                .tableId(tableId)
                 .betEndingTime(betEndingTime)
                 .gamePhase(GamePhase.BETTING_PHASE)
                 .winningNumber(winningNumber)
                 .build();
 
         String gameId = gameRepository.createGame(game);
-        notificationService.notifyNewGameStart(gameId, betEndingTime);
+        notificationPublisher.notifyNewGameStart(tableId, gameId, betEndingTime);
         return gameId;
     }
 
@@ -50,7 +77,7 @@ public class GameService {
         gameRepository.changeGamePhase(gameId, newPhase);
 
         if (RESULTS_PHASE == newPhase) {
-            notificationService.notifyBettingEnd();
+            notificationPublisher.notifyBettingEnd(gameRepository.getGame(gameId).getTableId());
         }
     }
 
@@ -58,76 +85,122 @@ public class GameService {
         return gameRepository.getGame(gameId);
     }
 
-    public void addPlayer(String gameId, AddPlayerRequest addPlayerRequest) throws PlayerExistsException {
-        Player player = Player.builder()
-                .betAmount(addPlayerRequest.getBid())
-                .guessedNumber(addPlayerRequest.getGuessedNumber())
-                .build();
+    /**
+     * A player who already bet is turned away by a lookup in the game, without a trip through the bet writer, so
+     * retried bets cost next to nothing.
+     */
+    public CompletableFuture<BetResult> addPlayer(String gameId, AddPlayerRequest addPlayerRequest) {
+        Game game = gameRepository.getGame(gameId);
+        if (game.getPlayers().containsKey(addPlayerRequest.getUsername())) {
+            return PLAYER_EXISTS;
+        }
 
-        gameRepository.addPlayer(gameId, addPlayerRequest.getUsername(), player);
+        return betIngestion.submit(
+            game.getTableId(), gameId, List.of(addPlayerRequest.getUsername()), List.of(toPlayer(addPlayerRequest))
+        ).thenApply(results -> results.get(0));
     }
 
-    public Map.Entry<String, Game> getActiveGame() {
-        Map<String, Game> allGames = gameRepository.getAllGames();
-
-        return allGames.entrySet()
-                .stream()
-                .filter(x -> GamePhase.ENDED != x.getValue().getGamePhase())
-                .findFirst()
-                .orElse(null);
+    /**
+     * Hands the bets of many players to the table's bet writer at once.
+     *
+     * @return result of every request in order
+     */
+    public CompletableFuture<List<BetResult>> addPlayers(String gameId, List<AddPlayerRequest> addPlayerRequests) {
+        Game game = gameRepository.getGame(gameId);
+
+        List<String> playerNames = new ArrayList<>(addPlayerRequests.size());
+        List<Player> players = new ArrayList<>(addPlayerRequests.size());
+        for (AddPlayerRequest addPlayerRequest : addPlayerRequests) {
+            playerNames.add(addPlayerRequest.getUsername());
+            players.add(toPlayer(addPlayerRequest));
+        }
+        return betIngestion.submit(game.getTableId(), gameId, playerNames, players);
     }
 
-    public List<WinningPlayer> getWinningPlayers(String gameId) {
-        Game game = getGameDetails(gameId);
-
-        return game.getPlayers()
-            .entrySet()
-            .stream()
-            .filter(x -> game.getWinningNumber() == x.getValue().getGuessedNumber())
-            .map(x -> WinningPlayer.builder()
-                .name(x.getKey())
-                .wonAmount(calculateWonAmount(x.getValue().getBetAmount()))
-                .build()
-            ).collect(Collectors.toList());
+    public Map.Entry<String, Game> getActiveGame(String tableId) {
+        return gameRepository.getActiveGame(tableId);
     }
 
-    public List<String> getUnluckyPlayers(String gameId) {
+    /**
+     * Splits the game's players into winners and losers in a single pass over the guessed number buckets,
+     * notifying each winner as soon as their result is known, the losers in one batch and finally broadcasting
+     * the winner listing. The listing only carries the biggest wins, picked with a heap bounded to the listing size,
+     * while the full list of winners is kept on the game.
+     */
+    public void settleGame(String gameId) {
         Game game = getGameDetails(gameId);
-
-        return game.getPlayers()
-            .entrySet()
-            .stream()
-            .filter(x -> game.getWinningNumber() != x.getValue().getGuessedNumber())
-            .map(x -> x.getKey())
-            .collect(Collectors.toList());
-    }
-
-    public void notifyOfWinners(List<WinningPlayer> winningPlayers) {
-        winningPlayers.forEach(x -> {
-            Notification winnerNotification = Notification.builder()
-                .messageCode("WIN_NOTIFICATION")
-                .messagePayload(x)
+        int winningNumber = game.getWinningNumber();
+        long settlementStart = System.nanoTime();
+
+        Map<String, Player> winners = game.getPlayersWhoGuessed(winningNumber);
+        List<WinningPlayer> winningPlayers = new ArrayList<>(winners.size());
+        PriorityQueue<WinningPlayer> topWinners = new PriorityQueue<>(winnerListingSize + 1, BY_WON_AMOUNT);
+        Money totalWonAmount = Money.ZERO;
+        for (Map.Entry<String, Player> winner : winners.entrySet()) {
+            String name = winner.getKey();
+            WinningPlayer winningPlayer = WinningPlayer.builder()
+                .name(name)
+                .wonAmount(calculateWonAmount(winner.getValue().getBetAmount()))
                 .build();
-            notificationService.sendMessageToPlayer(x.getName(), winnerNotification);
-        });
+            winningPlayers.add(winningPlayer);
+            totalWonAmount = totalWonAmount.add(winningPlayer.getWonAmount());
+            topWinners.add(winningPlayer);
+            if (topWinners.size() > winnerListingSize) {
+                topWinners.poll();
+            }
+
+            notificationPublisher.sendMessageToPlayer(game.getTableId(), name, Notification.builder()
+                .messageCode("WIN_NOTIFICATION")
+                .messagePayload(winningPlayer)
+                .build()
+            );
+        }
+        game.setWinners(Collections.unmodifiableList(winningPlayers));
+        long winnersNotified = System.nanoTime();
+
+        List<String> unluckyPlayers = new ArrayList<>(Math.max(0, game.getPlayers().size() - winners.size()));
+        for (int number = LOWEST_NUMBER; number <= HIGHEST_NUMBER; number++) {
+            if (number != winningNumber) {
+                unluckyPlayers.addAll(game.getPlayersWhoGuessed(number).keySet());
+            }
+        }
+        notificationPublisher.sendMessageToPlayers(game.getTableId(), unluckyPlayers, LOSS_NOTIFICATION);
+        long unluckyPlayersNotified = System.nanoTime();
 
         if (!winningPlayers.isEmpty()) {
-            notificationService.sendGlobalMessage(Notification.builder()
+            List<WinningPlayer> biggestWins = new ArrayList<>(topWinners);
+            biggestWins.sort(BY_WON_AMOUNT.reversed());
+
+            notificationPublisher.sendGlobalMessage(game.getTableId(), Notification.builder()
                 .messageCode("WINNER_LISTING")
-                .messagePayload(winningPlayers)
+                .messagePayload(WinnerListing.builder()
+                    .gameId(gameId)
+                    .topWinners(biggestWins)
+                    .winnerCount(winningPlayers.size())
+                    .totalWonAmount(totalWonAmount)
+                    .build())
                 .build()
             );
         }
+        long winnerListingSent = System.nanoTime();
+
+        log.info("Game with id {} settled: {} winners notified in {} ms, {} unlucky players notified in {} ms, winner listing sent in {} ms",
+            gameId,
+            winningPlayers.size(), TimeUnit.NANOSECONDS.toMillis(winnersNotified - settlementStart),
+            unluckyPlayers.size(), TimeUnit.NANOSECONDS.toMillis(unluckyPlayersNotified - winnersNotified),
+            TimeUnit.NANOSECONDS.toMillis(winnerListingSent - unluckyPlayersNotified)
+        );
     }
 
-    public void notifyLoss(List<String> name) {
-        name.forEach(x -> {
-            notificationService.sendMessageToPlayer(x, Notification.builder().messageCode("LOSS_NOTIFICATION").build());
-        });
+    private Money calculateWonAmount(Money betAmount) {
+        return betAmount.multiply(WINNING_COEF_NUMERATOR, WINNING_COEF_DENOMINATOR);
     }
 
-    private BigDecimal calculateWonAmount(BigDecimal betAmount) {
-        BigDecimal wonAmount = betAmount.multiply(WINNING_COEF).setScale(2, RoundingMode.HALF_EVEN);
-        return wonAmount;
+    private static Player toPlayer(AddPlayerRequest addPlayerRequest) {
+        return Player.builder()
+                .betAmount(Money.of(addPlayerRequest.getBid()))
+                .guessedNumber(addPlayerRequest.getGuessedNumber())
+                .build();
     }
+
 }
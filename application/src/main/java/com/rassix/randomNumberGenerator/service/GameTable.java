@@ -0,0 +1,33 @@
+package com.rassix.randomNumberGenerator.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import com.rassix.randomNumberGenerator.service.timer.GameTimer;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A game table running its own sequence of rounds, pinned to one event loop thread and using its own random stream.
+ */
+@Getter
+public class GameTable {
+
+    private final String tableId;
+    private final GameTimer eventLoop;
+    private final Random random;
+
+    /**
+     * Settlement of the table's most recently closed round. Settlements of a table are chained on it,
+     * so results of a round are always delivered before results of the following round.
+     */
+    @Setter
+    private volatile CompletableFuture<Void> lastSettlement = CompletableFuture.completedFuture(null);
+
+    public GameTable(String tableId, GameTimer eventLoop, Random random) {
+        this.tableId = tableId;
+        this.eventLoop = eventLoop;
+        this.random = random;
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.exception.IdempotencyKeyReusedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Results of bets placed with an idempotency key, so a client retrying a bet it got no answer for gets the original
+ * result instead of placing it again. A retry arriving while the original bet is still on its way waits for the same
+ * result.
+ * <p>
+ * Keys are kept for a limited time and only the most recent ones are kept, oldest evicted first. Bets rejected because
+ * the bet ring was full are forgotten right away, so their retries are placed again.
+ * <p>
+ * A key only joins the eviction order once its bet is kept, so keys forgotten because the ring was full or the bet
+ * failed never linger in it. Nothing here locks.
+ */
+@Component
+public class IdempotencyCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final int maxKeys;
+    private final Duration ttl;
+    private final Clock clock;
+    private final GameMetrics gameMetrics;
+
+    public IdempotencyCache(
+        @Value("${game.bets.idempotency.max-keys}") int maxKeys,
+        @Value("${game.bets.idempotency.ttl}") Duration ttl,
+        Clock clock,
+        GameMetrics gameMetrics
+    ) {
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("Idempotency cache must keep at least one key");
+        }
+        this.maxKeys = maxKeys;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.gameMetrics = gameMetrics;
+
+        gameMetrics.registerGauge("bets.idempotency.keys", entries::size);
+    }
+
+    /**
+     * @param request what was asked for with the key, a retry has to ask for the same
+     * @param placeBet places the bet, only called for a key not seen yet
+     * @return result of the bet first placed with the key
+     * @throws IdempotencyKeyReusedException if the key was already used for a different request
+     */
+    public CompletableFuture<BetResult> getOrPlace(String gameId, String idempotencyKey, Object request,
+                                                   Supplier<CompletableFuture<BetResult>> placeBet) {
+        Instant now = clock.instant();
+        String key = gameId + '/' + idempotencyKey;
+        Entry entry = new Entry(key, request, now.plus(ttl));
+
+        Entry existing;
+        while ((existing = entries.putIfAbsent(key, entry)) != null) {
+            if (existing.expiresAt.isAfter(now)) {
+                if (!existing.request.equals(request)) {
+                    throw new IdempotencyKeyReusedException("Idempotency key " + idempotencyKey + " was already used for a different bet");
+                }
+                gameMetrics.increment("bets.idempotency.replayed");
+                return existing.result;
+            }
+            entries.remove(key, existing);
+        }
+        evict(now);
+
+        CompletableFuture<BetResult> betResult;
+        try {
+            betResult = placeBet.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        betResult.whenComplete((result, error) -> {
+            if (error != null || result == BetResult.QUEUE_FULL) {
+                entries.remove(key, entry);
+            } else {
+                insertionOrder.add(entry);
+                evict(clock.instant());
+            }
+            if (error != null) {
+                entry.result.completeExceptionally(error);
+            } else {
+                entry.result.complete(result);
+            }
+        });
+        return entry.result;
+    }
+
+    /**
+     * @return keys waiting in the eviction order, walks the whole order
+     */
+    int evictionOrderSize() {
+        return insertionOrder.size();
+    }
+
+    private void evict(Instant now) {
+        Entry oldest;
+        while ((oldest = insertionOrder.peek()) != null
+            && (entries.size() > maxKeys || !oldest.expiresAt.isAfter(now) || entries.get(oldest.key) != oldest)) {
+            if (insertionOrder.remove(oldest)) {
+                entries.remove(oldest.key, oldest);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final String key;
+        private final Object request;
+        private final Instant expiresAt;
+        private final CompletableFuture<BetResult> result = new CompletableFuture<>();
+
+        private Entry(String key, Object request, Instant expiresAt) {
+            this.key = key;
+            this.request = request;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.constant.WaitStrategyType;
+import com.rassix.randomNumberGenerator.service.dto.Notification;
+import com.rassix.randomNumberGenerator.service.ring.RingBuffer;
+import com.rassix.randomNumberGenerator.service.ring.WaitStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Notifications published by the game engine. Events go into a preallocated ring buffer and are delivered through
+ * {@link NotificationService} by the ring's consumer threads, so the tables' event loops and settlement never wait
+ * for the broker or the clients.
+ * <p>
+ * Events are partitioned by table, a table's events are delivered one after another in publish order. When the ring
+ * is full a table event is dropped and counted rather than slowing the engine down; clients can fetch the table's
+ * state again. A player's win or loss is the only record of the result they get, so it is delivered on the
+ * publishing thread instead. Without consumers events are delivered on the publishing thread, as in the simulation.
+ */
+@Service
+@Slf4j
+public class NotificationPublisher {
+
+    private static final long UNCLAIMED = -1;
+
+    private final NotificationService notificationService;
+    private final GameMetrics gameMetrics;
+    private final RingBuffer<NotificationEvent> ringBuffer;
+
+    public NotificationPublisher(
+        NotificationService notificationService,
+        GameMetrics gameMetrics,
+        @Value("${game.notification.ring.capacity}") int capacity,
+        @Value("${game.notification.ring.consumers}") int consumers,
+        @Value("${game.notification.ring.wait-strategy}") WaitStrategyType waitStrategyType
+    ) {
+        if (consumers < 0) {
+            throw new IllegalArgumentException("Notification ring consumers must not be negative");
+        }
+        this.notificationService = notificationService;
+        this.gameMetrics = gameMetrics;
+        this.ringBuffer = consumers == 0 ? null : new RingBuffer<>(
+            "notification-ring", capacity, NotificationEvent::new, consumers, this::deliver, WaitStrategy.create(waitStrategyType)
+        );
+
+        if (ringBuffer != null) {
+            gameMetrics.registerGauge("notification.ring.backlog", ringBuffer::getBacklog);
+        }
+    }
+
+    public void notifyNewGameStart(String tableId, String gameId, Instant bettingEndTime) {
+        NotificationEvent event = claim(EventType.NEW_GAME, tableId);
+        if (event != null) {
+            event.gameId = gameId;
+            event.bettingEndTime = bettingEndTime;
+            publish(event);
+        }
+    }
+
+    public void notifyBettingEnd(String tableId) {
+        NotificationEvent event = claim(EventType.BIDDING_CLOSED, tableId);
+        if (event != null) {
+            publish(event);
+        }
+    }
+
+    public void sendGlobalMessage(String tableId, Notification notification) {
+        NotificationEvent event = claim(EventType.GLOBAL_MESSAGE, tableId);
+        if (event != null) {
+            event.notification = notification;
+            publish(event);
+        }
+    }
+
+    public void sendMessageToPlayer(String tableId, String username, Notification notification) {
+        NotificationEvent event = claim(EventType.PLAYER_MESSAGE, tableId);
+        if (event != null) {
+            event.username = username;
+            event.notification = notification;
+            publish(event);
+        }
+    }
+
+    public void sendMessageToPlayers(String tableId, Collection<String> usernames, Notification notification) {
+        if (usernames.isEmpty()) {
+            return;
+        }
+
+        NotificationEvent event = claim(EventType.PLAYERS_MESSAGE, tableId);
+        if (event != null) {
+            event.usernames = usernames;
+            event.notification = notification;
+            publish(event);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ringBuffer != null) {
+            ringBuffer.shutdown();
+        }
+    }
+
+    private NotificationEvent claim(EventType type, String tableId) {
+        NotificationEvent event;
+        long sequence = ringBuffer == null ? UNCLAIMED : ringBuffer.tryClaim(tableId.hashCode());
+        if (sequence >= 0) {
+            event = ringBuffer.get(sequence);
+        } else if (ringBuffer == null) {
+            event = new NotificationEvent();
+        } else if (type.playerResult) {
+            gameMetrics.increment("notification.ring.overflow.delivered-inline");
+            log.warn("Notification ring is full, delivering {} event of table {} on the publishing thread", type, tableId);
+            event = new NotificationEvent();
+        } else {
+            gameMetrics.increment("notification.ring.overflow");
+            log.warn("Notification ring is full, dropping {} event of table {}", type, tableId);
+            return null;
+        }
+
+        event.sequence = sequence;
+        event.type = type;
+        event.tableId = tableId;
+        return event;
+    }
+
+    private void publish(NotificationEvent event) {
+        if (event.sequence == UNCLAIMED) {
+            deliver(event);
+        } else {
+            ringBuffer.publish(event.sequence);
+        }
+    }
+
+    private void deliver(NotificationEvent event) {
+        try {
+            switch (event.type) {
+                case NEW_GAME:
+                    notificationService.notifyNewGameStart(event.tableId, event.gameId, event.bettingEndTime);
+                    break;
+                case BIDDING_CLOSED:
+                    notificationService.notifyBettingEnd(event.tableId);
+                    break;
+                case GLOBAL_MESSAGE:
+                    notificationService.sendGlobalMessage(event.tableId, event.notification);
+                    break;
+                case PLAYER_MESSAGE:
+                    notificationService.sendMessageToPlayer(event.username, event.notification);
+                    break;
+                case PLAYERS_MESSAGE:
+                    notificationService.sendMessageToPlayers(event.usernames, event.notification);
+                    break;
+            }
+        } finally {
+            event.clear();
+        }
+    }
+
+    private enum EventType {
+        NEW_GAME(false),
+        BIDDING_CLOSED(false),
+        GLOBAL_MESSAGE(false),
+        PLAYER_MESSAGE(true),
+        PLAYERS_MESSAGE(true);
+
+        private final boolean playerResult;
+
+        EventType(boolean playerResult) {
+            this.playerResult = playerResult;
+        }
+    }
+
+    /**
+     * Slot of the ring, reused for every event published into it. Cleared once delivered so the slot does not keep
+     * the notification alive until it is reused.
+     */
+    private static final class NotificationEvent {
+        private long sequence;
+        private EventType type;
+        private String tableId;
+        private String gameId;
+        private Instant bettingEndTime;
+        private String username;
+        private Collection<String> usernames;
+        private Notification notification;
+
+        private void clear() {
+            type = null;
+            tableId = null;
+            gameId = null;
+            bettingEndTime = null;
+            username = null;
+            usernames = null;
+            notification = null;
+        }
+    }
+}
@@ -2,47 +2,191 @@ package com.rassix.randomNumberGenerator.service;
 
 import com.rassix.randomNumberGenerator.constant.GamePhase;
 import com.rassix.randomNumberGenerator.controller.dto.GameInfoResponse;
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
 import com.rassix.randomNumberGenerator.service.dto.Notification;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Delivers notifications to the STOMP destinations and the raw websocket sessions. Every message carries its
+ * sequence in its stream (a table topic or a player's queue) in the {@value #SEQUENCE_HEADER} header, or after the
+ * frame type on the raw websocket endpoint, and is kept in the {@link ReplayLog}, so a client that reconnects can ask for just the messages it missed.
+ */
 @Service
-@AllArgsConstructor
 @Slf4j
 public class NotificationService {
 
+    public static final String SEQUENCE_HEADER = "seq";
+    public static final String PLAYER_QUEUE = "/queue/messages";
+    private static final String PRIVATE_MESSAGE = "privateMessage";
+    private static final Notification BIDDING_CLOSED = Notification.builder().messageCode("BIDDING_CLOSED").build();
+
     private final SimpMessagingTemplate simpMessagingTemplate;
+    private final RawSessionRegistry rawSessionRegistry;
+    private final ReplayLog replayLog;
+    private final PayloadEncoder payloadEncoder;
+    private final Executor notificationExecutor;
+    private final int batchSize;
+    private final AtomicReference<CompletableFuture<Void>> lastFanOut = new AtomicReference<>(CompletableFuture.completedFuture(null));
+
+    public NotificationService(
+        SimpMessagingTemplate simpMessagingTemplate,
+        RawSessionRegistry rawSessionRegistry,
+        ReplayLog replayLog,
+        PayloadEncoder payloadEncoder,
+        @Qualifier("notificationExecutor") Executor notificationExecutor,
+        @Value("${game.notification.batch-size}") int batchSize
+    ) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Notification batch size must be positive");
+        }
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.rawSessionRegistry = rawSessionRegistry;
+        this.replayLog = replayLog;
+        this.payloadEncoder = payloadEncoder;
+        this.notificationExecutor = notificationExecutor;
+        this.batchSize = batchSize;
+    }
 
-    public void notifyBettingEnd() {
+    public void notifyBettingEnd(String tableId) {
         log.info("sending message about bidding closed");
-        simpMessagingTemplate.convertAndSend("/topic/biddingClosed",
-            Notification.builder().messageCode("BIDDING_CLOSED").build()
-        );
+        EncodedPayload payload = encode(BIDDING_CLOSED);
+        long sequence = sendToTopic(tableTopic(tableId, "biddingClosed"), payload);
+        rawSessionRegistry.sendToTable(tableId, "biddingClosed", sequence, payload);
     }
 
-    public void notifyNewGameStart(String gameId, Instant bettingEndTime) {
+    public void notifyNewGameStart(String tableId, String gameId, Instant bettingEndTime) {
         log.info("sending message about new game");
 
-        simpMessagingTemplate.convertAndSend(
-                "/topic/newGame",
-                GameInfoResponse.builder()
-                        .gameId(gameId)
-                        .bettingEndTime(bettingEndTime)
-                        .gamePhase(GamePhase.BETTING_PHASE)
-                        .build()
-        );
+        EncodedPayload payload = payloadEncoder.encodeGameInfo(GameInfoResponse.builder()
+                .tableId(tableId)
+                .gameId(gameId)
+                .bettingEndTime(bettingEndTime)
+                .gamePhase(GamePhase.BETTING_PHASE)
+                .build());
+        long sequence = sendToTopic(tableTopic(tableId, "newGame"), payload);
+        rawSessionRegistry.sendToTable(tableId, "newGame", sequence, payload);
     }
 
-    public void sendGlobalMessage(Notification notification) {
-        simpMessagingTemplate.convertAndSend("/topic/messages/all", notification);
+    public void sendGlobalMessage(String tableId, Notification notification) {
+        EncodedPayload payload = encode(notification);
+        long sequence = sendToTopic(tableTopic(tableId, "messages/all"), payload);
+        rawSessionRegistry.sendToTable(tableId, "message", sequence, payload);
     }
 
+    /**
+     * Sends the notification to every session of the player, who receives it on /user/queue/messages or as a
+     * privateMessage frame on the raw websocket endpoint.
+     */
     public void sendMessageToPlayer(String username, Notification notification) {
-        simpMessagingTemplate.convertAndSend("/topic/messages/" + username, notification);
+        EncodedPayload payload = encode(notification);
+        long sequence = replayLog.append(playerStream(username), payload);
+        simpMessagingTemplate.convertAndSendToUser(username, PLAYER_QUEUE, payload, sequenceHeader(sequence));
+        sendToRawSessions(username, sequence, payload);
+    }
+
+    /**
+     * Sends the same notification to many players. The notification is serialized only once and the resulting
+     * bytes are shared by all players, who are split into chunks of the configured batch size that are pushed to
+     * the broker in parallel. Returns without waiting for the chunks; a fan-out starts once the previous one has been
+     * sent, so a later fan-out can not overtake it.
+     *
+     * @return completed when every chunk has been sent
+     */
+    public CompletableFuture<Void> sendMessageToPlayers(Collection<String> usernames, Notification notification) {
+        if (usernames.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        EncodedPayload payload = encode(notification);
+        CompletableFuture<Void> fanOut = new CompletableFuture<>();
+        lastFanOut.getAndSet(fanOut)
+            .thenCompose(x -> sendChunks(usernames, payload))
+            .whenComplete((x, failure) -> {
+                if (failure != null) {
+                    log.error("Sending {} to players failed", notification.getMessageCode(), failure);
+                }
+                fanOut.complete(null);
+            });
+        return fanOut;
+    }
+
+    private CompletableFuture<Void> sendChunks(Collection<String> usernames, EncodedPayload payload) {
+        List<CompletableFuture<Void>> sentChunks = new ArrayList<>(usernames.size() / batchSize + 1);
+        List<String> chunk = new ArrayList<>(Math.min(batchSize, usernames.size()));
+        for (String username : usernames) {
+            chunk.add(username);
+            if (chunk.size() == batchSize) {
+                sentChunks.add(sendChunk(chunk, payload));
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            sentChunks.add(sendChunk(chunk, payload));
+        }
+
+        return CompletableFuture.allOf(sentChunks.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private CompletableFuture<Void> sendChunk(List<String> usernames, EncodedPayload payload) {
+        return CompletableFuture.runAsync(() -> {
+            for (String username : usernames) {
+                long sequence = replayLog.append(playerStream(username), payload);
+                simpMessagingTemplate.convertAndSendToUser(username, PLAYER_QUEUE, payload, sequenceHeader(sequence));
+                sendToRawSessions(username, sequence, payload);
+            }
+        }, notificationExecutor);
+    }
+
+    /**
+     * The frame carries the player's own sequence, so it is only built for players with raw sessions.
+     */
+    private void sendToRawSessions(String username, long sequence, EncodedPayload payload) {
+        if (rawSessionRegistry.hasPlayer(username)) {
+            rawSessionRegistry.sendToPlayer(username, RawSessionRegistry.frame(PRIVATE_MESSAGE, sequence, payload));
+        }
+    }
+
+    /**
+     * Stream of the replay log holding the player's private notifications.
+     */
+    public static String playerStream(String username) {
+        return "player/" + username;
+    }
+
+    private long sendToTopic(String destination, EncodedPayload payload) {
+        long sequence = replayLog.append(destination, payload);
+        simpMessagingTemplate.convertAndSend(destination, payload, sequenceHeader(sequence));
+        return sequence;
+    }
+
+    private static Map<String, Object> sequenceHeader(long sequence) {
+        return Map.of(SEQUENCE_HEADER, Long.toString(sequence));
+    }
+
+    /**
+     * Notifications without a payload never change, so they are encoded once per process.
+     */
+    private EncodedPayload encode(Notification notification) {
+        return notification.getMessagePayload() == null
+            ? payloadEncoder.encodeConstant(notification.getMessageCode(), () -> notification)
+            : payloadEncoder.encode(notification);
+    }
+
+    private String tableTopic(String tableId, String topic) {
+        return "/topic/tables/" + tableId + "/" + topic;
     }
 
 }
@@ -0,0 +1,93 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rassix.randomNumberGenerator.controller.dto.GameInfoResponse;
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Serializes outgoing payloads once and keeps the bytes of those that are sent repeatedly: constants for the
+ * lifetime of the process and the current round's payload of every table until the round moves on.
+ */
+@Component
+public class PayloadEncoder {
+
+    private final ObjectMapper objectMapper;
+    private final GameMetrics gameMetrics;
+    private final Map<String, EncodedPayload> constants = new ConcurrentHashMap<>();
+    private final Map<String, Map.Entry<String, EncodedPayload>> roundPayloads = new ConcurrentHashMap<>();
+
+    public PayloadEncoder(ObjectMapper objectMapper, GameMetrics gameMetrics) {
+        this.objectMapper = objectMapper;
+        this.gameMetrics = gameMetrics;
+
+        gameMetrics.registerGauge("payload-cache.hit-rate", () -> {
+            long hits = gameMetrics.getCount("payload-cache.hits");
+            long lookups = hits + gameMetrics.getCount("payload-cache.misses");
+            return lookups == 0 ? 0 : hits / (double) lookups;
+        });
+        gameMetrics.registerGauge("payload-cache.encode-mean-us", () -> {
+            long encodings = gameMetrics.getCount("payload-cache.encodings");
+            return encodings == 0 ? 0 : gameMetrics.getCount("payload-cache.encode-total-us") / (double) encodings;
+        });
+    }
+
+    /**
+     * Encodes a payload that is sent only once.
+     */
+    public EncodedPayload encode(Object payload) {
+        long encodingStart = System.nanoTime();
+        try {
+            return new EncodedPayload(objectMapper.writeValueAsBytes(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload " + payload.getClass().getSimpleName() + " could not be serialized", e);
+        } finally {
+            gameMetrics.increment("payload-cache.encodings");
+            gameMetrics.increment("payload-cache.encode-total-us", TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - encodingStart));
+        }
+    }
+
+    /**
+     * Returns the payload stored under the key, encoding it on first use. Only for payloads that never change.
+     */
+    public EncodedPayload encodeConstant(String key, Supplier<Object> payload) {
+        EncodedPayload encodedPayload = constants.get(key);
+        if (encodedPayload != null) {
+            gameMetrics.increment("payload-cache.hits");
+            return encodedPayload;
+        }
+
+        gameMetrics.increment("payload-cache.misses");
+        return constants.computeIfAbsent(key, x -> encode(payload.get()));
+    }
+
+    /**
+     * Encodes the state of a table's round, reusing the bytes until the round's game or phase changes.
+     */
+    public EncodedPayload encodeGameInfo(GameInfoResponse gameInfo) {
+        return encodeForRound(gameInfo.getTableId(), gameInfo.getGameId() + "/" + gameInfo.getGamePhase(), () -> gameInfo);
+    }
+
+    /**
+     * Returns the table's payload for the given version of the round state (e.g. game id and phase), encoding it
+     * only when the version changed since the last call. Each table keeps just its latest payload.
+     */
+    public EncodedPayload encodeForRound(String tableId, String version, Supplier<Object> payload) {
+        Map.Entry<String, EncodedPayload> roundPayload = roundPayloads.get(tableId);
+        if (roundPayload != null && roundPayload.getKey().equals(version)) {
+            gameMetrics.increment("payload-cache.hits");
+            return roundPayload.getValue();
+        }
+
+        gameMetrics.increment("payload-cache.misses");
+        EncodedPayload encodedPayload = encode(payload.get());
+        roundPayloads.put(tableId, Map.entry(version, encodedPayload));
+        return encodedPayload;
+    }
+}
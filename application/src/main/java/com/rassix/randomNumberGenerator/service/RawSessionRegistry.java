@@ -0,0 +1,194 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.constant.SlowConsumerPolicy;
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessions of the raw websocket endpoint, indexed by the table they joined and by the player's username, so game
+ * events are written straight to the sessions without going through STOMP and the broker.
+ * <p>
+ * Frames are text frames holding the event type, a line feed and the JSON body. Frames of a notification stream carry
+ * the message's sequence in that stream after the type, separated by a space. A frame is built once and shared by
+ * all sessions it is sent to. Sessions are decorated with the same send limits and slow consumer policy as STOMP
+ * sessions.
+ */
+@Component
+@Slf4j
+public class RawSessionRegistry {
+
+    private static final String TABLE_ATTRIBUTE = "tableId";
+    private static final String USERNAME_ATTRIBUTE = "username";
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<WebSocketSession>> tableSessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<WebSocketSession>> playerSessions = new ConcurrentHashMap<>();
+
+    private final int sendTimeLimit;
+    private final int sendBufferSizeLimit;
+    private final OverflowStrategy overflowStrategy;
+    private final GameMetrics gameMetrics;
+
+    public RawSessionRegistry(
+        @Value("${game.websocket.send-time-limit}") Duration sendTimeLimit,
+        @Value("${game.websocket.send-buffer-size-limit}") DataSize sendBufferSizeLimit,
+        @Value("${game.websocket.slow-consumer-policy}") SlowConsumerPolicy slowConsumerPolicy,
+        GameMetrics gameMetrics
+    ) {
+        this.sendTimeLimit = Math.toIntExact(sendTimeLimit.toMillis());
+        this.sendBufferSizeLimit = Math.toIntExact(sendBufferSizeLimit.toBytes());
+        this.overflowStrategy = slowConsumerPolicy == SlowConsumerPolicy.DROP ? OverflowStrategy.DROP : OverflowStrategy.TERMINATE;
+        this.gameMetrics = gameMetrics;
+
+        gameMetrics.registerGauge("raw-websocket.sessions", sessions::size);
+    }
+
+    public static TextMessage frame(String type, EncodedPayload payload) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[typeBytes.length + 1 + payload.getBytes().length];
+        System.arraycopy(typeBytes, 0, frame, 0, typeBytes.length);
+        frame[typeBytes.length] = '\n';
+        System.arraycopy(payload.getBytes(), 0, frame, typeBytes.length + 1, payload.getBytes().length);
+        return new TextMessage(frame);
+    }
+
+    /**
+     * Frame of a message of a notification stream, numbered with its sequence in the {@link ReplayLog}.
+     */
+    public static TextMessage frame(String type, long sequence, EncodedPayload payload) {
+        return frame(type + ' ' + sequence, payload);
+    }
+
+    public void register(WebSocketSession session) {
+        sessions.put(session.getId(), new ConcurrentWebSocketSessionDecorator(session, sendTimeLimit, sendBufferSizeLimit, overflowStrategy));
+    }
+
+    /**
+     * Subscribes the session to the events of the table and, when a username is given, to the player's private
+     * notifications. Joining again replaces the previous subscriptions of the session.
+     */
+    public void join(WebSocketSession session, String tableId, String username) {
+        WebSocketSession registeredSession = sessions.get(session.getId());
+        if (registeredSession == null) {
+            return;
+        }
+
+        leave(registeredSession);
+        registeredSession.getAttributes().put(TABLE_ATTRIBUTE, tableId);
+        addTo(tableSessions, tableId, registeredSession);
+        if (username != null) {
+            registeredSession.getAttributes().put(USERNAME_ATTRIBUTE, username);
+            addTo(playerSessions, username, registeredSession);
+        }
+    }
+
+    public void unregister(WebSocketSession session) {
+        WebSocketSession registeredSession = sessions.remove(session.getId());
+        if (registeredSession != null) {
+            leave(registeredSession);
+        }
+    }
+
+    public String getUsername(WebSocketSession session) {
+        return (String) session.getAttributes().get(USERNAME_ATTRIBUTE);
+    }
+
+    public void send(WebSocketSession session, TextMessage frame) {
+        WebSocketSession registeredSession = sessions.get(session.getId());
+        if (registeredSession != null) {
+            send(registeredSession, frame, "reply");
+        }
+    }
+
+    public void sendToTable(String tableId, String type, long sequence, EncodedPayload payload) {
+        Set<WebSocketSession> receivers = tableSessions.get(tableId);
+        if (receivers == null || receivers.isEmpty()) {
+            return;
+        }
+
+        TextMessage frame = frame(type, sequence, payload);
+        for (WebSocketSession session : receivers) {
+            send(session, frame, type);
+        }
+    }
+
+    public boolean hasPlayer(String username) {
+        Set<WebSocketSession> receivers = playerSessions.get(username);
+        return receivers != null && !receivers.isEmpty();
+    }
+
+    public void sendToPlayer(String username, TextMessage frame) {
+        Set<WebSocketSession> receivers = playerSessions.get(username);
+        if (receivers == null) {
+            return;
+        }
+
+        for (WebSocketSession session : receivers) {
+            send(session, frame, "private message");
+        }
+    }
+
+    private void send(WebSocketSession session, TextMessage frame, String description) {
+        try {
+            session.sendMessage(frame);
+        } catch (SessionLimitExceededException e) {
+            log.debug("Raw websocket session {} can not keep up, closing it", session.getId());
+            close(session, e.getStatus());
+        } catch (IOException e) {
+            log.debug("Sending {} to raw websocket session {} failed: {}", description, session.getId(), e.getMessage());
+            close(session, CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    private void close(WebSocketSession session, CloseStatus closeStatus) {
+        unregister(session);
+        gameMetrics.increment("raw-websocket.disconnects." + (closeStatus.equalsCode(CloseStatus.SESSION_NOT_RELIABLE) ? "slow-consumer" : "send-failed"));
+        try {
+            session.close(closeStatus);
+        } catch (IOException e) {
+            log.debug("Closing raw websocket session {} failed: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private void leave(WebSocketSession session) {
+        String tableId = (String) session.getAttributes().remove(TABLE_ATTRIBUTE);
+        if (tableId != null) {
+            removeFrom(tableSessions, tableId, session);
+        }
+        String username = (String) session.getAttributes().remove(USERNAME_ATTRIBUTE);
+        if (username != null) {
+            removeFrom(playerSessions, username, session);
+        }
+    }
+
+    private static void addTo(Map<String, Set<WebSocketSession>> index, String key, WebSocketSession session) {
+        index.compute(key, (x, indexedSessions) -> {
+            Set<WebSocketSession> updatedSessions = indexedSessions == null ? ConcurrentHashMap.newKeySet() : indexedSessions;
+            updatedSessions.add(session);
+            return updatedSessions;
+        });
+    }
+
+    private static void removeFrom(Map<String, Set<WebSocketSession>> index, String key, WebSocketSession session) {
+        index.computeIfPresent(key, (x, indexedSessions) -> {
+            indexedSessions.remove(session);
+            return indexedSessions.isEmpty() ? null : indexedSessions;
+        });
+    }
+}
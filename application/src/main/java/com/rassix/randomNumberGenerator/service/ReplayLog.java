@@ -0,0 +1,140 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
+import com.rassix.randomNumberGenerator.service.dto.Replay;
+import com.rassix.randomNumberGenerator.service.dto.SequencedPayload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Numbers the messages of every notification stream (a table topic or a player's queue) and keeps the latest of
+ * them, bounded in count and age, so a client that lost its connection for a moment can ask for just the messages
+ * it missed.
+ * <p>
+ * Sequences of a stream are consecutive. A stream starts at the epoch millisecond it was created at, so a stream
+ * evicted after being idle, or lost with a restart, continues above its previous sequences and clients notice the gap.
+ */
+@Component
+public class ReplayLog {
+
+    private final Map<String, Stream> streams = new ConcurrentHashMap<>();
+    private final AtomicReference<Instant> nextIdleStreamSweep;
+
+    private final int maxMessages;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    public ReplayLog(
+        @Value("${game.replay.max-messages}") int maxMessages,
+        @Value("${game.replay.max-age}") Duration maxAge,
+        Clock clock,
+        GameMetrics gameMetrics
+    ) {
+        if (maxMessages < 1) {
+            throw new IllegalArgumentException("Replay log must keep at least one message per stream");
+        }
+        this.maxMessages = maxMessages;
+        this.maxAge = maxAge;
+        this.clock = clock;
+        this.nextIdleStreamSweep = new AtomicReference<>(clock.instant().plus(maxAge));
+
+        gameMetrics.registerGauge("replay-log.streams", streams::size);
+    }
+
+    /**
+     * @return sequence of the payload in the stream
+     */
+    public long append(String streamId, EncodedPayload payload) {
+        Instant now = clock.instant();
+        evictIdleStreams(now);
+
+        while (true) {
+            Stream stream = streams.computeIfAbsent(streamId, x -> new Stream(now.toEpochMilli()));
+            synchronized (stream) {
+                if (stream.evicted) {
+                    continue;
+                }
+                long sequence = ++stream.lastSequence;
+                stream.messages.addLast(new SequencedPayload(sequence, payload, now));
+                evictMessages(stream, now);
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * Messages of the stream that came after the given sequence.
+     */
+    public Replay getMessagesAfter(String streamId, long lastSequence) {
+        Stream stream = streams.get(streamId);
+        if (stream == null) {
+            return new Replay(false, List.of());
+        }
+
+        synchronized (stream) {
+            evictMessages(stream, clock.instant());
+            if (lastSequence >= stream.lastSequence) {
+                return new Replay(lastSequence == stream.lastSequence, List.of());
+            }
+
+            long firstKeptSequence = stream.messages.isEmpty() ? stream.lastSequence + 1 : stream.messages.peekFirst().getSequence();
+            List<SequencedPayload> missedMessages = new ArrayList<>();
+            for (SequencedPayload message : stream.messages) {
+                if (message.getSequence() > lastSequence) {
+                    missedMessages.add(message);
+                }
+            }
+            return new Replay(lastSequence + 1 >= firstKeptSequence, missedMessages);
+        }
+    }
+
+    private void evictMessages(Stream stream, Instant now) {
+        Instant oldestAllowed = now.minus(maxAge);
+
+        while (!stream.messages.isEmpty()
+            && (stream.messages.size() > maxMessages || !stream.messages.peekFirst().getSentAt().isAfter(oldestAllowed))) {
+            stream.messages.pollFirst();
+        }
+    }
+
+    /**
+     * Player streams come and go with the players, so once per max age every stream without messages left is dropped.
+     */
+    private void evictIdleStreams(Instant now) {
+        Instant sweepTime = nextIdleStreamSweep.get();
+        if (now.isBefore(sweepTime) || !nextIdleStreamSweep.compareAndSet(sweepTime, now.plus(maxAge))) {
+            return;
+        }
+
+        for (String streamId : streams.keySet()) {
+            streams.computeIfPresent(streamId, (x, stream) -> {
+                synchronized (stream) {
+                    evictMessages(stream, now);
+                    stream.evicted = stream.messages.isEmpty();
+                    return stream.evicted ? null : stream;
+                }
+            });
+        }
+    }
+
+    private static class Stream {
+        private final Deque<SequencedPayload> messages = new ArrayDeque<>();
+        private long lastSequence;
+        private boolean evicted;
+
+        private Stream(long firstSequence) {
+            this.lastSequence = firstSequence - 1;
+        }
+    }
+}
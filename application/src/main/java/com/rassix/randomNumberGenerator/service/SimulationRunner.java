@@ -0,0 +1,122 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.constant.GamePhase;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.timer.SimulationGameTimer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fast-forwards the game on the virtual clock: runs the scheduled round transitions back to back, places a fixed
+ * number of seeded bets in every round and exits the application after the configured number of rounds.
+ */
+@Slf4j
+@Component
+@Profile("simulation")
+public class SimulationRunner {
+
+    private final SimulationGameTimer simulationGameTimer;
+    private final GameService gameService;
+    private final TableRegistry tableRegistry;
+    private final GameMetrics gameMetrics;
+    private final ApplicationContext applicationContext;
+    private final Clock clock;
+    private final Random random;
+    private final long rounds;
+    private final int bettorsPerRound;
+
+    private final Map<String, String> lastBetGameIds = new HashMap<>();
+    private long betsPlaced;
+
+    public SimulationRunner(
+        SimulationGameTimer simulationGameTimer,
+        GameService gameService,
+        TableRegistry tableRegistry,
+        GameMetrics gameMetrics,
+        ApplicationContext applicationContext,
+        Clock clock,
+        @Value("${game.simulation.seed}") long seed,
+        @Value("${game.simulation.rounds}") long rounds,
+        @Value("${game.simulation.bettors-per-round}") int bettorsPerRound
+    ) {
+        this.simulationGameTimer = simulationGameTimer;
+        this.gameService = gameService;
+        this.tableRegistry = tableRegistry;
+        this.gameMetrics = gameMetrics;
+        this.applicationContext = applicationContext;
+        this.clock = clock;
+        this.random = new Random(seed);
+        this.rounds = rounds;
+        this.bettorsPerRound = bettorsPerRound;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread thread = new Thread(this::runAndExit, "simulation");
+        thread.start();
+    }
+
+    private void runAndExit() {
+        try {
+            run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        SpringApplication.exit(applicationContext, () -> 0);
+    }
+
+    void run() throws InterruptedException {
+        Instant simulationStart = clock.instant();
+        long wallStart = System.nanoTime();
+
+        simulationGameTimer.awaitScheduledTask();
+        while (gameMetrics.getCount("round.ended") < rounds && simulationGameTimer.runNextTask()) {
+            placeBets();
+        }
+
+        log.info("Simulation finished: " + gameMetrics.getCount("round.ended") + " rounds and " + betsPlaced + " bets, "
+            + Duration.between(simulationStart, clock.instant()) + " of game time in "
+            + Duration.ofNanos(System.nanoTime() - wallStart));
+    }
+
+    private void placeBets() {
+        for (GameTable table : tableRegistry.getTables()) {
+            Map.Entry<String, Game> activeGame = gameService.getActiveGame(table.getTableId());
+            if (activeGame == null
+                || activeGame.getValue().getGamePhase() != GamePhase.BETTING_PHASE
+                || activeGame.getKey().equals(lastBetGameIds.put(table.getTableId(), activeGame.getKey()))) {
+                continue;
+            }
+
+            for (int i = 0; i < bettorsPerRound; i++) {
+                AddPlayerRequest request = AddPlayerRequest.builder()
+                    .username("bot-" + i)
+                    .guessedNumber(Game.LOWEST_NUMBER + random.nextInt(Game.HIGHEST_NUMBER - Game.LOWEST_NUMBER + 1))
+                    .bid(BigDecimal.valueOf(1 + random.nextInt(10_000), 2))
+                    .build();
+                BetResult betResult = gameService.addPlayer(activeGame.getKey(), request).join();
+                if (betResult != BetResult.ACCEPTED) {
+                    throw new IllegalStateException("Simulated bet of " + request.getUsername() + " was not accepted: " + betResult);
+                }
+                betsPlaced++;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.service.timer.GameTimer;
+import com.rassix.randomNumberGenerator.service.timer.GameTimerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Creates the configured game tables and spreads them over a fixed set of single threaded event loops.
+ * The table set never changes after startup, so looking up a table needs no locking.
+ */
+@Slf4j
+@Component
+public class TableRegistry implements DisposableBean {
+
+    private final Map<String, GameTable> tables;
+    private final List<GameTimer> eventLoops;
+
+    public TableRegistry(
+        Random random,
+        GameTimerFactory gameTimerFactory,
+        @Value("${game.tables.count}") int tableCount,
+        @Value("${game.tables.event-loop-threads}") int eventLoopThreads
+    ) {
+        if (tableCount < 1) {
+            throw new IllegalArgumentException("At least one game table must be configured");
+        }
+
+        int eventLoopCount = Math.min(
+            tableCount,
+            eventLoopThreads > 0 ? eventLoopThreads : Runtime.getRuntime().availableProcessors()
+        );
+
+        eventLoops = new ArrayList<>(eventLoopCount);
+        for (int i = 0; i < eventLoopCount; i++) {
+            eventLoops.add(gameTimerFactory.create("table-loop-" + i));
+        }
+
+        Map<String, GameTable> createdTables = new LinkedHashMap<>();
+        for (int i = 0; i < tableCount; i++) {
+            String tableId = String.valueOf(i + 1);
+            createdTables.put(tableId, new GameTable(tableId, eventLoops.get(i % eventLoopCount), new Random(random.nextLong())));
+        }
+        tables = Collections.unmodifiableMap(createdTables);
+
+        log.info(tableCount + " tables created on " + eventLoopCount + " event loops");
+    }
+
+    public Collection<GameTable> getTables() {
+        return tables.values();
+    }
+
+    public GameTable getTable(String tableId) {
+        return tables.get(tableId);
+    }
+
+    @Override
+    public void destroy() {
+        eventLoops.forEach(GameTimer::shutdown);
+    }
+}
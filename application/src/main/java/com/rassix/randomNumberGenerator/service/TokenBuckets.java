@@ -0,0 +1,60 @@
+package com.rassix.randomNumberGenerator.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets of many keys (players, addresses), each a single atomic number updated with compare-and-set, so
+ * taking a token never locks.
+ * <p>
+ * A bucket does not count its tokens but keeps the time at which it would be full again: taking a token moves that
+ * time one token interval further, and a token can be taken as long as the time stays within a burst of tokens ahead
+ * of now. Rate and burst are passed with every call, so changing them takes effect right away for every bucket.
+ */
+class TokenBuckets {
+
+    private final Map<String, AtomicLong> fullAt = new ConcurrentHashMap<>();
+
+    /**
+     * @return 0 if a token was taken, otherwise how many nanoseconds to wait until a token is available
+     */
+    long tryTake(String key, long nowNanos, long tokenIntervalNanos, int burst) {
+        long burstToleranceNanos = tokenIntervalNanos * (burst - 1);
+        AtomicLong bucket = fullAt.computeIfAbsent(key, x -> new AtomicLong(nowNanos));
+
+        while (true) {
+            long current = bucket.get();
+            long bucketFullAt = Math.max(current, nowNanos);
+            long waitNanos = bucketFullAt - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(current, bucketFullAt + tokenIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken for a request that was turned away by a later check.
+     */
+    void giveBack(String key, long tokenIntervalNanos) {
+        AtomicLong bucket = fullAt.get(key);
+        if (bucket != null) {
+            bucket.addAndGet(-tokenIntervalNanos);
+        }
+    }
+
+    /**
+     * Drops the buckets that are full again, they are the same as a new bucket. A token taken from such a bucket
+     * while it is dropped is lost, which only ever gives the key a token more.
+     */
+    void evictFull(long nowNanos) {
+        fullAt.values().removeIf(bucket -> bucket.get() <= nowNanos);
+    }
+
+    int size() {
+        return fullAt.size();
+    }
+}
@@ -0,0 +1,25 @@
+package com.rassix.randomNumberGenerator.service.dto;
+
+import com.rassix.randomNumberGenerator.constant.AdmissionResult;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Whether a bet may be placed now and, when shed, how long the client should wait before trying again.
+ */
+@Getter
+@AllArgsConstructor
+public class Admission {
+
+    public static final Admission ADMITTED = new Admission(AdmissionResult.ADMITTED, Duration.ZERO);
+
+    private final AdmissionResult result;
+    private final Duration retryAfter;
+
+    public boolean isAdmitted() {
+        return result == AdmissionResult.ADMITTED;
+    }
+
+}
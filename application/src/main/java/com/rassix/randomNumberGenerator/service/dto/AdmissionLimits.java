@@ -0,0 +1,53 @@
+package com.rassix.randomNumberGenerator.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+/**
+ * Limits of bet intake. A rate of 0 turns that limit off.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AdmissionLimits {
+
+    /**
+     * Bets per second a player can keep placing.
+     */
+    @NotNull
+    @PositiveOrZero
+    private Double playerRate;
+
+    /**
+     * Bets a player can place at once after being idle.
+     */
+    @NotNull
+    @Min(1)
+    private Integer playerBurst;
+
+    /**
+     * Requests per second an address can keep sending, a batch counts as one.
+     */
+    @NotNull
+    @PositiveOrZero
+    private Double addressRate;
+
+    @NotNull
+    @Min(1)
+    private Integer addressBurst;
+
+    /**
+     * Bet requests being placed at the same time over all players.
+     */
+    @NotNull
+    @Min(1)
+    private Integer maxConcurrentBets;
+
+}
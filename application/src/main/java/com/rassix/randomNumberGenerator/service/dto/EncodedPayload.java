@@ -0,0 +1,16 @@
+package com.rassix.randomNumberGenerator.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Payload already serialized to JSON, sent as is instead of being serialized again for every send.
+ * The bytes are shared by every message carrying the payload and must not be modified.
+ */
+@Getter
+@AllArgsConstructor
+public class EncodedPayload {
+
+    private final byte[] bytes;
+
+}
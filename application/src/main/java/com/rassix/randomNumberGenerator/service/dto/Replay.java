@@ -0,0 +1,19 @@
+package com.rassix.randomNumberGenerator.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Messages of a stream a client missed. Not complete when some of them are no longer in the replay log, the client
+ * then has to fetch the current state instead.
+ */
+@Getter
+@AllArgsConstructor
+public class Replay {
+
+    private final boolean complete;
+    private final List<SequencedPayload> messages;
+
+}
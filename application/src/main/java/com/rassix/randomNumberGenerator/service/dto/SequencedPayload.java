@@ -0,0 +1,19 @@
+package com.rassix.randomNumberGenerator.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Payload sent on a notification stream together with its position in the stream.
+ */
+@Getter
+@AllArgsConstructor
+public class SequencedPayload {
+
+    private final long sequence;
+    private final EncodedPayload payload;
+    private final Instant sentAt;
+
+}
@@ -0,0 +1,26 @@
+package com.rassix.randomNumberGenerator.service.dto;
+
+import com.rassix.randomNumberGenerator.repository.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Broadcast after a game is settled. Carries only the biggest wins, the full list of winners
+ * is available at {@code GET /game/{gameId}/winners}.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WinnerListing {
+
+    private String gameId;
+    private List<WinningPlayer> topWinners;
+    private int winnerCount;
+    private Money totalWonAmount;
+
+}
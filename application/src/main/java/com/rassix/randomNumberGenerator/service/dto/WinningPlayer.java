@@ -1,12 +1,11 @@
 package com.rassix.randomNumberGenerator.service.dto;
 
+import com.rassix.randomNumberGenerator.repository.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,6 +13,6 @@ import java.math.BigDecimal;
 public class WinningPlayer {
 
     private String name;
-    private BigDecimal wonAmount;
+    private Money wonAmount;
 
 }
@@ -0,0 +1,53 @@
+package com.rassix.randomNumberGenerator.service.ring;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Consumers sleep on a condition until a producer signals it: no CPU is used while idle. Producers only take the lock
+ * when a consumer is actually sleeping.
+ */
+public class BlockingWaitStrategy implements WaitStrategy {
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    @Override
+    public void await(BooleanSupplier condition) {
+        if (condition.getAsBoolean()) {
+            return;
+        }
+
+        // registered before the condition is checked under the lock, so a producer publishing in between signals
+        waiters.incrementAndGet();
+        lock.lock();
+        try {
+            while (!condition.getAsBoolean()) {
+                published.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+            waiters.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void signal() {
+        if (waiters.get() == 0) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
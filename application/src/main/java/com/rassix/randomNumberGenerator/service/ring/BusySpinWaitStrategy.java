@@ -0,0 +1,16 @@
+package com.rassix.randomNumberGenerator.service.ring;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins until the condition holds: the lowest latency, at the price of a fully busy core per consumer.
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public void await(BooleanSupplier condition) {
+        while (!condition.getAsBoolean()) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.rassix.randomNumberGenerator.service.ring;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Ring of preallocated events between any number of producers and a fixed set of consumer threads.
+ * <p>
+ * A producer claims the next sequence with a CAS on the claim cursor, fills the slot's event in place and publishes
+ * it. Producers never wait: when the slowest consumer is a whole ring behind, {@link #tryClaim(int)} fails instead.
+ * <p>
+ * Every consumer walks every slot but only handles the events of its own partition, so events of one partition are
+ * handled in publish order by a single thread. A consumer handles everything published since its last pass as one
+ * batch and releases the batch's slots at once.
+ */
+@Slf4j
+public class RingBuffer<E> {
+
+    private final E[] events;
+    private final int[] partitions;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimCursor = new AtomicLong(-1);
+    private final List<EventConsumer> consumers;
+    private final Consumer<E> handler;
+    private final WaitStrategy waitStrategy;
+    private volatile boolean running = true;
+    private volatile long cachedMinimumConsumerSequence = -1;
+
+    @SuppressWarnings("unchecked")
+    public RingBuffer(String name, int capacity, Supplier<E> eventFactory, int consumerCount, Consumer<E> handler, WaitStrategy waitStrategy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two");
+        }
+        if (consumerCount < 1) {
+            throw new IllegalArgumentException("Ring buffer needs at least one consumer");
+        }
+
+        this.events = (E[]) new Object[capacity];
+        for (int i = 0; i < capacity; i++) {
+            events[i] = eventFactory.get();
+        }
+        this.partitions = new int[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.handler = handler;
+        this.waitStrategy = waitStrategy;
+
+        this.consumers = new ArrayList<>(consumerCount);
+        for (int i = 0; i < consumerCount; i++) {
+            consumers.add(new EventConsumer(i));
+        }
+        for (int i = 0; i < consumerCount; i++) {
+            Thread thread = new Thread(consumers.get(i), name + "-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Claims the next slot for an event of the given partition key.
+     *
+     * @return the claimed sequence, or -1 if the ring is full
+     */
+    public long tryClaim(int partitionKey) {
+        long current;
+        long next;
+        do {
+            current = claimCursor.get();
+            next = current + 1;
+            long wrapPoint = next - events.length;
+            if (wrapPoint > cachedMinimumConsumerSequence) {
+                long minimumConsumerSequence = minimumConsumerSequence();
+                cachedMinimumConsumerSequence = minimumConsumerSequence;
+                if (wrapPoint > minimumConsumerSequence) {
+                    return -1;
+                }
+            }
+        } while (!claimCursor.compareAndSet(current, next));
+
+        partitions[index(next)] = Math.floorMod(partitionKey, consumers.size());
+        return next;
+    }
+
+    public E get(long sequence) {
+        return events[index(sequence)];
+    }
+
+    public void publish(long sequence) {
+        published.set(index(sequence), sequence);
+        waitStrategy.signal();
+    }
+
+    /**
+     * @return how many claimed events some consumer has not passed yet
+     */
+    public long getBacklog() {
+        return claimCursor.get() - minimumConsumerSequence();
+    }
+
+    public int getCapacity() {
+        return events.length;
+    }
+
+    public void shutdown() {
+        running = false;
+        waitStrategy.signal();
+    }
+
+    private long minimumConsumerSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (EventConsumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.sequence);
+        }
+        return minimum;
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get(index(sequence)) == sequence;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    private final class EventConsumer implements Runnable {
+
+        private final int partition;
+        private final BooleanSupplier publishedOrStopped = () -> !running || isPublished(this.next);
+        private volatile long sequence = -1;
+
+        // only touched by the consumer thread
+        private long next;
+
+        private EventConsumer(int partition) {
+            this.partition = partition;
+        }
+
+        @Override
+        public void run() {
+            next = sequence + 1;
+            while (running) {
+                if (!isPublished(next)) {
+                    waitStrategy.await(publishedOrStopped);
+                    continue;
+                }
+
+                long last = next;
+                while (isPublished(last + 1)) {
+                    last++;
+                }
+                for (long batchSequence = next; batchSequence <= last; batchSequence++) {
+                    int index = index(batchSequence);
+                    if (partitions[index] == partition) {
+                        handle(events[index]);
+                    }
+                }
+
+                sequence = last;
+                next = last + 1;
+            }
+        }
+
+        private void handle(E event) {
+            try {
+                handler.accept(event);
+            } catch (Throwable e) {
+                log.error("Ring buffer event handler failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.rassix.randomNumberGenerator.service.ring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins, then yields and finally parks for short periods between checks. Producers never have to wake consumers up,
+ * an event waits at most one park period.
+ */
+public class SleepingWaitStrategy implements WaitStrategy {
+
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    @Override
+    public void await(BooleanSupplier condition) {
+        int attempts = SPINS + YIELDS;
+        while (!condition.getAsBoolean()) {
+            if (attempts > YIELDS) {
+                attempts--;
+                Thread.onSpinWait();
+            } else if (attempts > 0) {
+                attempts--;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+        }
+    }
+}
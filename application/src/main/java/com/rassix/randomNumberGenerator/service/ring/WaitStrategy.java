@@ -0,0 +1,35 @@
+package com.rassix.randomNumberGenerator.service.ring;
+
+import com.rassix.randomNumberGenerator.constant.WaitStrategyType;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * How a ring buffer consumer waits for new events, trading latency for CPU use.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Returns once the condition holds. Implementations may return earlier, the caller checks the condition again.
+     */
+    void await(BooleanSupplier condition);
+
+    /**
+     * Called by producers after every publish.
+     */
+    default void signal() {
+    }
+
+    static WaitStrategy create(WaitStrategyType type) {
+        switch (type) {
+            case BUSY_SPIN:
+                return new BusySpinWaitStrategy();
+            case YIELDING:
+                return new YieldingWaitStrategy();
+            case SLEEPING:
+                return new SleepingWaitStrategy();
+            default:
+                return new BlockingWaitStrategy();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.rassix.randomNumberGenerator.service.ring;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins for a while, then yields the core to other threads between checks.
+ */
+public class YieldingWaitStrategy implements WaitStrategy {
+
+    private static final int SPINS = 100;
+
+    @Override
+    public void await(BooleanSupplier condition) {
+        int spins = SPINS;
+        while (!condition.getAsBoolean()) {
+            if (spins > 0) {
+                spins--;
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+}
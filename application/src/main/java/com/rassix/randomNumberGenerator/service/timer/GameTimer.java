@@ -0,0 +1,22 @@
+package com.rassix.randomNumberGenerator.service.timer;
+
+import java.time.Instant;
+
+/**
+ * Runs game tasks at given instants on a single thread. Implementations decide what time means,
+ * e.g. the wall clock or a simulated clock advanced as fast as tasks can run.
+ */
+public interface GameTimer {
+
+    Timeout schedule(Runnable task, Instant time);
+
+    void shutdown();
+
+    interface Timeout {
+
+        /**
+         * @return false if the task already ran or was cancelled before
+         */
+        boolean cancel();
+    }
+}
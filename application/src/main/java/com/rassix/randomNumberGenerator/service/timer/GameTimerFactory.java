@@ -0,0 +1,8 @@
+package com.rassix.randomNumberGenerator.service.timer;
+
+@FunctionalInterface
+public interface GameTimerFactory {
+
+    GameTimer create(String name);
+
+}
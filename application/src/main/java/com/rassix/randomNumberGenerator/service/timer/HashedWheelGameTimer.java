@@ -0,0 +1,224 @@
+package com.rassix.randomNumberGenerator.service.timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel: a ring of buckets, each holding the tasks due in one tick, driven by a single worker thread.
+ * <p>
+ * Scheduling and cancelling only append to a lock free queue, which the worker drains into the wheel once per tick,
+ * so both are O(1) however many tasks are pending. Tasks due further away than one revolution stay in their bucket
+ * and count down the remaining revolutions, instead of a heap being reordered on every insert like in
+ * {@link java.util.concurrent.ScheduledThreadPoolExecutor}. Tasks run on the worker thread, at most one tick late.
+ * Times are read off the same clock as the rest of the game.
+ */
+@Slf4j
+public class HashedWheelGameTimer implements GameTimer {
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<WheelTimeout> scheduledTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private final Clock clock;
+    private volatile boolean running = true;
+
+    private long tick;
+
+    public HashedWheelGameTimer(String name, Duration tickDuration, int wheelSize, Clock clock) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        if (wheelSize < 1 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+
+        this.tickNanos = tickDuration.toNanos();
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheelSize - 1;
+        this.clock = clock;
+
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, Instant time) {
+        if (!running) {
+            throw new RejectedExecutionException("Timer has been shut down");
+        }
+
+        long delayNanos = Math.max(0, Duration.between(clock.instant(), time).toNanos());
+        WheelTimeout timeout = new WheelTimeout(task, System.nanoTime() - startNanos + delayNanos);
+        scheduledTimeouts.add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (running) {
+            long tickDeadline = tickNanos * (tick + 1);
+            waitUntil(tickDeadline);
+            if (!running) {
+                break;
+            }
+
+            removeCancelledTimeouts();
+            transferScheduledTimeouts();
+            wheel[(int) (tick & mask)].expireTimeouts();
+            tick++;
+        }
+    }
+
+    private void waitUntil(long deadline) {
+        long remaining;
+        while (running && (remaining = deadline - (System.nanoTime() - startNanos)) > 0) {
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    private void removeCancelledTimeouts() {
+        WheelTimeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferScheduledTimeouts() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            WheelTimeout timeout = scheduledTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state == WheelTimeout.CANCELLED) {
+                continue;
+            }
+
+            long dueTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            wheel[(int) (Math.max(dueTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(WheelTimeout.class, "state");
+
+    private final class WheelTimeout implements Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = PENDING;
+
+        // only touched by the worker thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private WheelTimeout previous;
+        private WheelTimeout next;
+
+        private WheelTimeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            cancelledTimeouts.add(this);
+            return true;
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts, so a cancelled timeout is unlinked in O(1). Only used by the worker thread.
+     */
+    private final class Bucket {
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        private void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        private void expireTimeouts() {
+            WheelTimeout timeout = head;
+            while (timeout != null) {
+                WheelTimeout next = timeout.next;
+                if (timeout.state == WheelTimeout.CANCELLED) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    expire(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void expire(WheelTimeout timeout) {
+            if (!STATE.compareAndSet(timeout, WheelTimeout.PENDING, WheelTimeout.EXPIRED)) {
+                return;
+            }
+
+            try {
+                timeout.task.run();
+            } catch (Throwable e) {
+                log.error("Timer task failed", e);
+            }
+        }
+
+        private void remove(WheelTimeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.rassix.randomNumberGenerator.service.timer;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Timer with a virtual clock for simulations. Nothing runs by itself: {@link #runNextTask()} jumps the clock
+ * straight to the next scheduled task and runs it on the calling thread, so rounds run as fast as the CPU allows
+ * and tasks due at the same instant always run in the order they were scheduled.
+ */
+public class SimulationGameTimer implements GameTimer {
+
+    private final PriorityQueue<ScheduledTask> tasks = new PriorityQueue<>(
+        Comparator.comparing((ScheduledTask x) -> x.time).thenComparingLong(x -> x.sequence)
+    );
+    private final VirtualClock clock;
+    private long sequence;
+
+    public SimulationGameTimer(Instant start) {
+        this.clock = new VirtualClock(start);
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    @Override
+    public synchronized Timeout schedule(Runnable task, Instant time) {
+        ScheduledTask scheduledTask = new ScheduledTask(task, time, sequence++);
+        tasks.add(scheduledTask);
+        notifyAll();
+        return scheduledTask;
+    }
+
+    public synchronized void awaitScheduledTask() throws InterruptedException {
+        while (tasks.isEmpty()) {
+            wait();
+        }
+    }
+
+    /**
+     * @return false if no task is scheduled
+     */
+    public boolean runNextTask() {
+        ScheduledTask next;
+        synchronized (this) {
+            do {
+                next = tasks.poll();
+            } while (next != null && next.cancelled);
+
+            if (next == null) {
+                return false;
+            }
+            if (next.time.isAfter(clock.now)) {
+                clock.now = next.time;
+            }
+            next.done = true;
+        }
+
+        next.task.run();
+        return true;
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            tasks.clear();
+        }
+    }
+
+    private class ScheduledTask implements Timeout {
+        private final Runnable task;
+        private final Instant time;
+        private final long sequence;
+        private boolean cancelled;
+        private boolean done;
+
+        private ScheduledTask(Runnable task, Instant time, long sequence) {
+            this.task = task;
+            this.time = time;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public boolean cancel() {
+            synchronized (SimulationGameTimer.this) {
+                if (cancelled || done) {
+                    return false;
+                }
+                cancelled = true;
+                return true;
+            }
+        }
+    }
+
+    private static class VirtualClock extends Clock {
+        private volatile Instant now;
+
+        private VirtualClock(Instant start) {
+            this.now = start;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return Clock.fixed(now, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.rassix.randomNumberGenerator.service.timer;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Wall clock timer backed by a single threaded {@link ThreadPoolTaskScheduler}.
+ */
+public class TaskSchedulerGameTimer implements GameTimer {
+
+    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+
+    public TaskSchedulerGameTimer(String name) {
+        taskScheduler.setThreadNamePrefix(name + "-");
+        taskScheduler.initialize();
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, Instant time) {
+        ScheduledFuture<?> future = taskScheduler.schedule(task, Date.from(time));
+        return () -> future.cancel(false);
+    }
+
+    @Override
+    public void shutdown() {
+        taskScheduler.shutdown();
+    }
+}
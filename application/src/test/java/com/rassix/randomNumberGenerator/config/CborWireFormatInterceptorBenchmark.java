@@ -0,0 +1,74 @@
+package com.rassix.randomNumberGenerator.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.rassix.randomNumberGenerator.repository.model.Money;
+import com.rassix.randomNumberGenerator.service.dto.Notification;
+import com.rassix.randomNumberGenerator.service.dto.WinningPlayer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Payload size and codec time of the CBOR wire format against JSON for winner listings of different sizes.
+ */
+@Slf4j
+@Tag("benchmark")
+class CborWireFormatInterceptorBenchmark {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory())
+        .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private final CborWireFormatInterceptor interceptor = new CborWireFormatInterceptor();
+
+    @Test
+    void transcode_ifWinnerListingLarge_sizeAndCodecTimeReportedAgainstJson() throws IOException {
+        for (int winnerCount : new int[]{100, 10_000}) {
+            Notification winnerListing = Notification.builder()
+                .messageCode("WINNER_LISTING")
+                .messagePayload(IntStream.range(0, winnerCount)
+                    .mapToObj(i -> WinningPlayer.builder()
+                        .name("player-" + i)
+                        .wonAmount(Money.ofMinorUnits(1_000L + i * 99L))
+                        .build())
+                    .collect(Collectors.toList()))
+                .build();
+            byte[] json = jsonMapper.writeValueAsBytes(winnerListing);
+            byte[] cbor = interceptor.transcode(json);
+            int iterations = 200_000 / winnerCount + 10;
+
+            long jsonEncodeNanos = measure(iterations, () -> jsonMapper.writeValueAsBytes(winnerListing));
+            long cborEncodeNanos = measure(iterations, () -> cborMapper.writeValueAsBytes(winnerListing));
+            long transcodeNanos = measure(iterations, () -> interceptor.transcode(json));
+            long jsonDecodeNanos = measure(iterations, () -> jsonMapper.readTree(json));
+            long cborDecodeNanos = measure(iterations, () -> cborMapper.readTree(cbor));
+
+            log.info("WINNER_LISTING with {} winners: JSON {} bytes, encode {} ns, decode {} ns; "
+                    + "CBOR {} bytes, encode {} ns, transcode from JSON {} ns, decode {} ns",
+                winnerCount, json.length, jsonEncodeNanos, jsonDecodeNanos,
+                cbor.length, cborEncodeNanos, transcodeNanos, cborDecodeNanos);
+        }
+    }
+
+    private long measure(int iterations, Codec codec) throws IOException {
+        for (int i = 0; i < iterations; i++) {
+            codec.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            codec.run();
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    @FunctionalInterface
+    private interface Codec {
+        void run() throws IOException;
+    }
+}
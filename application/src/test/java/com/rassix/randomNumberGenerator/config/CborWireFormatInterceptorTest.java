@@ -0,0 +1,124 @@
+package com.rassix.randomNumberGenerator.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.rassix.randomNumberGenerator.repository.model.Money;
+import com.rassix.randomNumberGenerator.service.dto.Notification;
+import com.rassix.randomNumberGenerator.service.dto.WinningPlayer;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CborWireFormatInterceptorTest {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory())
+        .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private final CborWireFormatInterceptor interceptor = new CborWireFormatInterceptor();
+
+    @Test
+    void preSend_ifSessionNegotiatedCbor_jsonMessagesTranscodedWithExactDecimals() throws Exception {
+        connect("session-1", true);
+        byte[] json = "{\"messageCode\":\"WIN_NOTIFICATION\",\"messagePayload\":{\"name\":\"dave\",\"wonAmount\":306.90}}".getBytes();
+
+        Message<?> sent = interceptor.preSend(jsonMessage("session-1", json), null);
+
+        assertThat(SimpMessageHeaderAccessor.wrap(sent).getContentType()).isEqualTo(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        Map<?, ?> decoded = cborMapper.readValue((byte[]) sent.getPayload(), Map.class);
+        assertThat(decoded.get("messageCode")).isEqualTo("WIN_NOTIFICATION");
+        assertThat(((Map<?, ?>) decoded.get("messagePayload")).get("wonAmount")).isEqualTo(new BigDecimal("306.90"));
+    }
+
+    @Test
+    void preSend_ifSessionConnectedThroughSockJs_messagesStayJson() throws Exception {
+        connect("session-1", false);
+        Message<?> message = jsonMessage("session-1", "{}".getBytes());
+
+        assertThat(interceptor.preSend(message, null)).isSameAs(message);
+    }
+
+    @Test
+    void preSend_ifSessionDidNotNegotiateCbor_messagesStayJson() {
+        Message<?> message = jsonMessage("session-1", "{}".getBytes());
+
+        assertThat(interceptor.preSend(message, null)).isSameAs(message);
+    }
+
+    @Test
+    void preSend_ifSamePayloadSentToManySessions_transcodedOnce() throws Exception {
+        connect("session-1", true);
+        connect("session-2", true);
+        byte[] json = "{\"messageCode\":\"BIDDING_CLOSED\",\"messagePayload\":null}".getBytes();
+
+        Message<?> first = interceptor.preSend(jsonMessage("session-1", json), null);
+        Message<?> second = interceptor.preSend(jsonMessage("session-2", json), null);
+
+        assertThat(second.getPayload()).isSameAs(first.getPayload());
+    }
+
+    @Test
+    void preSend_ifSessionDisconnected_sessionForgotten() throws Exception {
+        connect("session-1", true);
+        SimpMessageHeaderAccessor disconnect = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+        disconnect.setSessionId("session-1");
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], disconnect.getMessageHeaders()), null);
+
+        Message<?> message = jsonMessage("session-1", "{}".getBytes());
+
+        assertThat(interceptor.preSend(message, null)).isSameAs(message);
+    }
+
+    @Test
+    void transcode_ifWinnerListingLarge_everyWinnerKeptInFewerBytesThanJson() throws IOException {
+        Notification winnerListing = Notification.builder()
+            .messageCode("WINNER_LISTING")
+            .messagePayload(IntStream.range(0, 10_000)
+                .mapToObj(i -> WinningPlayer.builder()
+                    .name("player-" + i)
+                    .wonAmount(Money.ofMinorUnits(1_000L + i * 99L))
+                    .build())
+                .collect(Collectors.toList()))
+            .build();
+        byte[] json = jsonMapper.writeValueAsBytes(winnerListing);
+
+        byte[] cbor = interceptor.transcode(json);
+
+        assertThat(cborMapper.readTree(cbor).get("messagePayload")).hasSize(10_000);
+        assertThat(cbor.length).isLessThan(json.length);
+    }
+
+    private void connect(String sessionId, boolean binaryTransport) throws Exception {
+        Map<String, Object> sessionAttributes = new HashMap<>();
+        if (binaryTransport) {
+            interceptor.binaryTransportMarker().beforeHandshake(null, null, null, sessionAttributes);
+        }
+
+        SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        connect.setSessionId(sessionId);
+        connect.setSessionAttributes(sessionAttributes);
+        connect.setContentType(CborWireFormatInterceptor.APPLICATION_CBOR);
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()), null);
+    }
+
+    private Message<?> jsonMessage(String sessionId, byte[] json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination("/topic/tables/1/messages/all");
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+    }
+}
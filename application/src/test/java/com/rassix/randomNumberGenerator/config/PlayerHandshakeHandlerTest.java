@@ -0,0 +1,29 @@
+package com.rassix.randomNumberGenerator.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlayerHandshakeHandlerTest {
+
+    private final PlayerHandshakeHandler handshakeHandler = new PlayerHandshakeHandler();
+
+    @Test
+    void determineUser_ifHandshakeWithLogin_sessionBoundToPlayer() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("login", "dave");
+
+        assertThat(handshakeHandler.determineUser(new ServletServerHttpRequest(request), null, new HashMap<>()))
+            .isEqualTo(new PlayerPrincipal("dave"));
+    }
+
+    @Test
+    void determineUser_ifHandshakeWithoutLogin_sessionStaysAnonymous() {
+        assertThat(handshakeHandler.determineUser(new ServletServerHttpRequest(new MockHttpServletRequest()), null, new HashMap<>()))
+            .isNull();
+    }
+}
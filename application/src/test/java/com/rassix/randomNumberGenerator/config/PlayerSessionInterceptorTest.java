@@ -0,0 +1,56 @@
+package com.rassix.randomNumberGenerator.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlayerSessionInterceptorTest {
+
+    private final PlayerSessionInterceptor interceptor = new PlayerSessionInterceptor();
+
+    @Test
+    void preSend_ifConnectWithLogin_sessionBoundToPlayer() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setLogin("dave");
+
+        Message<?> message = interceptor.preSend(createMessage(accessor), null);
+
+        assertThat(StompHeaderAccessor.wrap(message).getUser()).isEqualTo(new PlayerPrincipal("dave"));
+    }
+
+    @Test
+    void preSend_ifConnectWithoutLogin_sessionStaysAnonymous() {
+        Message<?> message = interceptor.preSend(createMessage(StompHeaderAccessor.create(StompCommand.CONNECT)), null);
+
+        assertThat(StompHeaderAccessor.wrap(message).getUser()).isNull();
+    }
+
+    @Test
+    void preSend_ifQueueSubscribedDirectly_subscriptionRejected() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination("/queue/messages-userabc");
+
+        assertThatThrownBy(() -> interceptor.preSend(createMessage(accessor), null))
+            .isInstanceOf(MessagingException.class);
+    }
+
+    @Test
+    void preSend_ifUserQueueSubscribed_subscriptionPassed() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination("/user/queue/messages");
+        Message<?> message = createMessage(accessor);
+
+        assertThat(interceptor.preSend(message, null)).isSameAs(message);
+    }
+
+    private Message<?> createMessage(StompHeaderAccessor accessor) {
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,127 @@
+package com.rassix.randomNumberGenerator.config;
+
+import com.rassix.randomNumberGenerator.constant.SlowConsumerPolicy;
+import com.rassix.randomNumberGenerator.service.GameMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SlowConsumerWebSocketHandlerTest {
+
+    private static final int SEND_BUFFER_SIZE_LIMIT = 1024;
+    private static final TextMessage MESSAGE = new TextMessage("x".repeat(100));
+
+    private final CountDownLatch clientStuck = new CountDownLatch(1);
+    private final CountDownLatch clientRecovered = new CountDownLatch(1);
+
+    private GameMetrics gameMetrics;
+    private WebSocketSession session;
+    private Thread stuckSender;
+
+    @BeforeEach
+    void setup() throws IOException {
+        gameMetrics = new GameMetrics();
+
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("session-1");
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(new HashMap<>());
+        doAnswer(invocation -> {
+            clientStuck.countDown();
+            clientRecovered.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(session).sendMessage(any());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        clientRecovered.countDown();
+        if (stuckSender != null) {
+            stuckSender.join();
+        }
+    }
+
+    @Test
+    void decorateSession_ifDropPolicyAndClientCanNotKeepUp_oldestMessagesDroppedAndBufferBounded() throws Exception {
+        WebSocketSession decoratedSession = createHandler(SlowConsumerPolicy.DROP).decorateSession(session);
+        blockClient(decoratedSession);
+
+        for (int i = 0; i < 100; i++) {
+            decoratedSession.sendMessage(MESSAGE);
+        }
+
+        assertThat(gameMetrics.snapshot().get("websocket.buffered-bytes.max").intValue())
+            .isPositive()
+            .isLessThanOrEqualTo(SEND_BUFFER_SIZE_LIMIT);
+        assertThat(gameMetrics.snapshot()).containsEntry("websocket.sessions", 1);
+    }
+
+    @Test
+    void decorateSession_ifTerminatePolicyAndClientCanNotKeepUp_sessionLimitExceeded() throws Exception {
+        WebSocketSession decoratedSession = createHandler(SlowConsumerPolicy.TERMINATE).decorateSession(session);
+        blockClient(decoratedSession);
+
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 100; i++) {
+                decoratedSession.sendMessage(MESSAGE);
+            }
+        }).isInstanceOf(SessionLimitExceededException.class);
+    }
+
+    @Test
+    void afterConnectionClosed_ifSessionClosed_disconnectCountedByReasonAndSessionForgotten() throws Exception {
+        SlowConsumerWebSocketHandler handler = createHandler(SlowConsumerPolicy.DROP);
+        handler.afterConnectionEstablished(session);
+
+        handler.afterConnectionClosed(session, CloseStatus.SESSION_NOT_RELIABLE);
+
+        assertThat(gameMetrics.snapshot())
+            .containsEntry("websocket.disconnects.slow-consumer", 1L)
+            .containsEntry("websocket.sessions", 0)
+            .containsEntry("websocket.buffered-bytes.total", 0L);
+    }
+
+    private SlowConsumerWebSocketHandler createHandler(SlowConsumerPolicy policy) {
+        SlowConsumerWebSocketHandler handler = new SlowConsumerWebSocketHandler(
+            new ExecutorSubscribableChannel(), new ExecutorSubscribableChannel(), policy, gameMetrics
+        );
+        handler.addProtocolHandler(new StompSubProtocolHandler());
+        handler.setSendTimeLimit((int) TimeUnit.MINUTES.toMillis(1));
+        handler.setSendBufferSizeLimit(SEND_BUFFER_SIZE_LIMIT);
+        handler.start();
+        return handler;
+    }
+
+    /**
+     * Starts sending a message the client never acknowledges, so every following message has to be buffered.
+     */
+    private void blockClient(WebSocketSession decoratedSession) throws InterruptedException {
+        stuckSender = new Thread(() -> {
+            try {
+                decoratedSession.sendMessage(MESSAGE);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        stuckSender.start();
+        assertThat(clientStuck.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
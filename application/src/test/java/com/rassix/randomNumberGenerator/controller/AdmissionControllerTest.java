@@ -0,0 +1,59 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.controller.dto.ErrorResponse;
+import com.rassix.randomNumberGenerator.service.AdmissionControl;
+import com.rassix.randomNumberGenerator.service.dto.AdmissionLimits;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControllerTest {
+
+    private static final AdmissionLimits LIMITS = new AdmissionLimits(5.0, 10, 200.0, 400, 10000);
+
+    @Mock
+    private AdmissionControl admissionControl;
+
+    @Test
+    void setLimits_ifAdminTokenMatches_limitsChanged() {
+        when(admissionControl.getLimits()).thenReturn(LIMITS);
+
+        ResponseEntity<?> response = new AdmissionController(admissionControl, "secret").setLimits("secret", LIMITS);
+
+        verify(admissionControl).setLimits(LIMITS);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(LIMITS);
+    }
+
+    @Test
+    void setLimits_ifAdminTokenWrongOrMissing_forbidden() {
+        AdmissionController admissionController = new AdmissionController(admissionControl, "secret");
+
+        ResponseEntity<?> wrongToken = admissionController.setLimits("guess", LIMITS);
+        ResponseEntity<?> noToken = admissionController.setLimits(null, LIMITS);
+
+        verify(admissionControl, never()).setLimits(any());
+        assertThat(wrongToken.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(((ErrorResponse) wrongToken.getBody()).getErrorCode()).isEqualTo("FORBIDDEN");
+        assertThat(noToken.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void setLimits_ifNoAdminTokenConfigured_forbiddenEvenWithEmptyToken() {
+        ResponseEntity<?> response = new AdmissionController(admissionControl, "").setLimits("", LIMITS);
+
+        verify(admissionControl, never()).setLimits(any());
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.config.PlayerPrincipal;
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
+import com.rassix.randomNumberGenerator.controller.dto.BetRequest;
+import com.rassix.randomNumberGenerator.controller.dto.ErrorResponse;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.AdmissionControl;
+import com.rassix.randomNumberGenerator.service.GameMetrics;
+import com.rassix.randomNumberGenerator.service.GameService;
+import com.rassix.randomNumberGenerator.service.dto.Notification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BetControllerTest {
+
+    @Mock
+    private GameService gameService;
+
+    private final Instant now = Instant.parse("2021-03-01T12:00:00Z");
+
+    private BetController betController;
+
+    @BeforeEach
+    void setup() {
+        Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+        betController = new BetController(gameService, new AdmissionControl(clock, new GameMetrics(), 1, 1, 200, 400, 10000), clock);
+    }
+
+    @Test
+    void placeBet_ifBettingOpen_betAddedForLoggedInPlayerAndAccepted() {
+        BetRequest betRequest = new BetRequest("gameId", 3, new BigDecimal("31"));
+        when(gameService.getGameDetails("gameId")).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayer(eq("gameId"), any())).thenReturn(CompletableFuture.completedFuture(BetResult.ACCEPTED));
+
+        Notification reply = betController.placeBet(betRequest, new PlayerPrincipal("dave")).join();
+
+        ArgumentCaptor<AddPlayerRequest> addPlayerRequestCaptor = ArgumentCaptor.forClass(AddPlayerRequest.class);
+        verify(gameService).addPlayer(eq("gameId"), addPlayerRequestCaptor.capture());
+        assertThat(addPlayerRequestCaptor.getValue()).usingRecursiveComparison()
+            .isEqualTo(new AddPlayerRequest("dave", 3, new BigDecimal("31")));
+        assertThat(reply.getMessageCode()).isEqualTo("BET_ACCEPTED");
+        assertThat(reply.getMessagePayload()).isSameAs(betRequest);
+    }
+
+    @Test
+    void placeBet_ifBettingEnded_betRejected() {
+        when(gameService.getGameDetails("gameId")).thenReturn(Game.builder().betEndingTime(now.minusSeconds(1)).build());
+
+        Notification reply = betController.placeBet(new BetRequest("gameId", 3, BigDecimal.ONE), new PlayerPrincipal("dave")).join();
+
+        assertThat(reply).usingRecursiveComparison().isEqualTo(new Notification(
+            "BET_REJECTED", new ErrorResponse("INVALID_BID", "Bidding made after expiry time")
+        ));
+        verify(gameService, never()).addPlayer(any(), any());
+    }
+
+    @Test
+    void placeBet_ifSessionNotLoggedIn_betRejected() {
+        Notification reply = betController.placeBet(new BetRequest("gameId", 3, BigDecimal.ONE), null).join();
+
+        assertThat(reply).usingRecursiveComparison().isEqualTo(new Notification(
+            "BET_REJECTED", new ErrorResponse("NOT_LOGGED_IN", "Connect with a login before placing bets")
+        ));
+        verifyNoInteractions(gameService);
+    }
+
+    @Test
+    void placeBet_ifPlayerAlreadyBet_betRejectedWithSameCodeAsHttpEndpoint() {
+        when(gameService.getGameDetails("gameId")).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayer(eq("gameId"), any())).thenReturn(CompletableFuture.completedFuture(BetResult.PLAYER_EXISTS));
+
+        Notification reply = betController.placeBet(new BetRequest("gameId", 3, BigDecimal.ONE), new PlayerPrincipal("dave")).join();
+
+        assertThat(reply).usingRecursiveComparison().isEqualTo(new Notification(
+            "BET_REJECTED", new ErrorResponse("PLAYER_EXISTS", "Player dave already exists in game")
+        ));
+    }
+
+    @Test
+    void placeBet_ifPlayerOverRateLimit_betRejectedWithoutPlacingIt() {
+        when(gameService.getGameDetails("gameId")).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayer(eq("gameId"), any())).thenReturn(CompletableFuture.completedFuture(BetResult.ACCEPTED));
+
+        betController.placeBet(new BetRequest("gameId", 3, BigDecimal.ONE), new PlayerPrincipal("dave")).join();
+        Notification reply = betController.placeBet(new BetRequest("gameId", 4, BigDecimal.ONE), new PlayerPrincipal("dave")).join();
+
+        assertThat(reply).usingRecursiveComparison().isEqualTo(new Notification(
+            "BET_REJECTED", new ErrorResponse("TOO_MANY_BETS", "Too many bets from this player, retry in 1s")
+        ));
+        verify(gameService).addPlayer(eq("gameId"), any());
+    }
+
+}
@@ -1,18 +1,27 @@
 package com.rassix.randomNumberGenerator.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rassix.randomNumberGenerator.constant.GamePhase;
 import com.rassix.randomNumberGenerator.controller.dto.GameInfoResponse;
 import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
+import com.rassix.randomNumberGenerator.service.GameMetrics;
 import com.rassix.randomNumberGenerator.service.GameService;
+import com.rassix.randomNumberGenerator.service.GameTable;
+import com.rassix.randomNumberGenerator.service.PayloadEncoder;
+import com.rassix.randomNumberGenerator.service.TableRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
@@ -23,11 +32,30 @@ class GameControllerTest {
     @Mock
     private GameService gameService;
 
-    @InjectMocks
+    @Mock
+    private TableRegistry tableRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     private GameController gameController;
 
+    @BeforeEach
+    void setup() {
+        gameController = new GameController(gameService, tableRegistry, new PayloadEncoder(objectMapper, new GameMetrics()));
+    }
+
+    @Test
+    void tablesSubscription_ifCalled_returnsIdsOfAllTables() {
+        when(tableRegistry.getTables()).thenReturn(List.of(
+            new GameTable("1", null, new Random()),
+            new GameTable("2", null, new Random())
+        ));
+
+        assertThat(gameController.tablesSubscription()).containsExactly("1", "2");
+    }
+
     @Test
-    void gameDataEventSubscription_ifActiveGameIsFound_activeGameIsReturned() {
+    void gameDataEventSubscription_ifActiveGameIsFound_activeGameIsReturned() throws IOException {
         String gameId = "testGameId";
         Instant bettingEndTime = Instant.now().plus(10, ChronoUnit.SECONDS);
 
@@ -37,30 +65,41 @@ class GameControllerTest {
             .winningNumber(5)
             .build();
 
-        when(gameService.getActiveGame()).thenReturn(
+        when(gameService.getActiveGame("1")).thenReturn(
             Map.entry(gameId, game)
         );
 
         GameInfoResponse expectedObject = GameInfoResponse.builder()
+            .tableId("1")
             .gameId(gameId)
             .bettingEndTime(bettingEndTime)
             .gamePhase(GamePhase.BETTING_PHASE)
             .build();
 
-        GameInfoResponse gameInfoResponse = gameController.gameDataEventSubscription();
+        GameInfoResponse gameInfoResponse = decode(gameController.gameDataEventSubscription("1"));
 
         assertThat(gameInfoResponse).usingRecursiveComparison().isEqualTo(expectedObject);
     }
 
     @Test
-    void gameDataEventSubscription_ifActiveGameNotFound_returnsNull() {
-        when(gameService.getActiveGame()).thenReturn(null);
+    void gameDataEventSubscription_ifActiveGameNotFound_returnsNull() throws IOException {
+        when(gameService.getActiveGame("1")).thenReturn(null);
 
-        GameInfoResponse gameInfoResponse = gameController.gameDataEventSubscription();
+        GameInfoResponse gameInfoResponse = decode(gameController.gameDataEventSubscription("1"));
 
-        GameInfoResponse expectedResponse = GameInfoResponse.builder().gamePhase(GamePhase.NO_ACTIVE_GAME).build();
+        GameInfoResponse expectedResponse = GameInfoResponse.builder().tableId("1").gamePhase(GamePhase.NO_ACTIVE_GAME).build();
 
         assertThat(gameInfoResponse).usingRecursiveComparison().isEqualTo(expectedResponse);
     }
 
-}
\ No newline at end of file
+    @Test
+    void gameDataEventSubscription_ifRoundUnchanged_encodedPayloadReused() {
+        when(gameService.getActiveGame("1")).thenReturn(Map.entry("testGameId", Game.builder().gamePhase(GamePhase.BETTING_PHASE).build()));
+
+        assertThat(gameController.gameDataEventSubscription("1")).isSameAs(gameController.gameDataEventSubscription("1"));
+    }
+
+    private GameInfoResponse decode(EncodedPayload encodedPayload) throws IOException {
+        return objectMapper.readValue(encodedPayload.getBytes(), GameInfoResponse.class);
+    }
+}
@@ -0,0 +1,31 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.service.GameMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsControllerTest {
+
+    @Mock
+    private GameMetrics gameMetrics;
+
+    @InjectMocks
+    private MetricsController metricsController;
+
+    @Test
+    void metrics_ifCalled_returnsMetricsSnapshot() {
+        when(gameMetrics.snapshot()).thenReturn(Map.of("round.skipped", 2L));
+
+        assertThat(metricsController.metrics()).containsExactly(Map.entry("round.skipped", 2L));
+    }
+
+}
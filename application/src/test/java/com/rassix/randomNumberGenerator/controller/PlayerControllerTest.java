@@ -1,21 +1,41 @@
 package com.rassix.randomNumberGenerator.controller;
 
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayerResult;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayersResponse;
 import com.rassix.randomNumberGenerator.controller.dto.ErrorResponse;
-import com.rassix.randomNumberGenerator.exception.PlayerExistsException;
 import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.AdmissionControl;
+import com.rassix.randomNumberGenerator.service.GameMetrics;
 import com.rassix.randomNumberGenerator.service.GameService;
+import com.rassix.randomNumberGenerator.service.IdempotencyCache;
+import com.rassix.randomNumberGenerator.service.dto.AdmissionLimits;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,18 +44,32 @@ class PlayerControllerTest {
     @Mock
     private GameService gameService;
 
-    @InjectMocks
+    private final Instant now = Instant.parse("2021-03-01T12:00:00Z");
+
+    private AdmissionControl admissionControl;
     private PlayerController playerController;
 
+    @BeforeEach
+    void setup() {
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+
+        Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+        GameMetrics gameMetrics = new GameMetrics();
+        IdempotencyCache idempotencyCache = new IdempotencyCache(16, Duration.ofMinutes(10), clock, gameMetrics);
+        admissionControl = new AdmissionControl(clock, gameMetrics, 5, 10, 200, 400, 10000);
+        playerController = new PlayerController(gameService, idempotencyCache, admissionControl, validator, clock, 3);
+    }
+
     @Test
-    void addPlayer_ifRequestMadeAfterBiddingEnded_returnsStatus400() throws PlayerExistsException {
+    void addPlayer_ifRequestMadeAfterBiddingEnded_returnsStatus400() {
         String gameId = "testGameId";
 
         when(gameService.getGameDetails(gameId)).thenReturn(
-            Game.builder().betEndingTime(Instant.now().minus(50, ChronoUnit.SECONDS)).build()
+            Game.builder().betEndingTime(now.minus(50, ChronoUnit.SECONDS)).build()
         );
 
-        ResponseEntity<?> responseEntity = playerController.addPlayer(gameId, null);
+        ResponseEntity<?> responseEntity = playerController.addPlayer(gameId, null, new AddPlayerRequest("dave", 3, BigDecimal.ONE), new MockHttpServletRequest()).join();
 
         ErrorResponse expectedErrorBody = new ErrorResponse("INVALID_BID", "Bidding made after expiry time");
 
@@ -43,4 +77,168 @@ class PlayerControllerTest {
         assertThat(responseEntity.getBody()).usingRecursiveComparison().isEqualTo(expectedErrorBody);
     }
 
-}
\ No newline at end of file
+    @Test
+    void addPlayer_ifBetAccepted_returnsStatus201() {
+        String gameId = "testGameId";
+        AddPlayerRequest dave = new AddPlayerRequest("dave", 3, new BigDecimal("31"));
+
+        when(gameService.getGameDetails(gameId)).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayer(gameId, dave)).thenReturn(CompletableFuture.completedFuture(BetResult.ACCEPTED));
+
+        ResponseEntity<?> responseEntity = playerController.addPlayer(gameId, null, dave, new MockHttpServletRequest()).join();
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    void addPlayer_ifBetRingFull_returnsStatus503() {
+        String gameId = "testGameId";
+        AddPlayerRequest dave = new AddPlayerRequest("dave", 3, new BigDecimal("31"));
+
+        when(gameService.getGameDetails(gameId)).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayer(gameId, dave)).thenReturn(CompletableFuture.completedFuture(BetResult.QUEUE_FULL));
+
+        ResponseEntity<?> responseEntity = playerController.addPlayer(gameId, null, dave, new MockHttpServletRequest()).join();
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(responseEntity.getBody()).usingRecursiveComparison()
+            .isEqualTo(new ErrorResponse("BETS_QUEUE_FULL", "Too many bets at once, try again"));
+    }
+
+    @Test
+    void addPlayer_ifPlayerOverRateLimit_returnsStatus429WithoutPlacingBet() {
+        String gameId = "testGameId";
+        AddPlayerRequest dave = new AddPlayerRequest("dave", 3, new BigDecimal("31"));
+        admissionControl.setLimits(new AdmissionLimits(0.5, 1, 0.0, 1, 10));
+
+        when(gameService.getGameDetails(gameId)).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayer(gameId, dave)).thenReturn(CompletableFuture.completedFuture(BetResult.ACCEPTED));
+
+        ResponseEntity<?> first = playerController.addPlayer(gameId, null, dave, new MockHttpServletRequest()).join();
+        ResponseEntity<?> second = playerController.addPlayer(gameId, null, dave, new MockHttpServletRequest()).join();
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(second.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(second.getBody()).usingRecursiveComparison()
+            .isEqualTo(new ErrorResponse("TOO_MANY_BETS", "Too many bets from this player, retry in 2s"));
+        verify(gameService).addPlayer(gameId, dave);
+    }
+
+    @Test
+    void addPlayer_ifRetriedWithSameIdempotencyKeyAfterBettingEnded_originalResultReturned() {
+        String gameId = "testGameId";
+        AddPlayerRequest dave = new AddPlayerRequest("dave", 3, new BigDecimal("31"));
+
+        when(gameService.getGameDetails(gameId)).thenReturn(
+            Game.builder().betEndingTime(now.plusSeconds(5)).build(),
+            Game.builder().betEndingTime(now.minusSeconds(1)).build()
+        );
+        when(gameService.addPlayer(gameId, dave)).thenReturn(CompletableFuture.completedFuture(BetResult.ACCEPTED));
+
+        ResponseEntity<?> first = playerController.addPlayer(gameId, "bet-1", dave, new MockHttpServletRequest()).join();
+        ResponseEntity<?> retry = playerController.addPlayer(gameId, "bet-1", new AddPlayerRequest("dave", 3, new BigDecimal("31")), new MockHttpServletRequest()).join();
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        verify(gameService).getGameDetails(gameId);
+        verify(gameService).addPlayer(gameId, dave);
+    }
+
+    @Test
+    void addPlayer_ifIdempotencyKeyTooLong_returnsStatus400() {
+        ResponseEntity<?> responseEntity = playerController.addPlayer("testGameId", "k".repeat(256), new AddPlayerRequest("dave", 3, BigDecimal.ONE), new MockHttpServletRequest()).join();
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(responseEntity.getBody()).usingRecursiveComparison()
+            .isEqualTo(new ErrorResponse("INVALID_REQUEST", "Idempotency-Key must have between 1 and 255 characters"));
+        verifyNoInteractions(gameService);
+    }
+
+    @Test
+    void addPlayers_ifBatchContainsInvalidAndDuplicateBets_onlyThoseRejected() {
+        String gameId = "testGameId";
+        AddPlayerRequest dave = new AddPlayerRequest("dave", 3, new BigDecimal("31"));
+        AddPlayerRequest invalid = new AddPlayerRequest("lucy", 11, new BigDecimal("31"));
+        AddPlayerRequest duplicate = new AddPlayerRequest("dave", 4, new BigDecimal("5"));
+
+        when(gameService.getGameDetails(gameId)).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayers(gameId, List.of(dave, duplicate))).thenReturn(CompletableFuture.completedFuture(List.of(BetResult.ACCEPTED, BetResult.PLAYER_EXISTS)));
+
+        ResponseEntity<?> responseEntity = playerController.addPlayers(gameId, List.of(dave, invalid, duplicate), new MockHttpServletRequest()).join();
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        AddPlayersResponse response = (AddPlayersResponse) responseEntity.getBody();
+        assertThat(response.getAcceptedCount()).isEqualTo(1);
+        assertThat(response.getRejectedCount()).isEqualTo(2);
+        assertThat(response.getResults()).usingRecursiveFieldByFieldElementComparator().containsExactly(
+            new AddPlayerResult(0, "dave", true, null, null),
+            new AddPlayerResult(1, "lucy", false, "INVALID_REQUEST", "guessedNumber must be less than or equal to 10"),
+            new AddPlayerResult(2, "dave", false, "PLAYER_EXISTS", "Player dave already exists in game")
+        );
+    }
+
+    @Test
+    void addPlayers_ifBatchContainsMissingBet_missingBetRejected() {
+        String gameId = "testGameId";
+        AddPlayerRequest dave = new AddPlayerRequest("dave", 3, new BigDecimal("31"));
+
+        when(gameService.getGameDetails(gameId)).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayers(gameId, List.of(dave))).thenReturn(CompletableFuture.completedFuture(List.of(BetResult.ACCEPTED)));
+
+        ResponseEntity<?> responseEntity = playerController.addPlayers(gameId, Arrays.asList(null, dave), new MockHttpServletRequest()).join();
+
+        assertThat(((AddPlayersResponse) responseEntity.getBody()).getResults()).usingRecursiveFieldByFieldElementComparator().containsExactly(
+            new AddPlayerResult(0, null, false, "INVALID_REQUEST", "bet is missing"),
+            new AddPlayerResult(1, "dave", true, null, null)
+        );
+    }
+
+    @Test
+    void addPlayers_ifBettingClosedDuringBatch_remainingBetsRejectedAsLate() {
+        String gameId = "testGameId";
+        AddPlayerRequest dave = new AddPlayerRequest("dave", 3, new BigDecimal("31"));
+        AddPlayerRequest lucy = new AddPlayerRequest("lucy", 4, new BigDecimal("31"));
+
+        when(gameService.getGameDetails(gameId)).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayers(gameId, List.of(dave, lucy))).thenReturn(CompletableFuture.completedFuture(List.of(BetResult.ACCEPTED, BetResult.BETTING_CLOSED)));
+
+        ResponseEntity<?> responseEntity = playerController.addPlayers(gameId, List.of(dave, lucy), new MockHttpServletRequest()).join();
+
+        assertThat(((AddPlayersResponse) responseEntity.getBody()).getResults()).usingRecursiveFieldByFieldElementComparator().containsExactly(
+            new AddPlayerResult(0, "dave", true, null, null),
+            new AddPlayerResult(1, "lucy", false, "INVALID_BID", "Bidding made after expiry time")
+        );
+    }
+
+    @Test
+    void addPlayers_ifRequestMadeAfterBiddingEnded_wholeBatchRejected() {
+        String gameId = "testGameId";
+
+        when(gameService.getGameDetails(gameId)).thenReturn(Game.builder().betEndingTime(now.minusSeconds(1)).build());
+
+        ResponseEntity<?> responseEntity = playerController.addPlayers(gameId, List.of(new AddPlayerRequest("dave", 3, BigDecimal.ONE)), new MockHttpServletRequest()).join();
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(responseEntity.getBody()).usingRecursiveComparison()
+            .isEqualTo(new ErrorResponse("INVALID_BID", "Bidding made after expiry time"));
+        verify(gameService).getGameDetails(gameId);
+    }
+
+    @Test
+    void addPlayers_ifBatchTooBig_returnsStatus400() {
+        List<AddPlayerRequest> addPlayerRequests = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            addPlayerRequests.add(new AddPlayerRequest("player" + i, 3, BigDecimal.ONE));
+        }
+
+        ResponseEntity<?> responseEntity = playerController.addPlayers("testGameId", addPlayerRequests, new MockHttpServletRequest()).join();
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(responseEntity.getBody()).usingRecursiveComparison()
+            .isEqualTo(new ErrorResponse("INVALID_REQUEST", "Batch must contain between 1 and 3 bets"));
+        verifyNoInteractions(gameService);
+    }
+
+}
@@ -0,0 +1,303 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rassix.randomNumberGenerator.config.PlayerPrincipal;
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.constant.GamePhase;
+import com.rassix.randomNumberGenerator.constant.SlowConsumerPolicy;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.AdmissionControl;
+import com.rassix.randomNumberGenerator.service.GameMetrics;
+import com.rassix.randomNumberGenerator.service.GameService;
+import com.rassix.randomNumberGenerator.service.GameTable;
+import com.rassix.randomNumberGenerator.service.PayloadEncoder;
+import com.rassix.randomNumberGenerator.service.RawSessionRegistry;
+import com.rassix.randomNumberGenerator.service.ReplayLog;
+import com.rassix.randomNumberGenerator.service.TableRegistry;
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RawGameWebSocketHandlerTest {
+
+    @Mock
+    private GameService gameService;
+
+    @Mock
+    private TableRegistry tableRegistry;
+
+    private final Instant now = Instant.parse("2021-03-01T12:00:00Z");
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final Queue<Runnable> pendingReplies = new ArrayDeque<>();
+
+    private RawSessionRegistry rawSessionRegistry;
+    private ReplayLog replayLog;
+    private RawGameWebSocketHandler handler;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setup() {
+        GameMetrics gameMetrics = new GameMetrics();
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+        rawSessionRegistry = new RawSessionRegistry(Duration.ofSeconds(10), DataSize.ofKilobytes(512), SlowConsumerPolicy.DROP, gameMetrics);
+        replayLog = new ReplayLog(16, Duration.ofMinutes(2), Clock.fixed(now, ZoneOffset.UTC), gameMetrics);
+        handler = new RawGameWebSocketHandler(
+            gameService, new AdmissionControl(Clock.fixed(now, ZoneOffset.UTC), gameMetrics, 5, 10, 200, 400, 10000),
+            tableRegistry, rawSessionRegistry, new PayloadEncoder(objectMapper, gameMetrics), replayLog,
+            objectMapper, validator, Clock.fixed(now, ZoneOffset.UTC), pendingReplies::add
+        );
+
+        session = mock(WebSocketSession.class);
+        lenient().when(session.getId()).thenReturn("session-1");
+        lenient().when(session.isOpen()).thenReturn(true);
+        lenient().when(session.getAttributes()).thenReturn(new HashMap<>());
+        handler.afterConnectionEstablished(session);
+    }
+
+    @Test
+    void join_ifTableExists_activeGameRepliedAndTableEventsDelivered() throws IOException {
+        when(session.getPrincipal()).thenReturn(new PlayerPrincipal("dave"));
+        when(tableRegistry.getTable("1")).thenReturn(new GameTable("1", null, new Random()));
+        when(gameService.getActiveGame("1")).thenReturn(Map.entry("game-1", Game.builder()
+            .gamePhase(GamePhase.BETTING_PHASE)
+            .betEndingTime(now.plusSeconds(10))
+            .build()));
+
+        handler.handleTextMessage(session, new TextMessage("join\n{\"tableId\":\"1\",\"username\":\"dave\"}"));
+        rawSessionRegistry.sendToTable("1", "biddingClosed", 41, new EncodedPayload("{}".getBytes(StandardCharsets.UTF_8)));
+        rawSessionRegistry.sendToTable("2", "biddingClosed", 41, new EncodedPayload("{}".getBytes(StandardCharsets.UTF_8)));
+        rawSessionRegistry.sendToPlayer("dave", new TextMessage("privateMessage 7\n{}"));
+
+        assertThat(sentFrames()).containsExactly(
+            "joined\n{\"tableId\":\"1\",\"gameId\":\"game-1\",\"gamePhase\":\"BETTING_PHASE\",\"bettingEndTime\":1614600010.000000000}",
+            "biddingClosed 41\n{}",
+            "privateMessage 7\n{}"
+        );
+    }
+
+    @Test
+    void join_ifUsernameNotTheLogin_joinRejected() throws IOException {
+        when(session.getPrincipal()).thenReturn(new PlayerPrincipal("dave"));
+        when(tableRegistry.getTable("1")).thenReturn(new GameTable("1", null, new Random()));
+
+        handler.handleTextMessage(session, new TextMessage("join\n{\"tableId\":\"1\",\"username\":\"lucy\"}"));
+        rawSessionRegistry.sendToPlayer("lucy", new TextMessage("privateMessage\n{}"));
+
+        assertThat(rawSessionRegistry.getUsername(session)).isNull();
+        assertThat(sentFrames()).containsExactly(
+            "error\n{\"errorCode\":\"USERNAME_MISMATCH\",\"errorMessage\":\"Joining as \\\"lucy\\\" takes a connection logged in as that player\"}"
+        );
+    }
+
+    @Test
+    void join_ifUsernameWithoutLogin_joinRejected() throws IOException {
+        when(tableRegistry.getTable("1")).thenReturn(new GameTable("1", null, new Random()));
+
+        handler.handleTextMessage(session, new TextMessage("join\n{\"tableId\":\"1\",\"username\":\"dave\"}"));
+
+        assertThat(rawSessionRegistry.getUsername(session)).isNull();
+        assertThat(sentFrames()).last().asString().startsWith("error\n{\"errorCode\":\"USERNAME_MISMATCH\"");
+    }
+
+    @Test
+    void join_ifLoggedInWithoutUsername_sessionPlaysAsLogin() throws IOException {
+        when(session.getPrincipal()).thenReturn(new PlayerPrincipal("dave"));
+        when(tableRegistry.getTable("1")).thenReturn(new GameTable("1", null, new Random()));
+
+        handler.handleTextMessage(session, new TextMessage("join\n{\"tableId\":\"1\"}"));
+
+        assertThat(rawSessionRegistry.getUsername(session)).isEqualTo("dave");
+    }
+
+    @Test
+    void join_ifTableMissing_errorReplied() throws IOException {
+        handler.handleTextMessage(session, new TextMessage("join\n{\"tableId\":\"7\"}"));
+
+        assertThat(sentFrames()).containsExactly(
+            "error\n{\"errorCode\":\"TABLE_MISSING\",\"errorMessage\":\"Table with the id \\\"7\\\" does not exist\"}"
+        );
+    }
+
+    @Test
+    void bet_ifPlacedInTime_playerAddedAndBetAccepted() throws Exception {
+        joinAs("dave");
+        when(gameService.getGameDetails("game-1")).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayer(eq("game-1"), any())).thenReturn(CompletableFuture.completedFuture(BetResult.ACCEPTED));
+
+        handler.handleTextMessage(session, new TextMessage("bet\n{\"gameId\":\"game-1\",\"guessedNumber\":3,\"bid\":31}"));
+        runPendingReplies();
+
+        ArgumentCaptor<AddPlayerRequest> requestCaptor = ArgumentCaptor.forClass(AddPlayerRequest.class);
+        verify(gameService).addPlayer(eq("game-1"), requestCaptor.capture());
+        assertThat(requestCaptor.getValue()).usingRecursiveComparison()
+            .isEqualTo(new AddPlayerRequest("dave", 3, new BigDecimal("31")));
+        assertThat(sentFrames()).last().isEqualTo("betAccepted\n{\"gameId\":\"game-1\",\"guessedNumber\":3,\"bid\":31}");
+    }
+
+    @Test
+    void bet_ifPlacedAfterBettingEnded_betRejected() throws Exception {
+        joinAs("dave");
+        when(gameService.getGameDetails("game-1")).thenReturn(Game.builder().betEndingTime(now.minusSeconds(1)).build());
+
+        handler.handleTextMessage(session, new TextMessage("bet\n{\"gameId\":\"game-1\",\"guessedNumber\":3,\"bid\":31}"));
+
+        verify(gameService, never()).addPlayer(any(), any());
+        assertThat(sentFrames()).last()
+            .isEqualTo("error\n{\"errorCode\":\"INVALID_BID\",\"errorMessage\":\"Bidding made after expiry time\"}");
+    }
+
+    @Test
+    void bet_ifPlayerAlreadyBet_betRejected() throws Exception {
+        joinAs("dave");
+        when(gameService.getGameDetails("game-1")).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayer(eq("game-1"), any())).thenReturn(CompletableFuture.completedFuture(BetResult.PLAYER_EXISTS));
+
+        handler.handleTextMessage(session, new TextMessage("bet\n{\"gameId\":\"game-1\",\"guessedNumber\":3,\"bid\":31}"));
+        runPendingReplies();
+
+        assertThat(sentFrames()).last()
+            .isEqualTo("error\n{\"errorCode\":\"PLAYER_EXISTS\",\"errorMessage\":\"Player dave already exists in game\"}");
+    }
+
+    @Test
+    void bet_ifBetWriterAddsBet_replySentOffTheWriterThread() throws Exception {
+        joinAs("dave");
+        when(gameService.getGameDetails("game-1")).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayer(eq("game-1"), any())).thenReturn(CompletableFuture.completedFuture(BetResult.ACCEPTED));
+
+        handler.handleTextMessage(session, new TextMessage("bet\n{\"gameId\":\"game-1\",\"guessedNumber\":3,\"bid\":31}"));
+
+        assertThat(sentFrames()).noneMatch(frame -> frame.startsWith("betAccepted"));
+        runPendingReplies();
+        assertThat(sentFrames()).last().asString().startsWith("betAccepted");
+    }
+
+    @Test
+    void bet_ifPlacingFails_errorReplied() throws Exception {
+        joinAs("dave");
+        when(gameService.getGameDetails("game-1")).thenReturn(Game.builder().betEndingTime(now.plusSeconds(5)).build());
+        when(gameService.addPlayer(eq("game-1"), any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("writer stopped")));
+
+        handler.handleTextMessage(session, new TextMessage("bet\n{\"gameId\":\"game-1\",\"guessedNumber\":3,\"bid\":31}"));
+        runPendingReplies();
+
+        assertThat(sentFrames()).last()
+            .isEqualTo("error\n{\"errorCode\":\"UNKNOWN_ERROR\",\"errorMessage\":\"Internal server error\"}");
+    }
+
+    @Test
+    void bet_ifPlacingThrows_errorRepliedAndSessionKept() throws Exception {
+        joinAs("dave");
+        when(gameService.getGameDetails("game-1")).thenThrow(new IllegalStateException("repository down"));
+
+        handler.handleTextMessage(session, new TextMessage("bet\n{\"gameId\":\"game-1\",\"guessedNumber\":3,\"bid\":31}"));
+
+        verify(session, never()).close(any());
+        assertThat(sentFrames()).last()
+            .isEqualTo("error\n{\"errorCode\":\"UNKNOWN_ERROR\",\"errorMessage\":\"Internal server error\"}");
+    }
+
+    @Test
+    void bet_ifBetInvalid_betRejectedWithViolations() throws Exception {
+        joinAs("dave");
+
+        handler.handleTextMessage(session, new TextMessage("bet\n{\"gameId\":\"game-1\",\"guessedNumber\":11}"));
+
+        verify(gameService, never()).getGameDetails(any());
+        assertThat(sentFrames()).last()
+            .isEqualTo("error\n{\"errorCode\":\"INVALID_REQUEST\",\"errorMessage\":\"bid must not be null, guessedNumber must be less than or equal to 10\"}");
+    }
+
+    @Test
+    void bet_ifSessionNotJoined_betRejected() throws Exception {
+        handler.handleTextMessage(session, new TextMessage("bet\n{\"gameId\":\"game-1\",\"guessedNumber\":3,\"bid\":31}"));
+
+        verify(gameService, never()).getGameDetails(any());
+        assertThat(sentFrames()).last().asString().startsWith("error\n{\"errorCode\":\"NOT_JOINED\"");
+    }
+
+    @Test
+    void replay_ifPlayerStreamRequested_missedPrivateMessagesOfTheLoginReplayed() throws Exception {
+        when(session.getPrincipal()).thenReturn(new PlayerPrincipal("dave"));
+        long lastSequence = replayLog.append("player/dave", new EncodedPayload("{\"messageCode\":\"LOSS_NOTIFICATION\"}".getBytes(StandardCharsets.UTF_8)));
+        long missedSequence = replayLog.append("player/dave", new EncodedPayload("{\"messageCode\":\"WIN_NOTIFICATION\"}".getBytes(StandardCharsets.UTF_8)));
+
+        handler.handleTextMessage(session, new TextMessage("replay\n{\"destination\":\"/user/queue/messages\",\"lastSequence\":" + lastSequence + "}"));
+
+        assertThat(sentFrames()).containsExactly("replay\n{\"destination\":\"/user/queue/messages\",\"complete\":true,"
+            + "\"messages\":[{\"sequence\":" + missedSequence + ",\"body\":{\"messageCode\":\"WIN_NOTIFICATION\"}}]}");
+    }
+
+    @Test
+    void afterConnectionClosed_ifSessionClosed_noLongerReceivesTableEvents() throws Exception {
+        joinAs("dave");
+
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        rawSessionRegistry.sendToTable("1", "biddingClosed", 41, new EncodedPayload("{}".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(rawSessionRegistry.hasPlayer("dave")).isFalse();
+        assertThat(sentFrames()).noneMatch(frame -> frame.startsWith("biddingClosed"));
+    }
+
+    private void joinAs(String username) throws IOException {
+        when(session.getPrincipal()).thenReturn(new PlayerPrincipal(username));
+        when(tableRegistry.getTable("1")).thenReturn(new GameTable("1", null, new Random()));
+        handler.handleTextMessage(session, new TextMessage("join\n{\"tableId\":\"1\",\"username\":\"" + username + "\"}"));
+    }
+
+    private void runPendingReplies() {
+        Runnable reply;
+        while ((reply = pendingReplies.poll()) != null) {
+            reply.run();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> sentFrames() throws IOException {
+        ArgumentCaptor<WebSocketMessage<?>> frameCaptor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, atLeastOnce()).sendMessage(frameCaptor.capture());
+        return frameCaptor.getAllValues().stream()
+            .map(frame -> ((TextMessage) frame).getPayload())
+            .collect(Collectors.toList());
+    }
+}
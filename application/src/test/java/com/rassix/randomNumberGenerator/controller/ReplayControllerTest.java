@@ -0,0 +1,86 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rassix.randomNumberGenerator.config.PlayerPrincipal;
+import com.rassix.randomNumberGenerator.controller.dto.ReplayRequest;
+import com.rassix.randomNumberGenerator.controller.dto.ReplayResponse;
+import com.rassix.randomNumberGenerator.service.ReplayLog;
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
+import com.rassix.randomNumberGenerator.service.dto.Replay;
+import com.rassix.randomNumberGenerator.service.dto.SequencedPayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplayControllerTest {
+
+    @Mock
+    private ReplayLog replayLog;
+
+    private ReplayController replayController;
+
+    @BeforeEach
+    void setup() {
+        replayController = new ReplayController(replayLog);
+    }
+
+    @Test
+    void replay_ifPlayerStreamRequested_missedPrivateMessagesOfThePlayerReplayed() throws IOException {
+        when(replayLog.getMessagesAfter("player/dave", 41)).thenReturn(new Replay(true, List.of(
+            new SequencedPayload(42, new EncodedPayload("{\"messageCode\":\"WIN_NOTIFICATION\"}".getBytes(StandardCharsets.UTF_8)), Instant.now())
+        )));
+
+        ReplayResponse replayResponse = replayController.replay(new ReplayRequest("/user/queue/messages", 41), headersOf("dave"));
+
+        assertThat(new ObjectMapper().writeValueAsString(replayResponse)).isEqualTo(
+            "{\"destination\":\"/user/queue/messages\",\"complete\":true,\"messages\":[{\"sequence\":42,\"body\":{\"messageCode\":\"WIN_NOTIFICATION\"}}]}"
+        );
+    }
+
+    @Test
+    void replay_ifTableTopicRequested_missedTableMessagesReplayed() {
+        when(replayLog.getMessagesAfter("/topic/tables/1/messages/all", 7)).thenReturn(new Replay(false, List.of()));
+
+        ReplayResponse replayResponse = replayController.replay(new ReplayRequest("/topic/tables/1/messages/all", 7), headersOf(null));
+
+        assertThat(replayResponse.isComplete()).isFalse();
+        assertThat(replayResponse.getMessages()).isEmpty();
+    }
+
+    @Test
+    void replay_ifPlayerStreamRequestedWithoutLogin_incompleteReplay() {
+        ReplayResponse replayResponse = replayController.replay(new ReplayRequest("/user/queue/messages", 41), headersOf(null));
+
+        assertThat(replayResponse.isComplete()).isFalse();
+        verifyNoInteractions(replayLog);
+    }
+
+    @Test
+    void replay_ifUnknownDestinationRequested_incompleteReplay() {
+        ReplayResponse replayResponse = replayController.replay(new ReplayRequest("/queue/player/dave", 41), headersOf("lucy"));
+
+        assertThat(replayResponse.isComplete()).isFalse();
+        verifyNoInteractions(replayLog);
+    }
+
+    private static SimpMessageHeaderAccessor headersOf(String username) {
+        SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create();
+        if (username != null) {
+            headerAccessor.setUser(new PlayerPrincipal(username));
+        }
+        return headerAccessor;
+    }
+}
@@ -0,0 +1,86 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.controller.dto.ErrorResponse;
+import com.rassix.randomNumberGenerator.controller.dto.WinnersPageResponse;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.repository.model.Money;
+import com.rassix.randomNumberGenerator.service.GameService;
+import com.rassix.randomNumberGenerator.service.dto.WinningPlayer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WinnersControllerTest {
+
+    @Mock
+    private GameService gameService;
+
+    private WinnersController winnersController;
+
+    @BeforeEach
+    void setup() {
+        winnersController = new WinnersController(gameService, 100, Duration.ofHours(1));
+    }
+
+    @Test
+    void winners_ifGameSettled_returnsRequestedPageWithCacheControl() {
+        List<WinningPlayer> winners = IntStream.range(0, 25)
+            .mapToObj(i -> WinningPlayer.builder().name("player-" + i).wonAmount(Money.ofMinorUnits(990)).build())
+            .collect(Collectors.toList());
+        when(gameService.getGameDetails("testGameId")).thenReturn(Game.builder().winners(winners).build());
+
+        ResponseEntity<?> responseEntity = winnersController.winners("testGameId", 2, 10);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getHeaders().getCacheControl()).isEqualTo("max-age=3600, public");
+        WinnersPageResponse page = (WinnersPageResponse) responseEntity.getBody();
+        assertThat(page.getTotalWinners()).isEqualTo(25);
+        assertThat(page.getWinners()).extracting(WinningPlayer::getName)
+            .containsExactly("player-20", "player-21", "player-22", "player-23", "player-24");
+    }
+
+    @Test
+    void winners_ifPageBeyondLastWinner_returnsEmptyPage() {
+        when(gameService.getGameDetails("testGameId")).thenReturn(Game.builder().winners(List.of()).build());
+
+        ResponseEntity<?> responseEntity = winnersController.winners("testGameId", Integer.MAX_VALUE, 100);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((WinnersPageResponse) responseEntity.getBody()).getWinners()).isEmpty();
+    }
+
+    @Test
+    void winners_ifGameNotSettled_returnsStatus409() {
+        when(gameService.getGameDetails("testGameId")).thenReturn(Game.builder().build());
+
+        ResponseEntity<?> responseEntity = winnersController.winners("testGameId", 0, 100);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(responseEntity.getHeaders().getCacheControl()).isNull();
+        assertThat(responseEntity.getBody()).usingRecursiveComparison()
+            .isEqualTo(new ErrorResponse("GAME_NOT_SETTLED", "Winners are known once the game is settled"));
+    }
+
+    @Test
+    void winners_ifPageSizeTooBig_returnsStatus400() {
+        ResponseEntity<?> responseEntity = winnersController.winners("testGameId", 0, 101);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(gameService);
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.rassix.randomNumberGenerator.repository;
+
+import com.rassix.randomNumberGenerator.constant.GamePhase;
+import com.rassix.randomNumberGenerator.repository.model.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.rassix.randomNumberGenerator.repository.model.Game.Player;
+import static com.rassix.randomNumberGenerator.repository.model.Game.builder;
+
+/**
+ * Bet intake throughput of the repository with a growing number of concurrent workers.
+ */
+@Slf4j
+@Tag("benchmark")
+class GameRepositoryBenchmark {
+
+    private final GameRepository gameRepository = new GameRepository(2, Duration.ofHours(1), Clock.systemUTC());
+
+    @Test
+    void addPlayer_ifManyWorkersBetAtOnce_throughputReported() throws Exception {
+        int betsPerWorker = 20_000;
+
+        for (int workerCount = 1; workerCount <= 8; workerCount *= 2) {
+            String gameId = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).winningNumber(4).build());
+            ExecutorService executorService = Executors.newFixedThreadPool(workerCount);
+            List<Callable<Void>> tasks = new ArrayList<>();
+
+            for (int worker = 0; worker < workerCount; worker++) {
+                String workerPrefix = "worker-" + worker + "-";
+                tasks.add(() -> {
+                    for (int bet = 0; bet < betsPerWorker; bet++) {
+                        gameRepository.addPlayer(
+                            gameId,
+                            workerPrefix + bet,
+                            Player.builder().guessedNumber(bet % 10 + 1).betAmount(Money.of(BigDecimal.ONE)).build()
+                        );
+                    }
+                    return null;
+                });
+            }
+
+            long start = System.nanoTime();
+            for (Future<Void> result : executorService.invokeAll(tasks)) {
+                result.get();
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            executorService.shutdown();
+
+            log.info("{} workers accepted {} bets/s", workerCount, workerCount * betsPerWorker * 1_000_000_000L / elapsedNanos);
+        }
+    }
+}
@@ -1,49 +1,52 @@
 package com.rassix.randomNumberGenerator.repository;
 
+import com.rassix.randomNumberGenerator.constant.BetResult;
 import com.rassix.randomNumberGenerator.constant.GamePhase;
 import com.rassix.randomNumberGenerator.exception.GameMissingException;
-import com.rassix.randomNumberGenerator.exception.PlayerExistsException;
 import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.repository.model.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
+import static com.rassix.randomNumberGenerator.repository.model.Game.HIGHEST_NUMBER;
+import static com.rassix.randomNumberGenerator.repository.model.Game.LOWEST_NUMBER;
 import static com.rassix.randomNumberGenerator.repository.model.Game.Player;
 import static com.rassix.randomNumberGenerator.repository.model.Game.builder;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class GameRepositoryTest {
 
-    @Spy
-    private HashMap<String, Player> playerMock;
-
     private GameRepository gameRepository;
 
     @BeforeEach
     void setup() {
-        gameRepository = new GameRepository();
+        gameRepository = new GameRepository(2, Duration.ofHours(1), Clock.systemUTC());
     }
 
     @Test
     void createGame_ifGameIsProvided_newGameStored() {
         Instant bettingEndTime = Instant.now().plus(50, ChronoUnit.SECONDS);
 
-        Game game = builder().gamePhase(GamePhase.BETTING_PHASE)
+        Game game = builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE)
             .betEndingTime(bettingEndTime)
             .winningNumber(24)
             .build();
@@ -54,7 +57,7 @@ class GameRepositoryTest {
 
         assertThat(allGames).hasSize(1);
 
-        Game expectedResult = builder().gamePhase(GamePhase.BETTING_PHASE)
+        Game expectedResult = builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE)
             .betEndingTime(bettingEndTime)
             .winningNumber(24)
             .players(new HashMap<>())
@@ -66,8 +69,8 @@ class GameRepositoryTest {
     }
 
     @Test
-    void addPlayer_ifMethodCalled_PersonIsAddedToList() throws PlayerExistsException {
-        Game game = builder().gamePhase(GamePhase.BETTING_PHASE)
+    void addPlayer_ifMethodCalled_PersonIsAddedToList() {
+        Game game = builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE)
             .betEndingTime(Instant.now().plus(23, ChronoUnit.MINUTES))
             .winningNumber(24)
             .build();
@@ -77,63 +80,166 @@ class GameRepositoryTest {
         gameRepository.addPlayer(
                 gameId,
                 "Dave",
-                Player.builder().guessedNumber(6).betAmount(new BigDecimal("42")).build()
+                Player.builder().guessedNumber(6).betAmount(Money.of(new BigDecimal("42"))).build()
             );
 
         Game returnedGame = gameRepository.getGame(gameId);
-        Player expectedResult = Player.builder().guessedNumber(6).betAmount(new BigDecimal("42")).build();
+        Player expectedResult = Player.builder().guessedNumber(6).betAmount(Money.of(new BigDecimal("42"))).build();
 
         assertThat(returnedGame.getPlayers()).hasSize(1);
         assertThat(returnedGame.getPlayers().get("Dave")).usingRecursiveComparison().isEqualTo(expectedResult);
     }
 
     @Test
-    void addPlayer_ifMethodCalledMultipleTimesAtOnce_ensurePersonPutCalledOnce() throws InterruptedException, ExecutionException {
-        Game game = builder().gamePhase(GamePhase.BETTING_PHASE)
+    void addPlayer_ifMethodCalled_PersonIsIndexedByGuessedNumber() {
+        String gameId = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).winningNumber(6).build());
+
+        gameRepository.addPlayer(gameId, "Dave", Player.builder().guessedNumber(6).betAmount(Money.of(new BigDecimal("42"))).build());
+        gameRepository.addPlayer(gameId, "Lucy", Player.builder().guessedNumber(10).betAmount(Money.of(new BigDecimal("3"))).build());
+        gameRepository.addPlayer(gameId, "Roland", Player.builder().guessedNumber(6).betAmount(Money.of(new BigDecimal("7"))).build());
+
+        Game returnedGame = gameRepository.getGame(gameId);
+
+        assertThat(returnedGame.getPlayersWhoGuessed(6)).containsOnlyKeys("Dave", "Roland");
+        assertThat(returnedGame.getPlayersWhoGuessed(10)).containsOnlyKeys("Lucy");
+        assertThat(returnedGame.getPlayersWhoGuessed(1)).isEmpty();
+    }
+
+    @Test
+    void addPlayer_ifMethodCalledMultipleTimesAtOnce_ensurePersonAddedOnce() throws InterruptedException, ExecutionException {
+        Game game = builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE)
             .betEndingTime(Instant.now().plus(23, ChronoUnit.MINUTES))
             .winningNumber(24)
-            .players(playerMock)
             .build();
 
         String gameId = gameRepository.createGame(game);
 
         ExecutorService executorService = Executors.newCachedThreadPool();
-        List<Callable<Void>> tasks = new ArrayList<>();
+        List<Callable<BetResult>> tasks = new ArrayList<>();
 
         Integer concurrentRequestCount = 10;
         generatePlayerDataForConcurrentInsert(tasks, gameId, concurrentRequestCount);
-        List<Future<Void>> results = executorService.invokeAll(tasks);
-        List<Exception> exceptions = new ArrayList<>();
-
-        for (Future<Void> result : results) {
-            try {
-                result.get();
-            } catch (Exception e) {
-                exceptions.add(e);
-            }
+        List<BetResult> betResults = new ArrayList<>();
+        for (Future<BetResult> result : executorService.invokeAll(tasks)) {
+            betResults.add(result.get());
         }
 
-        verify(playerMock).put(any(), any());
-        assertThat(exceptions).hasSize(concurrentRequestCount - 1);
-        assertThat(exceptions).extracting(x -> x.getCause().getMessage()).containsOnly("Player Dave already exists in game");
+        assertThat(gameRepository.getGame(gameId).getPlayers()).containsOnlyKeys("Dave");
+        assertThat(betResults).containsOnlyOnce(BetResult.ACCEPTED);
+        assertThat(betResults).filteredOn(betResult -> betResult == BetResult.PLAYER_EXISTS).hasSize(concurrentRequestCount - 1);
+    }
+
+    @Test
+    void addPlayer_ifManyWorkersBetAtOnce_allBetsAreStored() throws InterruptedException, ExecutionException {
+        int workerCount = 4;
+        int betsPerWorker = 1_000;
+        String gameId = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).winningNumber(4).build());
+        ExecutorService executorService = Executors.newFixedThreadPool(workerCount);
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int worker = 0; worker < workerCount; worker++) {
+            String workerPrefix = "worker-" + worker + "-";
+            tasks.add(() -> {
+                for (int bet = 0; bet < betsPerWorker; bet++) {
+                    gameRepository.addPlayer(
+                        gameId,
+                        workerPrefix + bet,
+                        Player.builder().guessedNumber(bet % 10 + 1).betAmount(Money.of(BigDecimal.ONE)).build()
+                    );
+                }
+                return null;
+            });
+        }
+
+        for (Future<Void> result : executorService.invokeAll(tasks)) {
+            result.get();
+        }
+        executorService.shutdown();
+
+        assertThat(gameRepository.getGame(gameId).getPlayers()).hasSize(workerCount * betsPerWorker);
+    }
+
+    @Test
+    void addPlayer_ifBettingAlreadyClosed_betRejected() {
+        String gameId = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).winningNumber(6).build());
+        gameRepository.changeGamePhase(gameId, GamePhase.RESULTS_PHASE);
+
+        assertThat(gameRepository.addPlayer(gameId, "Dave", Player.builder().guessedNumber(6).betAmount(Money.of(BigDecimal.ONE)).build()))
+            .isEqualTo(BetResult.BETTING_CLOSED);
+        assertThat(gameRepository.getGame(gameId).getPlayers()).isEmpty();
+    }
+
+    @Test
+    void changeGamePhase_ifBetsRaceTheEndOfBetting_exactlyTheAcceptedBetsAreVisibleOnceSealed() throws Exception {
+        int workerCount = 4;
+        ExecutorService executorService = Executors.newFixedThreadPool(workerCount);
+
+        for (int round = 0; round < 50; round++) {
+            String gameId = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).winningNumber(4).build());
+            Game game = gameRepository.getGame(gameId);
+            Set<String> acceptedBets = ConcurrentHashMap.newKeySet();
+            AtomicInteger rejectedBets = new AtomicInteger();
+            AtomicBoolean stop = new AtomicBoolean();
+            CountDownLatch workersStarted = new CountDownLatch(workerCount);
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < workerCount; worker++) {
+                String workerPrefix = "worker-" + worker + "-";
+                workers.add(executorService.submit(() -> {
+                    workersStarted.countDown();
+                    for (int bet = 0; !stop.get(); bet++) {
+                        BetResult betResult = gameRepository.addPlayer(gameId, workerPrefix + bet,
+                            Player.builder().guessedNumber(bet % 10 + 1).betAmount(Money.of(BigDecimal.ONE)).build());
+                        if (betResult == BetResult.ACCEPTED) {
+                            acceptedBets.add(workerPrefix + bet);
+                        } else {
+                            rejectedBets.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            workersStarted.await();
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(1_000_000));
+
+            gameRepository.changeGamePhase(gameId, GamePhase.RESULTS_PHASE);
+            Set<String> playersWhenSealed = Set.copyOf(game.getPlayers().keySet());
+            int bucketedPlayersWhenSealed = 0;
+            for (int number = LOWEST_NUMBER; number <= HIGHEST_NUMBER; number++) {
+                bucketedPlayersWhenSealed += game.getPlayersWhoGuessed(number).size();
+            }
+            while (rejectedBets.get() < workerCount) {
+                Thread.onSpinWait();
+            }
+            stop.set(true);
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+
+            assertThat(game.isSealed()).isTrue();
+            assertThat(playersWhenSealed).isEqualTo(acceptedBets);
+            assertThat(bucketedPlayersWhenSealed).isEqualTo(acceptedBets.size());
+            assertThat(game.getPlayers().keySet()).isEqualTo(playersWhenSealed);
+        }
+        executorService.shutdown();
     }
 
     @Test
     void getGame_returnsGame_ifExists() {
         Instant bettingEndTime = Instant.now().plus(50, ChronoUnit.SECONDS);
 
-        Game game1 = builder().gamePhase(GamePhase.BETTING_PHASE)
+        Game game1 = builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE)
             .betEndingTime(bettingEndTime)
-            .players(Map.of("Dave", Player.builder().betAmount(new BigDecimal("5.22")).guessedNumber(4).build()))
+            .players(Map.of("Dave", Player.builder().betAmount(Money.of(new BigDecimal("5.22"))).guessedNumber(4).build()))
             .winningNumber(34)
             .build();
 
         String gameId = gameRepository.createGame(game1);
 
 
-        Game expectedObject = builder().gamePhase(GamePhase.BETTING_PHASE)
+        Game expectedObject = builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE)
             .betEndingTime(bettingEndTime)
-            .players(Map.of("Dave", Player.builder().betAmount(new BigDecimal("5.22")).guessedNumber(4).build()))
+            .players(Map.of("Dave", Player.builder().betAmount(Money.of(new BigDecimal("5.22"))).guessedNumber(4).build()))
             .winningNumber(34)
             .build();
 
@@ -151,12 +257,12 @@ class GameRepositoryTest {
 
     @Test
     void changeGamePhase_ifGameIdProvided_phaseOnlyChangesForSpecifiedGame() {
-        Game game1 = builder().gamePhase(GamePhase.BETTING_PHASE)
+        Game game1 = builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE)
             .betEndingTime(Instant.now().plus(50, ChronoUnit.SECONDS))
             .winningNumber(34)
             .build();
 
-        Game game2 = builder().gamePhase(GamePhase.RESULTS_PHASE)
+        Game game2 = builder().tableId("1").gamePhase(GamePhase.RESULTS_PHASE)
             .betEndingTime(Instant.now().plus(50, ChronoUnit.SECONDS))
             .winningNumber(34)
             .build();
@@ -173,16 +279,73 @@ class GameRepositoryTest {
         assertThat(notChangedGame.getGamePhase()).isEqualTo(GamePhase.RESULTS_PHASE);
     }
 
-    private void generatePlayerDataForConcurrentInsert(List<Callable<Void>> tasks, String gameId, Integer concurrentRequestCount) {
+    @Test
+    void getActiveGame_ifGameCreated_returnsLatestGame() {
+        String gameId1 = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).build());
+        gameRepository.changeGamePhase(gameId1, GamePhase.ENDED);
+        String gameId2 = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).build());
+
+        Map.Entry<String, Game> activeGame = gameRepository.getActiveGame("1");
+
+        assertThat(activeGame.getKey()).isEqualTo(gameId2);
+        assertThat(activeGame.getValue()).isSameAs(gameRepository.getGame(gameId2));
+    }
+
+    @Test
+    void getActiveGame_ifActiveGameEnded_returnsNull() {
+        String gameId = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).build());
+
+        gameRepository.changeGamePhase(gameId, GamePhase.RESULTS_PHASE);
+        assertThat(gameRepository.getActiveGame("1").getKey()).isEqualTo(gameId);
+
+        gameRepository.changeGamePhase(gameId, GamePhase.ENDED);
+        assertThat(gameRepository.getActiveGame("1")).isNull();
+    }
+
+    @Test
+    void getActiveGame_ifGamesOnSeveralTables_returnsGameOfRequestedTable() {
+        String gameId1 = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).build());
+        String gameId2 = gameRepository.createGame(builder().tableId("2").gamePhase(GamePhase.BETTING_PHASE).build());
+
+        gameRepository.changeGamePhase(gameId2, GamePhase.ENDED);
+
+        assertThat(gameRepository.getActiveGame("1").getKey()).isEqualTo(gameId1);
+        assertThat(gameRepository.getActiveGame("2")).isNull();
+        assertThat(gameRepository.getActiveGame("3")).isNull();
+    }
+
+    @Test
+    void changeGamePhase_ifMoreGamesEndedThanAllowed_oldestEndedGamesEvicted() {
+        List<String> gameIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String gameId = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).build());
+            gameRepository.changeGamePhase(gameId, GamePhase.ENDED);
+            gameIds.add(gameId);
+        }
+
+        assertThat(gameRepository.getAllGames()).containsOnlyKeys(gameIds.get(2), gameIds.get(3));
+        assertThatThrownBy(() -> gameRepository.getGame(gameIds.get(0)))
+            .isInstanceOf(GameMissingException.class);
+    }
+
+    @Test
+    void changeGamePhase_ifEndedGameOlderThanAllowed_endedGameEvicted() {
+        gameRepository = new GameRepository(2, Duration.ZERO, Clock.systemUTC());
+
+        String endedGameId = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).build());
+        gameRepository.changeGamePhase(endedGameId, GamePhase.ENDED);
+        String activeGameId = gameRepository.createGame(builder().tableId("1").gamePhase(GamePhase.BETTING_PHASE).build());
+
+        assertThat(gameRepository.getAllGames()).containsOnlyKeys(activeGameId);
+    }
+
+    private void generatePlayerDataForConcurrentInsert(List<Callable<BetResult>> tasks, String gameId, Integer concurrentRequestCount) {
         for(Integer i = 0; i < concurrentRequestCount; i++) {
-            tasks.add(() -> {
-                gameRepository.addPlayer(
-                    gameId,
-                    "Dave",
-                    Player.builder().guessedNumber(4).betAmount(new BigDecimal(4)).build()
-                );
-                return null;
-            });
+            tasks.add(() -> gameRepository.addPlayer(
+                gameId,
+                "Dave",
+                Player.builder().guessedNumber(4).betAmount(Money.of(new BigDecimal(4))).build()
+            ));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.rassix.randomNumberGenerator.repository.model;
+
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.repository.model.Game.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameTest {
+
+    @Test
+    void builder_ifPlayersGiven_playersIndexedByGuessedNumber() {
+        Game game = Game.builder()
+            .players(Map.of("Dave", player(4), "Lucy", player(4), "Roland", player(10)))
+            .build();
+
+        assertThat(game.getPlayers()).containsOnlyKeys("Dave", "Lucy", "Roland");
+        assertThat(game.getPlayersWhoGuessed(4)).containsOnlyKeys("Dave", "Lucy");
+        assertThat(game.getPlayersWhoGuessed(10)).containsOnlyKeys("Roland");
+    }
+
+    @Test
+    void addPlayer_ifPlayerAdded_playerIndexedByGuessedNumber() {
+        Game game = Game.builder().build();
+
+        assertThat(game.addPlayer("Dave", player(1))).isEqualTo(BetResult.ACCEPTED);
+        assertThat(game.addPlayer("Dave", player(2))).isEqualTo(BetResult.PLAYER_EXISTS);
+
+        assertThat(game.getPlayersWhoGuessed(1)).containsOnlyKeys("Dave");
+        assertThat(game.getPlayersWhoGuessed(2)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 11, -3})
+    void addPlayer_ifGuessedNumberOutOfRange_throwsExceptionAndPlayerNotAdded(int guessedNumber) {
+        Game game = Game.builder().build();
+
+        assertThatThrownBy(() -> game.addPlayer("Dave", player(guessedNumber)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(game.getPlayers()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 11, -3})
+    void getPlayersWhoGuessed_ifNumberOutOfRange_empty(int number) {
+        assertThat(Game.builder().build().getPlayersWhoGuessed(number)).isEmpty();
+    }
+
+    private static Player player(int guessedNumber) {
+        return Player.builder().betAmount(Money.of(new BigDecimal("5"))).guessedNumber(guessedNumber).build();
+    }
+}
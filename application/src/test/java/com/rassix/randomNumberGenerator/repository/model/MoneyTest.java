@@ -0,0 +1,88 @@
+package com.rassix.randomNumberGenerator.repository.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    private static final BigDecimal WINNING_COEF = new BigDecimal("9.9");
+
+    @Test
+    void multiply_ifRandomAmounts_matchesBigDecimalHalfEvenResult() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long minorUnits = random.nextInt(4) == 0
+                ? random.nextInt(1_000)
+                : (long) (random.nextDouble() * 100_000_000_000_000L);
+            BigDecimal betAmount = BigDecimal.valueOf(minorUnits, Money.SCALE);
+
+            assertThat(Money.of(betAmount).multiply(99, 10).toBigDecimal())
+                .isEqualTo(betAmount.multiply(WINNING_COEF).setScale(Money.SCALE, RoundingMode.HALF_EVEN));
+        }
+    }
+
+    @Test
+    void multiply_ifRandomCoefficients_matchesBigDecimalHalfEvenResult() {
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            BigDecimal betAmount = BigDecimal.valueOf(random.nextInt(10_000_000), Money.SCALE);
+            BigDecimal coefficient = BigDecimal.valueOf(random.nextInt(100_000), random.nextInt(5));
+
+            Money result = Money.of(betAmount).multiply(
+                coefficient.unscaledValue().longValueExact(),
+                BigDecimal.ONE.movePointRight(coefficient.scale()).longValueExact()
+            );
+
+            assertThat(result.toBigDecimal())
+                .isEqualTo(betAmount.multiply(coefficient).setScale(Money.SCALE, RoundingMode.HALF_EVEN));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.05", "0.15", "0.25", "0.35", "1.45"})
+    void multiply_ifResultIsExactlyHalfway_roundsToEven(String amount) {
+        BigDecimal betAmount = new BigDecimal(amount);
+
+        assertThat(Money.of(betAmount).multiply(99, 10).toBigDecimal())
+            .isEqualTo(betAmount.multiply(WINNING_COEF).setScale(Money.SCALE, RoundingMode.HALF_EVEN));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0.01, 0.10", "31, 306.90", "1332.13, 13188.09"})
+    void multiply_ifResultNotHalfway_roundsToNearestOrKeepsExactValue(String amount, String expected) {
+        assertThat(Money.of(new BigDecimal(amount)).multiply(99, 10).toBigDecimal()).isEqualTo(new BigDecimal(expected));
+    }
+
+    @Test
+    void of_ifAmountHasMoreThanTwoDecimals_throwsException() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1.001")))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void of_ifAmountHasFewerDecimals_keepsValue() {
+        assertThat(Money.of(new BigDecimal("31")).getMinorUnits()).isEqualTo(3100);
+        assertThat(Money.of(new BigDecimal("6.5")).getMinorUnits()).isEqualTo(650);
+    }
+
+    @Test
+    void serialization_ifSerializedToJson_writtenAsDecimalNumber() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertThat(objectMapper.writeValueAsString(Money.ofMinorUnits(30690))).isEqualTo("306.90");
+        assertThat(objectMapper.readValue("306.9", Money.class)).isEqualTo(Money.ofMinorUnits(30690));
+    }
+}
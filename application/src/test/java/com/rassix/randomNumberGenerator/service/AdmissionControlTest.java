@@ -0,0 +1,163 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.constant.AdmissionResult;
+import com.rassix.randomNumberGenerator.service.dto.Admission;
+import com.rassix.randomNumberGenerator.service.dto.AdmissionLimits;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlTest {
+
+    @Mock
+    private Clock clock;
+
+    private final GameMetrics gameMetrics = new GameMetrics();
+
+    private Instant now = Instant.parse("2021-03-01T12:00:00Z");
+    private AdmissionControl admissionControl;
+
+    @BeforeEach
+    void setup() {
+        when(clock.instant()).thenAnswer(invocation -> now);
+        admissionControl = new AdmissionControl(clock, gameMetrics, 2, 3, 0, 1, 100);
+    }
+
+    @Test
+    void admit_ifPlayerUsedUpBurst_shedUntilNextToken() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(placed(admissionControl.admit("dave", null)).isAdmitted()).isTrue();
+        }
+
+        Admission shed = admissionControl.admit("dave", null);
+
+        assertThat(shed.getResult()).isEqualTo(AdmissionResult.PLAYER_RATE_LIMITED);
+        assertThat(shed.getRetryAfter()).isEqualTo(Duration.ofMillis(500));
+        assertThat(admissionControl.admit("lucy", null).isAdmitted()).isTrue();
+        assertThat(gameMetrics.getCount("admission.shed.player-rate-limited")).isEqualTo(1);
+    }
+
+    @Test
+    void admit_ifPlayerWaitedForToken_admittedAgain() {
+        for (int i = 0; i < 3; i++) {
+            placed(admissionControl.admit("dave", null));
+        }
+        now = now.plusMillis(499);
+        assertThat(admissionControl.admit("dave", null).isAdmitted()).isFalse();
+
+        now = now.plusMillis(1);
+
+        assertThat(placed(admissionControl.admit("dave", null)).isAdmitted()).isTrue();
+        assertThat(admissionControl.admit("dave", null).isAdmitted()).isFalse();
+    }
+
+    @Test
+    void admit_ifAddressOverLimit_shedForEveryPlayerOfAddress() {
+        admissionControl.setLimits(new AdmissionLimits(0.0, 1, 1.0, 2, 100));
+
+        placed(admissionControl.admit("dave", "10.0.0.1"));
+        placed(admissionControl.admit("lucy", "10.0.0.1"));
+        Admission shed = admissionControl.admit("mike", "10.0.0.1");
+
+        assertThat(shed.getResult()).isEqualTo(AdmissionResult.ADDRESS_RATE_LIMITED);
+        assertThat(shed.getRetryAfter()).isEqualTo(Duration.ofSeconds(1));
+        assertThat(admissionControl.admit("mike", "10.0.0.2").isAdmitted()).isTrue();
+        assertThat(gameMetrics.getCount("admission.shed.address-rate-limited")).isEqualTo(1);
+    }
+
+    @Test
+    void admit_ifTooManyBetsInProgress_shedUntilOneIsPlaced() {
+        admissionControl.setLimits(new AdmissionLimits(0.0, 1, 0.0, 1, 2));
+        CompletableFuture<Void> firstBet = new CompletableFuture<>();
+
+        admissionControl.admit("dave", null);
+        admissionControl.placeAdmitted(() -> firstBet);
+        admissionControl.admit("lucy", null);
+        Admission shed = admissionControl.admit("mike", null);
+
+        assertThat(shed.getResult()).isEqualTo(AdmissionResult.OVERLOADED);
+        assertThat(shed.getRetryAfter()).isEqualTo(Duration.ofSeconds(1));
+        assertThat(gameMetrics.snapshot()).containsEntry("admission.bets-in-progress", 2);
+
+        firstBet.complete(null);
+
+        assertThat(admissionControl.admit("mike", null).isAdmitted()).isTrue();
+        assertThat(gameMetrics.getCount("admission.shed.overloaded")).isEqualTo(1);
+    }
+
+    @Test
+    void admit_ifOverloadedWhenPlayerBets_playerAdmittedOnceOverloadClears() {
+        admissionControl.setLimits(new AdmissionLimits(2.0, 1, 0.0, 1, 1));
+        CompletableFuture<Void> firstBet = new CompletableFuture<>();
+
+        admissionControl.admit("dave", null);
+        admissionControl.placeAdmitted(() -> firstBet);
+        assertThat(admissionControl.admit("lucy", null).getResult()).isEqualTo(AdmissionResult.OVERLOADED);
+
+        firstBet.complete(null);
+
+        assertThat(admissionControl.admit("lucy", null).isAdmitted()).isTrue();
+    }
+
+    @Test
+    void admit_ifAddressOverLimit_playerTokenGivenBack() {
+        admissionControl.setLimits(new AdmissionLimits(2.0, 1, 1.0, 1, 100));
+
+        placed(admissionControl.admit("dave", "10.0.0.1"));
+        assertThat(admissionControl.admit("lucy", "10.0.0.1").getResult()).isEqualTo(AdmissionResult.ADDRESS_RATE_LIMITED);
+
+        assertThat(placed(admissionControl.admit("lucy", "10.0.0.2")).isAdmitted()).isTrue();
+        assertThat(gameMetrics.snapshot()).containsEntry("admission.bets-in-progress", 0);
+    }
+
+    @Test
+    void placeAdmitted_ifPlacingThrows_placeGivenBack() {
+        admissionControl.setLimits(new AdmissionLimits(0.0, 1, 0.0, 1, 1));
+
+        admissionControl.admit("dave", null);
+        assertThatThrownBy(() -> admissionControl.placeAdmitted(() -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(admissionControl.admit("dave", null).isAdmitted()).isTrue();
+    }
+
+    @Test
+    void setLimits_ifRaisedWhileRunning_nextBetAdmitted() {
+        for (int i = 0; i < 3; i++) {
+            placed(admissionControl.admit("dave", null));
+        }
+        assertThat(admissionControl.admit("dave", null).isAdmitted()).isFalse();
+
+        admissionControl.setLimits(new AdmissionLimits(2.0, 10, 0.0, 1, 100));
+
+        assertThat(admissionControl.admit("dave", null).isAdmitted()).isTrue();
+        assertThat(admissionControl.getLimits().getPlayerBurst()).isEqualTo(10);
+    }
+
+    @Test
+    void setLimits_ifBurstBelowOne_rejected() {
+        assertThatThrownBy(() -> admissionControl.setLimits(new AdmissionLimits(2.0, 0, 0.0, 1, 100)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(admissionControl.getLimits().getPlayerBurst()).isEqualTo(3);
+    }
+
+    private Admission placed(Admission admission) {
+        if (admission.isAdmitted()) {
+            admissionControl.placeAdmitted(() -> CompletableFuture.completedFuture(null));
+        }
+        return admission;
+    }
+}
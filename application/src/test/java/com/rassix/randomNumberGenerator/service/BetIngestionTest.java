@@ -0,0 +1,111 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.constant.WaitStrategyType;
+import com.rassix.randomNumberGenerator.repository.GameRepository;
+import com.rassix.randomNumberGenerator.repository.model.Game.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BetIngestionTest {
+
+    private static final Player PLAYER = Player.builder().guessedNumber(3).build();
+
+    @Mock
+    private GameRepository gameRepository;
+
+    private final GameMetrics gameMetrics = new GameMetrics();
+
+    private BetIngestion betIngestion;
+
+    @AfterEach
+    void shutdown() {
+        betIngestion.shutdown();
+    }
+
+    @Test
+    void submit_ifNoWriters_betsAddedOnSubmittingThread() {
+        betIngestion = new BetIngestion(gameRepository, gameMetrics, 16, 0, WaitStrategyType.BLOCKING);
+        when(gameRepository.addPlayer("game-1", "dave", PLAYER)).thenReturn(BetResult.ACCEPTED);
+        when(gameRepository.addPlayer("game-1", "lucy", PLAYER)).thenReturn(BetResult.PLAYER_EXISTS);
+
+        CompletableFuture<List<BetResult>> results = betIngestion.submit("1", "game-1", List.of("dave", "lucy"), List.of(PLAYER, PLAYER));
+
+        assertThat(results).isCompletedWithValue(List.of(BetResult.ACCEPTED, BetResult.PLAYER_EXISTS));
+    }
+
+    @Test
+    void submit_ifTableBetsSubmitted_addedInSubmitOrderByWriter() {
+        betIngestion = new BetIngestion(gameRepository, gameMetrics, 1024, 2, WaitStrategyType.BLOCKING);
+        Queue<String> added = new ConcurrentLinkedQueue<>();
+        when(gameRepository.addPlayer(eq("game-1"), any(), eq(PLAYER))).thenAnswer(invocation -> {
+            added.add(invocation.getArgument(1));
+            return BetResult.ACCEPTED;
+        });
+
+        List<CompletableFuture<List<BetResult>>> results = new ArrayList<>();
+        for (int bet = 0; bet < 200; bet++) {
+            results.add(betIngestion.submit("1", "game-1", List.of("player-" + bet), List.of(PLAYER)));
+        }
+
+        for (CompletableFuture<List<BetResult>> result : results) {
+            assertThat(result.orTimeout(5, TimeUnit.SECONDS).join()).containsExactly(BetResult.ACCEPTED);
+        }
+        for (int bet = 0; bet < 200; bet++) {
+            assertThat(added.poll()).isEqualTo("player-" + bet);
+        }
+    }
+
+    @Test
+    void submit_ifRingFull_betsRejectedWithoutBlockingAndCounted() throws InterruptedException {
+        betIngestion = new BetIngestion(gameRepository, gameMetrics, 2, 1, WaitStrategyType.SLEEPING);
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        when(gameRepository.addPlayer(eq("game-1"), any(), eq(PLAYER))).thenAnswer(invocation -> {
+            writeStarted.countDown();
+            releaseWrite.await(5, TimeUnit.SECONDS);
+            return BetResult.ACCEPTED;
+        });
+
+        CompletableFuture<List<BetResult>> first = betIngestion.submit("1", "game-1", List.of("dave"), List.of(PLAYER));
+        assertThat(writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<List<BetResult>> second = betIngestion.submit("1", "game-1", List.of("lucy"), List.of(PLAYER));
+        CompletableFuture<List<BetResult>> overflow = betIngestion.submit("1", "game-1", List.of("roland", "eddie"), List.of(PLAYER, PLAYER));
+
+        assertThat(overflow).isCompletedWithValue(List.of(BetResult.QUEUE_FULL, BetResult.QUEUE_FULL));
+        assertThat(gameMetrics.snapshot())
+            .containsEntry("bets.ring.overflow", 2L)
+            .containsEntry("bets.ring.backlog", 2L);
+
+        releaseWrite.countDown();
+        assertThat(first.orTimeout(5, TimeUnit.SECONDS).join()).containsExactly(BetResult.ACCEPTED);
+        assertThat(second.orTimeout(5, TimeUnit.SECONDS).join()).containsExactly(BetResult.ACCEPTED);
+    }
+
+    @Test
+    void submit_ifAddingFails_futureCompletedExceptionally() {
+        betIngestion = new BetIngestion(gameRepository, gameMetrics, 16, 1, WaitStrategyType.BLOCKING);
+        when(gameRepository.addPlayer("missing-game", "dave", PLAYER)).thenThrow(new IllegalStateException("boom"));
+
+        CompletableFuture<List<BetResult>> results = betIngestion.submit("1", "missing-game", List.of("dave"), List.of(PLAYER));
+
+        assertThat(results.orTimeout(5, TimeUnit.SECONDS)).failsWithin(5, TimeUnit.SECONDS);
+    }
+}
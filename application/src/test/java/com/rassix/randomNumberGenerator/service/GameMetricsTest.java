@@ -0,0 +1,44 @@
+package com.rassix.randomNumberGenerator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameMetricsTest {
+
+    private GameMetrics gameMetrics = new GameMetrics();
+
+    @Test
+    void snapshot_ifCountersIncremented_containsTheirSums() {
+        gameMetrics.increment("round.skipped");
+        gameMetrics.increment("round.skipped", 4);
+
+        assertThat(gameMetrics.snapshot()).containsEntry("round.skipped", 5L);
+    }
+
+    @Test
+    void snapshot_ifTimesRecorded_containsTimingStatistics() {
+        gameMetrics.recordTime("round.start-drift", Duration.ofMillis(4));
+        gameMetrics.recordTime("round.start-drift", Duration.ofMillis(10));
+        gameMetrics.recordTime("round.start-drift", Duration.ofMillis(1));
+
+        Map<String, Number> snapshot = gameMetrics.snapshot();
+
+        assertThat(snapshot).containsEntry("round.start-drift.count", 3L);
+        assertThat(snapshot).containsEntry("round.start-drift.last-ms", 1L);
+        assertThat(snapshot).containsEntry("round.start-drift.max-ms", 10L);
+        assertThat(snapshot).containsEntry("round.start-drift.mean-ms", 5.0);
+    }
+
+    @Test
+    void snapshot_ifGaugeRegistered_containsCurrentGaugeValue() {
+        int[] value = {1};
+        gameMetrics.registerGauge("players.active", () -> value[0]);
+        value[0] = 7;
+
+        assertThat(gameMetrics.snapshot()).containsEntry("players.active", 7);
+    }
+}
@@ -1,20 +1,33 @@
 package com.rassix.randomNumberGenerator.service;
 
+import com.rassix.randomNumberGenerator.config.BeanConfig;
 import com.rassix.randomNumberGenerator.constant.GamePhase;
+import com.rassix.randomNumberGenerator.service.timer.GameTimer;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.ExecutionException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
-import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class GameSchedulerTest {
@@ -25,26 +38,235 @@ class GameSchedulerTest {
     @Mock
     private GameService gameService;
 
-    @InjectMocks
+    @Mock
+    private GameTimer eventLoop;
+
+    @Mock
+    private TableRegistry tableRegistry;
+
+    private GameTable table;
+
+    private GameMetrics gameMetrics;
+
     private GameScheduler gameScheduler;
 
+    @BeforeEach
+    void setup() {
+        gameMetrics = new GameMetrics();
+        table = new GameTable("1", eventLoop, new Random());
+        gameScheduler = new GameScheduler(
+            numberGenerationService,
+            gameService,
+            tableRegistry,
+            Runnable::run,
+            gameMetrics,
+            Clock.systemUTC(),
+            Duration.ofSeconds(10),
+            Duration.ofMillis(2500),
+            false
+        );
+    }
+
     @Test
-    void initGame_ifRan_runsThroughAllGamePhases() throws InterruptedException, ExecutionException {
+    void start_ifCalled_firstRoundsOfTablesSpreadOverOneRound() {
         Instant now = Instant.now();
-        ArgumentCaptor<Instant> instantCaptor = ArgumentCaptor.forClass(Instant.class);
+        GameTimer otherEventLoop = mock(GameTimer.class);
+        ArgumentCaptor<Instant> firstStartCaptor = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> otherStartCaptor = ArgumentCaptor.forClass(Instant.class);
+
+        when(tableRegistry.getTables()).thenReturn(List.of(table, new GameTable("2", otherEventLoop, new Random())));
+
+        gameScheduler.start();
+
+        verify(eventLoop).schedule(any(Runnable.class), firstStartCaptor.capture());
+        verify(otherEventLoop).schedule(any(Runnable.class), otherStartCaptor.capture());
+        assertThat(firstStartCaptor.getValue()).isBetween(now, Instant.now());
+        assertThat(otherStartCaptor.getValue()).isEqualTo(firstStartCaptor.getValue().plusMillis(6250));
+        verifyNoInteractions(gameService);
+    }
+
+    @Test
+    void startRound_ifMoreTablesCloseBettingAtOnceThanSettlementPoolHolds_everyTableSettled() throws InterruptedException {
+        int tableCount = 10;
+        ExecutorService settlementExecutor = new BeanConfig().settlementExecutor(1, 2, tableCount);
+        gameScheduler = new GameScheduler(
+            numberGenerationService, gameService, tableRegistry, settlementExecutor, gameMetrics, Clock.systemUTC(),
+            Duration.ofSeconds(10), Duration.ofMillis(2500), false
+        );
+        CountDownLatch releaseSettlements = new CountDownLatch(1);
+        CountDownLatch ended = new CountDownLatch(tableCount);
+        Instant roundStart = Instant.now();
+        ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
 
-        when(numberGenerationService.generateNumber()).thenReturn(3);
-        when(gameService.createGame(instantCaptor.capture(), eq(3))).thenReturn("init-game-id");
+        when(numberGenerationService.generateNumber(any())).thenReturn(3);
+        when(gameService.createGame(any(), any(), eq(3))).thenAnswer(invocation -> "game-" + invocation.getArgument(0));
+        doAnswer(invocation -> releaseSettlements.await(5, TimeUnit.SECONDS)).when(gameService).settleGame(any());
+        doAnswer(invocation -> {
+            if (invocation.getArgument(1) == GamePhase.ENDED) {
+                ended.countDown();
+            }
+            return null;
+        }).when(gameService).changeGamePhase(any(), any());
 
-        gameScheduler.initGame();
+        try {
+            for (int i = 1; i <= tableCount; i++) {
+                gameScheduler.startRound(new GameTable(String.valueOf(i), eventLoop, new Random()), roundStart);
+            }
+            verify(eventLoop, times(tableCount)).schedule(taskCaptor.capture(), eq(roundStart.plusSeconds(10)));
+            taskCaptor.getAllValues().forEach(Runnable::run);
+            releaseSettlements.countDown();
 
-        Instant capturedInstant = instantCaptor.getValue();
-        assertThat(capturedInstant).isAfter(now);
+            assertThat(ended.await(5, TimeUnit.SECONDS)).isTrue();
+            verify(gameService, times(tableCount)).settleGame(any());
+        } finally {
+            settlementExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void startRound_ifRan_runsThroughAllGamePhasesWithoutBlocking() {
+        Instant roundStart = Instant.now();
+        ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        when(numberGenerationService.generateNumber(table.getRandom())).thenReturn(3);
+        when(gameService.createGame("1", roundStart.plusSeconds(10), 3)).thenReturn("init-game-id");
+
+        gameScheduler.startRound(table, roundStart);
+
+        verify(eventLoop).schedule(taskCaptor.capture(), eq(roundStart.plusSeconds(10)));
+        verify(gameService, never()).changeGamePhase(any(), any());
+
+        taskCaptor.getValue().run();
+
+        InOrder inOrder = inOrder(gameService, eventLoop);
+        inOrder.verify(gameService).changeGamePhase("init-game-id", GamePhase.RESULTS_PHASE);
+        inOrder.verify(gameService).settleGame("init-game-id");
+        inOrder.verify(gameService).changeGamePhase("init-game-id", GamePhase.ENDED);
+        inOrder.verify(eventLoop).schedule(any(Runnable.class), eq(roundStart.plusMillis(12500)));
+    }
+
+    @Test
+    void startRound_ifSettlementFails_gameStillEndsAndNextRoundScheduled() {
+        Instant roundStart = Instant.now();
+        ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        when(numberGenerationService.generateNumber(table.getRandom())).thenReturn(3);
+        when(gameService.createGame(eq("1"), any(), eq(3))).thenReturn("init-game-id");
+        doThrow(new IllegalStateException("settlement failed")).when(gameService).settleGame("init-game-id");
+
+        gameScheduler.startRound(table, roundStart);
+        verify(eventLoop).schedule(taskCaptor.capture(), any(Instant.class));
+        taskCaptor.getValue().run();
 
-        verify(gameService).changeGamePhase("init-game-id", GamePhase.RESULTS_PHASE);
-        verify(gameService).getUnluckyPlayers("init-game-id");
-        verify(gameService).getWinningPlayers("init-game-id");
         verify(gameService).changeGamePhase("init-game-id", GamePhase.ENDED);
+        verify(eventLoop).schedule(any(Runnable.class), eq(roundStart.plusMillis(12500)));
+    }
+
+    @Test
+    void startRound_ifPreviousRoundFinishedTooLate_nextRoundAlignedToCadence() {
+        Instant roundStart = Instant.now().minus(30, ChronoUnit.SECONDS);
+        ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        when(numberGenerationService.generateNumber(table.getRandom())).thenReturn(3);
+        when(gameService.createGame(eq("1"), any(), eq(3))).thenReturn("init-game-id");
+
+        gameScheduler.startRound(table, roundStart);
+        verify(eventLoop).schedule(taskCaptor.capture(), any(Instant.class));
+        taskCaptor.getValue().run();
+
+        verify(eventLoop).schedule(any(Runnable.class), eq(roundStart.plusMillis(37500)));
+        assertThat(gameMetrics.snapshot()).containsEntry("round.skipped", 2L);
+        assertThat(gameMetrics.snapshot().get("round.start-drift.last-ms").longValue()).isGreaterThanOrEqualTo(30_000L);
+    }
+
+    @Test
+    void startRound_ifPipelined_nextRoundOpensBeforePreviousRoundIsSettled() {
+        Queue<Runnable> settlementTasks = new ArrayDeque<>();
+        gameScheduler = new GameScheduler(
+            numberGenerationService, gameService, tableRegistry, settlementTasks::add, gameMetrics, Clock.systemUTC(),
+            Duration.ofSeconds(10), Duration.ofMillis(2500), true
+        );
+        Instant roundStart = Instant.now();
+        ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        when(numberGenerationService.generateNumber(table.getRandom())).thenReturn(3);
+        when(gameService.createGame(eq("1"), any(), eq(3))).thenReturn("game-1", "game-2");
+
+        gameScheduler.startRound(table, roundStart);
+        verify(eventLoop).schedule(taskCaptor.capture(), eq(roundStart.plusSeconds(10)));
+        taskCaptor.getValue().run();
+
+        verify(gameService).changeGamePhase("game-1", GamePhase.RESULTS_PHASE);
+        verify(eventLoop, times(2)).schedule(taskCaptor.capture(), eq(roundStart.plusSeconds(10)));
+        verify(gameService, never()).settleGame(any());
+
+        taskCaptor.getValue().run();
+        verify(gameService).createGame("1", roundStart.plusSeconds(20), 3);
+        verify(gameService, never()).changeGamePhase("game-1", GamePhase.ENDED);
+
+        settlementTasks.poll().run();
+        verify(gameService).settleGame("game-1");
+        verify(gameService).changeGamePhase("game-1", GamePhase.ENDED);
+        verify(eventLoop, times(3)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void startRound_ifPipelinedAndBothPhaseChangesFail_nextRoundStillScheduled() {
+        gameScheduler = new GameScheduler(
+            numberGenerationService, gameService, tableRegistry, Runnable::run, gameMetrics, Clock.systemUTC(),
+            Duration.ofSeconds(10), Duration.ofMillis(2500), true
+        );
+        Instant roundStart = Instant.now();
+        ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        when(numberGenerationService.generateNumber(table.getRandom())).thenReturn(3);
+        when(gameService.createGame(eq("1"), any(), eq(3))).thenReturn("game-1", "game-2");
+        doThrow(new IllegalStateException("game store failed")).when(gameService).changeGamePhase(eq("game-1"), any());
+
+        gameScheduler.startRound(table, roundStart);
+        verify(eventLoop).schedule(taskCaptor.capture(), eq(roundStart.plusSeconds(10)));
+        assertThatThrownBy(() -> taskCaptor.getValue().run()).isInstanceOf(IllegalStateException.class);
+
+        verify(gameService).changeGamePhase("game-1", GamePhase.RESULTS_PHASE);
+        verify(gameService).changeGamePhase("game-1", GamePhase.ENDED);
+        verify(gameService, never()).settleGame(any());
+        verify(eventLoop, times(2)).schedule(taskCaptor.capture(), eq(roundStart.plusSeconds(10)));
+
+        taskCaptor.getValue().run();
+        verify(gameService).createGame("1", roundStart.plusSeconds(20), 3);
+    }
+
+    @Test
+    void startRound_ifPipelinedAndPreviousSettlementRunning_settlementsRunInRoundOrder() {
+        Queue<Runnable> settlementTasks = new ArrayDeque<>();
+        gameScheduler = new GameScheduler(
+            numberGenerationService, gameService, tableRegistry, settlementTasks::add, gameMetrics, Clock.systemUTC(),
+            Duration.ofSeconds(10), Duration.ofMillis(2500), true
+        );
+        Instant roundStart = Instant.now();
+        ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        when(numberGenerationService.generateNumber(table.getRandom())).thenReturn(3);
+        when(gameService.createGame(eq("1"), any(), eq(3))).thenReturn("game-1", "game-2");
+
+        gameScheduler.startRound(table, roundStart);
+        verify(eventLoop).schedule(taskCaptor.capture(), any(Instant.class));
+        taskCaptor.getValue().run();
+        verify(eventLoop, times(2)).schedule(taskCaptor.capture(), any(Instant.class));
+        taskCaptor.getValue().run();
+        verify(eventLoop, times(3)).schedule(taskCaptor.capture(), any(Instant.class));
+        taskCaptor.getValue().run();
+
+        assertThat(settlementTasks).hasSize(1);
+        settlementTasks.poll().run();
+        assertThat(settlementTasks).hasSize(1);
+        settlementTasks.poll().run();
+
+        InOrder inOrder = inOrder(gameService);
+        inOrder.verify(gameService).settleGame("game-1");
+        inOrder.verify(gameService).changeGamePhase("game-1", GamePhase.ENDED);
+        inOrder.verify(gameService).settleGame("game-2");
+        inOrder.verify(gameService).changeGamePhase("game-2", GamePhase.ENDED);
     }
 
-}
\ No newline at end of file
+}
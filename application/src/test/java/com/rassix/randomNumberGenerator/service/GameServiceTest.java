@@ -1,25 +1,28 @@
 package com.rassix.randomNumberGenerator.service;
 
+import com.rassix.randomNumberGenerator.constant.BetResult;
 import com.rassix.randomNumberGenerator.constant.GamePhase;
+import com.rassix.randomNumberGenerator.constant.WaitStrategyType;
 import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
-import com.rassix.randomNumberGenerator.exception.PlayerExistsException;
 import com.rassix.randomNumberGenerator.repository.GameRepository;
 import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.repository.model.Money;
 import com.rassix.randomNumberGenerator.service.dto.Notification;
+import com.rassix.randomNumberGenerator.service.dto.WinnerListing;
 import com.rassix.randomNumberGenerator.service.dto.WinningPlayer;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -31,14 +34,19 @@ import static org.mockito.Mockito.*;
 class GameServiceTest {
 
     @Mock
-    private NotificationService notificationService;
+    private NotificationPublisher notificationPublisher;
 
     @Mock
     private GameRepository gameRepository;
 
-    @InjectMocks
     private GameService gameService;
 
+    @BeforeEach
+    void setup() {
+        BetIngestion betIngestion = new BetIngestion(gameRepository, mock(GameMetrics.class), 16, 0, WaitStrategyType.BLOCKING);
+        gameService = new GameService(notificationPublisher, betIngestion, gameRepository, 2);
+    }
+
     @Test
     void createGame_ifGameIsCreated_returnsGameId() {
         Instant bettingEndTime = Instant.now().plus(20, ChronoUnit.SECONDS);
@@ -48,11 +56,12 @@ class GameServiceTest {
 
         when(gameRepository.createGame(captor.capture())).thenReturn("random-game-id");
 
-        String gameId = gameService.createGame(bettingEndTime, winningNumber);
+        String gameId = gameService.createGame("1", bettingEndTime, winningNumber);
 
         Game capturedGame = captor.getValue();
 
         Game expectedCapture = builder()
+            .tableId("1")
             .betEndingTime(bettingEndTime)
             .winningNumber(5)
             .gamePhase(GamePhase.BETTING_PHASE)
@@ -60,16 +69,19 @@ class GameServiceTest {
 
         assertThat(capturedGame).usingRecursiveComparison().isEqualTo(expectedCapture);
         assertThat(gameId).isEqualTo("random-game-id");
+        verify(notificationPublisher).notifyNewGameStart("1", "random-game-id", bettingEndTime);
     }
 
     @Test
     void changeGamePhase_ifNewPhaseResultsPhase_MessageSentOut() {
         String gameId = "random-game-id";
 
+        when(gameRepository.getGame(gameId)).thenReturn(builder().tableId("1").build());
+
         gameService.changeGamePhase(gameId, GamePhase.RESULTS_PHASE);
 
         verify(gameRepository).changeGamePhase("random-game-id", GamePhase.RESULTS_PHASE);
-        verify(notificationService).notifyBettingEnd();
+        verify(notificationPublisher).notifyBettingEnd("1");
     }
 
     @ParameterizedTest
@@ -83,7 +95,7 @@ class GameServiceTest {
         gameService.changeGamePhase(gameId, gamePhase);
 
         verify(gameRepository).changeGamePhase("random-game-id", gamePhase);
-        verify(notificationService, never()).notifyBettingEnd();
+        verify(notificationPublisher, never()).notifyBettingEnd(any());
     }
 
     @Test
@@ -95,7 +107,7 @@ class GameServiceTest {
             .gamePhase(GamePhase.ENDED)
             .winningNumber(2)
             .betEndingTime(betEndTime)
-            .players(Map.of("Dave", Player.builder().betAmount(new BigDecimal("4")).guessedNumber(4).build()))
+            .players(Map.of("Dave", Player.builder().betAmount(Money.of(new BigDecimal("4"))).guessedNumber(4).build()))
             .build();
 
         when(gameRepository.getGame(gameId)).thenReturn(
@@ -103,7 +115,7 @@ class GameServiceTest {
                 .gamePhase(GamePhase.ENDED)
                 .winningNumber(2)
                 .betEndingTime(betEndTime)
-                .players(Map.of("Dave", Player.builder().betAmount(new BigDecimal("4")).guessedNumber(4).build()))
+                .players(Map.of("Dave", Player.builder().betAmount(Money.of(new BigDecimal("4"))).guessedNumber(4).build()))
                 .build()
         );
 
@@ -114,7 +126,7 @@ class GameServiceTest {
     }
 
     @Test
-    void addPlayer_playerIsAdded_ifMethodIsCalled() throws PlayerExistsException {
+    void addPlayer_playerIsAdded_ifMethodIsCalled() {
         String gameId = "still-random-game-id";
         AddPlayerRequest addPlayerRequest = AddPlayerRequest.builder()
             .guessedNumber(4)
@@ -122,38 +134,66 @@ class GameServiceTest {
             .username("Dave")
             .build();
 
-        gameService.addPlayer(gameId, addPlayerRequest);
+        when(gameRepository.getGame(gameId)).thenReturn(builder().tableId("1").build());
+        when(gameRepository.addPlayer(eq(gameId), eq("Dave"), any())).thenReturn(BetResult.ACCEPTED);
+
+        assertThat(gameService.addPlayer(gameId, addPlayerRequest)).isCompletedWithValue(BetResult.ACCEPTED);
 
         ArgumentCaptor<Player> playerCaptor = ArgumentCaptor.forClass(Player.class);
 
         verify(gameRepository).addPlayer(eq(gameId), eq("Dave"), playerCaptor.capture());
 
-        Player expectedResult = Player.builder().betAmount(new BigDecimal("6.53")).guessedNumber(4).build();
+        Player expectedResult = Player.builder().betAmount(Money.of(new BigDecimal("6.53"))).guessedNumber(4).build();
 
         assertThat(playerCaptor.getValue()).usingRecursiveComparison().isEqualTo(expectedResult);
     }
 
     @Test
-    void getActiveGame_ifActiveGameExists_returnsDetailsAboutIt() {
-        String game1Id = "game1Id";
-        Instant game1BettingEndTime = Instant.now().minus(20, ChronoUnit.MINUTES);
-        Game game1 = Game.builder().gamePhase(GamePhase.ENDED).betEndingTime(game1BettingEndTime).build();
+    void addPlayer_ifPlayerAlreadyBet_rejectedWithoutReachingTheBetWriter() {
+        String gameId = "still-random-game-id";
+        Game game = builder().tableId("1").build();
+        game.addPlayer("Dave", Player.builder().guessedNumber(4).betAmount(Money.of(new BigDecimal("6.53"))).build());
 
-        String game2Id = "game2Id";
-        Instant game2BettingEndTime = Instant.now().minus(5, ChronoUnit.MINUTES);
-        Game game2 = Game.builder().gamePhase(GamePhase.ENDED).betEndingTime(game2BettingEndTime).build();
+        when(gameRepository.getGame(gameId)).thenReturn(game);
 
-        String game3Id = "game3Id";
-        Instant game3BettingEndTime = Instant.now().plus(10, ChronoUnit.SECONDS);
-        Game game3 = Game.builder().gamePhase(GamePhase.BETTING_PHASE).betEndingTime(game3BettingEndTime).build();
+        assertThat(gameService.addPlayer(gameId, AddPlayerRequest.builder().username("Dave").guessedNumber(3).bid(BigDecimal.ONE).build()))
+            .isCompletedWithValue(BetResult.PLAYER_EXISTS);
+        verify(gameRepository, never()).addPlayer(any(), any(), any());
+    }
 
-        Map<String, Game> allGames = Map.of(game1Id, game1, game2Id, game2, game3Id, game3);
+    @Test
+    void addPlayers_ifPlayerAlreadyBet_onlyTheOtherPlayersAdded() {
+        String gameId = "still-random-game-id";
+        Game game = builder().tableId("1").build();
+        game.addPlayer("Dave", Player.builder().guessedNumber(4).betAmount(Money.of(new BigDecimal("6.53"))).build());
 
-        when(gameRepository.getAllGames()).thenReturn(allGames);
+        when(gameRepository.getGame(gameId)).thenReturn(game);
+        when(gameRepository.addPlayer(eq(gameId), any(), any()))
+            .thenAnswer(invocation -> game.addPlayer(invocation.getArgument(1), invocation.getArgument(2)));
+
+        List<BetResult> results = gameService.addPlayers(gameId, List.of(
+            AddPlayerRequest.builder().username("Lucy").guessedNumber(2).bid(new BigDecimal("1")).build(),
+            AddPlayerRequest.builder().username("Dave").guessedNumber(3).bid(new BigDecimal("2")).build(),
+            AddPlayerRequest.builder().username("Lucy").guessedNumber(5).bid(new BigDecimal("3")).build()
+        )).join();
+
+        assertThat(results).containsExactly(BetResult.ACCEPTED, BetResult.PLAYER_EXISTS, BetResult.PLAYER_EXISTS);
+        assertThat(game.getPlayers()).containsOnlyKeys("Dave", "Lucy");
+        assertThat(game.getPlayersWhoGuessed(2)).containsOnlyKeys("Lucy");
+        assertThat(game.getPlayersWhoGuessed(3)).isEmpty();
+        verify(gameRepository).getGame(gameId);
+    }
 
-        Map.Entry<String, Game> activeGame = gameService.getActiveGame();
+    @Test
+    void getActiveGame_ifActiveGameExists_returnsDetailsAboutIt() {
+        Instant bettingEndTime = Instant.now().plus(10, ChronoUnit.SECONDS);
+        Game game = Game.builder().gamePhase(GamePhase.BETTING_PHASE).betEndingTime(bettingEndTime).build();
 
-        Game expectedObject = builder().gamePhase(GamePhase.BETTING_PHASE).betEndingTime(game3BettingEndTime).build();
+        when(gameRepository.getActiveGame("1")).thenReturn(Map.entry("game3Id", game));
+
+        Map.Entry<String, Game> activeGame = gameService.getActiveGame("1");
+
+        Game expectedObject = builder().gamePhase(GamePhase.BETTING_PHASE).betEndingTime(bettingEndTime).build();
 
         assertThat(activeGame.getKey()).isEqualTo("game3Id");
         assertThat(activeGame.getValue()).usingRecursiveComparison().isEqualTo(expectedObject);
@@ -161,134 +201,150 @@ class GameServiceTest {
 
     @Test
     void getActiveGame_ifActiveGameDoesntExist_returnNull() {
-        String game1Id = "game1Id";
-        Instant game1BettingEndTime = Instant.now().minus(20, ChronoUnit.MINUTES);
-        Game game1 = Game.builder().gamePhase(GamePhase.ENDED).betEndingTime(game1BettingEndTime).build();
-
-        String game2Id = "game2Id";
-        Instant game2BettingEndTime = Instant.now().minus(10, ChronoUnit.MINUTES);
-        Game game2 = Game.builder().gamePhase(GamePhase.ENDED).betEndingTime(game2BettingEndTime).build();
-
-        String game3Id = "game3Id";
-        Instant game3BettingEndTime = Instant.now().minus(5, ChronoUnit.MINUTES);
-        Game game3 = Game.builder().gamePhase(GamePhase.ENDED).betEndingTime(game3BettingEndTime).build();
+        when(gameRepository.getActiveGame("1")).thenReturn(null);
 
-        Map<String, Game> allGames = Map.of(game1Id, game1, game2Id, game2, game3Id, game3);
-
-        when(gameRepository.getAllGames()).thenReturn(allGames);
-
-        Map.Entry<String, Game> activeGame = gameService.getActiveGame();
+        Map.Entry<String, Game> activeGame = gameService.getActiveGame("1");
 
         assertThat(activeGame).isNull();
     }
 
     @Test
-    void getWinningPlayers_ifMethodCalled_returnsWinnersAndTheirWinningAmount() {
+    void settleGame_ifMethodCalled_ensureAllWinnersGetNotifiedAndResultsSentToAll() {
         String gameId = "testing-id";
 
         Game game = builder()
+            .tableId("1")
             .betEndingTime(Instant.now().minus(50, ChronoUnit.SECONDS))
             .gamePhase(GamePhase.RESULTS_PHASE)
             .winningNumber(5)
-            .players(buildPlayerBase())
             .build();
+        addPlayerBase(game);
 
         when(gameRepository.getGame(gameId)).thenReturn(game);
 
-        List<WinningPlayer> winningPlayers = gameService.getWinningPlayers(gameId);
+        gameService.settleGame(gameId);
+
+        WinningPlayer winningPlayer1 = WinningPlayer.builder()
+            .name("Lucy")
+            .wonAmount(Money.of(new BigDecimal("13188.09")))
+            .build();
+
+        WinningPlayer winningPlayer2 = WinningPlayer.builder()
+            .name("Gilead")
+            .wonAmount(Money.of(new BigDecimal("336.60")))
+            .build();
+
+        ArgumentCaptor<Notification> lucyCaptor = ArgumentCaptor.forClass(Notification.class);
+        ArgumentCaptor<Notification> gileadCaptor = ArgumentCaptor.forClass(Notification.class);
+        ArgumentCaptor<Notification> globalMessageCaptor = ArgumentCaptor.forClass(Notification.class);
 
-        assertThat(winningPlayers).hasSize(2);
+        verify(notificationPublisher).sendMessageToPlayer(eq("1"), eq("Lucy"), lucyCaptor.capture());
+        verify(notificationPublisher).sendMessageToPlayer(eq("1"), eq("Gilead"), gileadCaptor.capture());
+        verify(notificationPublisher).sendGlobalMessage(eq("1"), globalMessageCaptor.capture());
+
+        assertThat(lucyCaptor.getValue())
+            .usingRecursiveComparison()
+            .isEqualTo(Notification.builder().messageCode("WIN_NOTIFICATION").messagePayload(winningPlayer1).build());
 
-        WinningPlayer expectedWin1 = WinningPlayer.builder().name("Lucy").wonAmount(new BigDecimal("13188.10")).build();
-        WinningPlayer expectedWin2 = WinningPlayer.builder().name("Gilead").wonAmount(new BigDecimal("336.60")).build();
+        assertThat(gileadCaptor.getValue())
+            .usingRecursiveComparison()
+            .isEqualTo(Notification.builder().messageCode("WIN_NOTIFICATION").messagePayload(winningPlayer2).build());
 
-        assertThat(winningPlayers.get(0)).usingRecursiveComparison().isEqualTo(expectedWin1);
-        assertThat(winningPlayers.get(1)).usingRecursiveComparison().isEqualTo(expectedWin2);
+        assertThat(globalMessageCaptor.getValue().getMessageCode()).isEqualTo("WINNER_LISTING");
+        assertThat(globalMessageCaptor.getValue().getMessagePayload())
+            .usingRecursiveComparison()
+            .isEqualTo(WinnerListing.builder()
+                .gameId(gameId)
+                .topWinners(List.of(winningPlayer1, winningPlayer2))
+                .winnerCount(2)
+                .totalWonAmount(Money.of(new BigDecimal("13524.69")))
+                .build());
     }
 
     @Test
-    void getUnluckyPlayers_ifCalled_returnsListOfNamesWhoDidntWin() {
+    void settleGame_ifMoreWinnersThanListingSize_onlyBiggestWinsBroadcastAndAllWinnersKept() {
         String gameId = "testing-id";
 
         Game game = builder()
+            .tableId("1")
             .betEndingTime(Instant.now().minus(50, ChronoUnit.SECONDS))
             .gamePhase(GamePhase.RESULTS_PHASE)
             .winningNumber(5)
-            .players(buildPlayerBase())
             .build();
+        addPlayerBase(game);
+        game.addPlayer("Eddie", Player.builder().guessedNumber(5).betAmount(Money.of(new BigDecimal("100"))).build());
+        game.addPlayer("Susannah", Player.builder().guessedNumber(5).betAmount(Money.of(new BigDecimal("1"))).build());
 
         when(gameRepository.getGame(gameId)).thenReturn(game);
 
-        List<String> unluckyPlayers = gameService.getUnluckyPlayers(gameId);
+        gameService.settleGame(gameId);
 
-        assertThat(unluckyPlayers).containsExactlyInAnyOrder("Arthur", "Roland", "Lilith");
+        ArgumentCaptor<Notification> globalMessageCaptor = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationPublisher).sendGlobalMessage(eq("1"), globalMessageCaptor.capture());
+
+        WinnerListing winnerListing = (WinnerListing) globalMessageCaptor.getValue().getMessagePayload();
+        assertThat(winnerListing.getTopWinners()).extracting(WinningPlayer::getName).containsExactly("Lucy", "Eddie");
+        assertThat(winnerListing.getWinnerCount()).isEqualTo(4);
+        assertThat(winnerListing.getTotalWonAmount()).isEqualTo(Money.of(new BigDecimal("14524.59")));
+        assertThat(game.getWinners()).extracting(WinningPlayer::getName)
+            .containsExactlyInAnyOrder("Lucy", "Gilead", "Eddie", "Susannah");
     }
 
     @Test
-    void notifyOfWinners_ifMethodCalled_ensureAllWinnersGetNotifiedAndResultsSentToAll() {
-        WinningPlayer winningPlayer1 = WinningPlayer.builder()
-            .name("Lucy")
-            .wonAmount(new BigDecimal("13188.10"))
-            .build();
+    void settleGame_ifMethodCalled_lossMessageIsSentToPlayersWhoDidntWin() {
+        String gameId = "testing-id";
 
-        WinningPlayer winningPlayer2 = WinningPlayer.builder()
-            .name("Gilead")
-            .wonAmount(new BigDecimal("336.60"))
+        Game game = builder()
+            .tableId("1")
+            .betEndingTime(Instant.now().minus(50, ChronoUnit.SECONDS))
+            .gamePhase(GamePhase.RESULTS_PHASE)
+            .winningNumber(5)
             .build();
-        List<WinningPlayer> winnersList = List.of(winningPlayer1, winningPlayer2);
+        addPlayerBase(game);
 
-        gameService.notifyOfWinners(winnersList);
-
-        ArgumentCaptor<Notification> lucyCaptor = ArgumentCaptor.forClass(Notification.class);
-        ArgumentCaptor<Notification> gileadCaptor = ArgumentCaptor.forClass(Notification.class);
-        ArgumentCaptor<Notification> globalMessageCaptor = ArgumentCaptor.forClass(Notification.class);
+        when(gameRepository.getGame(gameId)).thenReturn(game);
 
-        verify(notificationService).sendMessageToPlayer(eq("Lucy"), lucyCaptor.capture());
-        verify(notificationService).sendMessageToPlayer(eq("Gilead"), gileadCaptor.capture());
-        verify(notificationService).sendGlobalMessage(globalMessageCaptor.capture());
+        gameService.settleGame(gameId);
 
-        assertThat(lucyCaptor.getValue())
-            .usingRecursiveComparison()
-            .isEqualTo(Notification.builder().messageCode("WIN_NOTIFICATION").messagePayload(winningPlayer1).build());
+        ArgumentCaptor<Notification> notificationCaptor = ArgumentCaptor.forClass(Notification.class);
+        ArgumentCaptor<Collection<String>> namesCaptor = ArgumentCaptor.forClass(Collection.class);
 
-        assertThat(gileadCaptor.getValue())
-            .usingRecursiveComparison()
-            .isEqualTo(Notification.builder().messageCode("WIN_NOTIFICATION").messagePayload(winningPlayer2).build());
+        verify(notificationPublisher).sendMessageToPlayers(eq("1"), namesCaptor.capture(), notificationCaptor.capture());
+        verify(notificationPublisher, times(2)).sendMessageToPlayer(any(), any(), any());
 
-        assertThat(globalMessageCaptor.getValue())
-            .usingRecursiveComparison()
-            .isEqualTo(Notification.builder().messageCode("WINNER_LISTING").messagePayload(winnersList).build());
+        assertThat(namesCaptor.getValue()).containsExactlyInAnyOrder("Arthur", "Roland", "Lilith");
+        assertThat(notificationCaptor.getValue().getMessageCode()).isEqualTo("LOSS_NOTIFICATION");
+        assertThat(notificationCaptor.getValue().getMessagePayload()).isNull();
     }
 
     @Test
-    void notifyLoss_ifMethodCalled_messageIsSentToPeopleInList() {
-        List<String> notWinNames = List.of("Arthur", "Roland", "Lilith");
-        gameService.notifyLoss(notWinNames);
+    void settleGame_ifNobodyWon_winnerListingNotSent() {
+        String gameId = "testing-id";
 
-        ArgumentCaptor<Notification> notificationCaptor = ArgumentCaptor.forClass(Notification.class);
-        ArgumentCaptor<String> nameCaptor = ArgumentCaptor.forClass(String.class);
+        Game game = builder()
+            .tableId("1")
+            .betEndingTime(Instant.now().minus(50, ChronoUnit.SECONDS))
+            .gamePhase(GamePhase.RESULTS_PHASE)
+            .winningNumber(9)
+            .build();
+        addPlayerBase(game);
 
-        verify(notificationService, times(3))
-            .sendMessageToPlayer(nameCaptor.capture(), notificationCaptor.capture());
+        when(gameRepository.getGame(gameId)).thenReturn(game);
 
-        List<String> capturedNames = nameCaptor.getAllValues();
-        List<Notification> capturedNotifications = notificationCaptor.getAllValues();
+        gameService.settleGame(gameId);
 
-        assertThat(capturedNames).containsExactlyInAnyOrder("Arthur", "Roland", "Lilith");
-        assertThat(capturedNotifications).extracting(x -> x.getMessageCode()).containsOnly("LOSS_NOTIFICATION");
-        assertThat(capturedNotifications).extracting(x -> x.getMessagePayload()).containsNull();
+        verify(notificationPublisher, never()).sendMessageToPlayer(any(), any(), any());
+        verify(notificationPublisher).sendMessageToPlayers(eq("1"), argThat(names -> names.size() == 5), any());
+        verify(notificationPublisher, never()).sendGlobalMessage(any(), any());
+        assertThat(game.getWinners()).isEmpty();
     }
 
-    private Map<String, Player> buildPlayerBase() {
-        HashMap<String, Player> players = new HashMap<>();
-
-        players.put("Arthur", Player.builder().guessedNumber(2).betAmount(new BigDecimal(233.4)).build());
-        players.put("Gilead", Player.builder().guessedNumber(5).betAmount(new BigDecimal(34)).build());
-        players.put("Roland", Player.builder().guessedNumber(1).betAmount(new BigDecimal(42.09)).build());
-        players.put("Lucy", Player.builder().guessedNumber(5).betAmount(new BigDecimal(1332.131113)).build());
-        players.put("Lilith", Player.builder().guessedNumber(3).betAmount(new BigDecimal(5)).build());
-
-        return players;
+    private void addPlayerBase(Game game) {
+        game.addPlayer("Arthur", Player.builder().guessedNumber(2).betAmount(Money.of(new BigDecimal("233.40"))).build());
+        game.addPlayer("Gilead", Player.builder().guessedNumber(5).betAmount(Money.of(new BigDecimal("34"))).build());
+        game.addPlayer("Roland", Player.builder().guessedNumber(1).betAmount(Money.of(new BigDecimal("42.09"))).build());
+        game.addPlayer("Lucy", Player.builder().guessedNumber(5).betAmount(Money.of(new BigDecimal("1332.13"))).build());
+        game.addPlayer("Lilith", Player.builder().guessedNumber(3).betAmount(Money.of(new BigDecimal("5"))).build());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.constant.BetResult;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
+import com.rassix.randomNumberGenerator.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyCacheTest {
+
+    private static final AddPlayerRequest DAVE = new AddPlayerRequest("dave", 3, new BigDecimal("31"));
+
+    @Mock
+    private Clock clock;
+
+    private final GameMetrics gameMetrics = new GameMetrics();
+    private final AtomicInteger betsPlaced = new AtomicInteger();
+
+    private Instant now = Instant.parse("2021-03-01T12:00:00Z");
+    private IdempotencyCache idempotencyCache;
+
+    @BeforeEach
+    void setup() {
+        when(clock.instant()).thenAnswer(invocation -> now);
+        idempotencyCache = new IdempotencyCache(2, Duration.ofMinutes(10), clock, gameMetrics);
+    }
+
+    @Test
+    void getOrPlace_ifRetriedWhileBetOnItsWay_betPlacedOnceAndBothGetItsResult() {
+        CompletableFuture<BetResult> betResult = new CompletableFuture<>();
+
+        CompletableFuture<BetResult> first = idempotencyCache.getOrPlace("game-1", "key-1", DAVE, () -> placed(betResult));
+        CompletableFuture<BetResult> retry = idempotencyCache.getOrPlace("game-1", "key-1", new AddPlayerRequest("dave", 3, new BigDecimal("31")), () -> placed(BetResult.ACCEPTED));
+        betResult.complete(BetResult.ACCEPTED);
+
+        assertThat(first).isCompletedWithValue(BetResult.ACCEPTED);
+        assertThat(retry).isCompletedWithValue(BetResult.ACCEPTED);
+        assertThat(betsPlaced).hasValue(1);
+        assertThat(gameMetrics.getCount("bets.idempotency.replayed")).isEqualTo(1);
+    }
+
+    @Test
+    void getOrPlace_ifRetrySendsBidWithOtherScale_originalResultReturned() {
+        idempotencyCache.getOrPlace("game-1", "key-1", DAVE, () -> placed(BetResult.ACCEPTED));
+
+        CompletableFuture<BetResult> retry = idempotencyCache.getOrPlace("game-1", "key-1", new AddPlayerRequest("dave", 3, new BigDecimal("31.00")), () -> placed(BetResult.PLAYER_EXISTS));
+
+        assertThat(retry).isCompletedWithValue(BetResult.ACCEPTED);
+        assertThat(betsPlaced).hasValue(1);
+    }
+
+    @Test
+    void getOrPlace_ifKeyUsedForDifferentBet_rejected() {
+        idempotencyCache.getOrPlace("game-1", "key-1", DAVE, () -> placed(BetResult.ACCEPTED));
+
+        assertThatThrownBy(() -> idempotencyCache.getOrPlace("game-1", "key-1", new AddPlayerRequest("dave", 4, new BigDecimal("31")), () -> placed(BetResult.ACCEPTED)))
+            .isInstanceOf(IdempotencyKeyReusedException.class)
+            .hasMessage("Idempotency key key-1 was already used for a different bet");
+        assertThat(betsPlaced).hasValue(1);
+    }
+
+    @Test
+    void getOrPlace_ifSameKeyUsedInAnotherGame_betPlacedAgain() {
+        idempotencyCache.getOrPlace("game-1", "key-1", DAVE, () -> placed(BetResult.ACCEPTED));
+        idempotencyCache.getOrPlace("game-2", "key-1", DAVE, () -> placed(BetResult.ACCEPTED));
+
+        assertThat(betsPlaced).hasValue(2);
+    }
+
+    @Test
+    void getOrPlace_ifBetRingWasFull_retryPlacedAgain() {
+        CompletableFuture<BetResult> first = idempotencyCache.getOrPlace("game-1", "key-1", DAVE, () -> placed(BetResult.QUEUE_FULL));
+        CompletableFuture<BetResult> retry = idempotencyCache.getOrPlace("game-1", "key-1", DAVE, () -> placed(BetResult.ACCEPTED));
+
+        assertThat(first).isCompletedWithValue(BetResult.QUEUE_FULL);
+        assertThat(retry).isCompletedWithValue(BetResult.ACCEPTED);
+        assertThat(betsPlaced).hasValue(2);
+    }
+
+    @Test
+    void getOrPlace_ifBetRingFullOverAndOver_rejectedKeysNotKept() {
+        idempotencyCache.getOrPlace("game-1", "key-0", DAVE, () -> placed(BetResult.ACCEPTED));
+
+        for (int i = 1; i <= 10_000; i++) {
+            idempotencyCache.getOrPlace("game-1", "key-" + i, DAVE, () -> placed(BetResult.QUEUE_FULL));
+        }
+
+        assertThat(gameMetrics.snapshot()).containsEntry("bets.idempotency.keys", 1);
+        assertThat(idempotencyCache.evictionOrderSize()).isEqualTo(1);
+        idempotencyCache.getOrPlace("game-1", "key-0", DAVE, () -> placed(BetResult.PLAYER_EXISTS));
+        assertThat(betsPlaced).hasValue(10_001);
+    }
+
+    @Test
+    void getOrPlace_ifBetFailed_retryPlacedAgain() {
+        CompletableFuture<BetResult> first = idempotencyCache.getOrPlace("game-1", "key-1", DAVE,
+            () -> placed(CompletableFuture.failedFuture(new IllegalStateException("writer stopped"))));
+        CompletableFuture<BetResult> retry = idempotencyCache.getOrPlace("game-1", "key-1", DAVE, () -> placed(BetResult.ACCEPTED));
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(retry).isCompletedWithValue(BetResult.ACCEPTED);
+        assertThat(gameMetrics.snapshot()).containsEntry("bets.idempotency.keys", 1);
+        assertThat(idempotencyCache.evictionOrderSize()).isEqualTo(1);
+    }
+
+    @Test
+    void getOrPlace_ifKeyExpired_betPlacedAgain() {
+        idempotencyCache.getOrPlace("game-1", "key-1", DAVE, () -> placed(BetResult.ACCEPTED));
+        now = now.plus(Duration.ofMinutes(10));
+
+        CompletableFuture<BetResult> retry = idempotencyCache.getOrPlace("game-1", "key-1", DAVE, () -> placed(BetResult.PLAYER_EXISTS));
+
+        assertThat(retry).isCompletedWithValue(BetResult.PLAYER_EXISTS);
+        assertThat(betsPlaced).hasValue(2);
+    }
+
+    @Test
+    void getOrPlace_ifMoreKeysThanKept_oldestKeyForgotten() {
+        idempotencyCache.getOrPlace("game-1", "key-1", DAVE, () -> placed(BetResult.ACCEPTED));
+        idempotencyCache.getOrPlace("game-1", "key-2", DAVE, () -> placed(BetResult.ACCEPTED));
+        idempotencyCache.getOrPlace("game-1", "key-3", DAVE, () -> placed(BetResult.ACCEPTED));
+
+        idempotencyCache.getOrPlace("game-1", "key-3", DAVE, () -> placed(BetResult.ACCEPTED));
+        assertThat(betsPlaced).hasValue(3);
+        idempotencyCache.getOrPlace("game-1", "key-1", DAVE, () -> placed(BetResult.PLAYER_EXISTS));
+        assertThat(betsPlaced).hasValue(4);
+        assertThat(gameMetrics.snapshot()).containsEntry("bets.idempotency.keys", 2);
+    }
+
+    private CompletableFuture<BetResult> placed(BetResult betResult) {
+        return placed(CompletableFuture.completedFuture(betResult));
+    }
+
+    private CompletableFuture<BetResult> placed(CompletableFuture<BetResult> betResult) {
+        betsPlaced.incrementAndGet();
+        return betResult;
+    }
+}
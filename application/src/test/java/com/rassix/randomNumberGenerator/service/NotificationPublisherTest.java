@@ -0,0 +1,130 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.constant.WaitStrategyType;
+import com.rassix.randomNumberGenerator.service.dto.Notification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationPublisherTest {
+
+    private static final Notification WIN_NOTIFICATION = Notification.builder().messageCode("WIN_NOTIFICATION").build();
+
+    @Mock
+    private NotificationService notificationService;
+
+    private final GameMetrics gameMetrics = new GameMetrics();
+
+    private NotificationPublisher notificationPublisher;
+
+    @AfterEach
+    void shutdown() {
+        notificationPublisher.shutdown();
+    }
+
+    @Test
+    void publish_ifNoConsumers_deliveredOnPublishingThread() {
+        notificationPublisher = new NotificationPublisher(notificationService, gameMetrics, 16, 0, WaitStrategyType.BLOCKING);
+        Instant bettingEndTime = Instant.parse("2021-03-01T12:00:10Z");
+
+        notificationPublisher.notifyNewGameStart("1", "game-1", bettingEndTime);
+        notificationPublisher.sendMessageToPlayer("1", "dave", WIN_NOTIFICATION);
+        notificationPublisher.sendMessageToPlayers("1", List.of("lucy"), WIN_NOTIFICATION);
+
+        verify(notificationService).notifyNewGameStart("1", "game-1", bettingEndTime);
+        verify(notificationService).sendMessageToPlayer("dave", WIN_NOTIFICATION);
+        verify(notificationService).sendMessageToPlayers(List.of("lucy"), WIN_NOTIFICATION);
+    }
+
+    @Test
+    void publish_ifTableEventsPublished_deliveredInPublishOrderByConsumer() {
+        notificationPublisher = new NotificationPublisher(notificationService, gameMetrics, 1024, 2, WaitStrategyType.BLOCKING);
+        Queue<String> delivered = new ConcurrentLinkedQueue<>();
+        doAnswer(invocation -> delivered.add("biddingClosed"))
+            .when(notificationService).notifyBettingEnd("1");
+        doAnswer(invocation -> delivered.add("privateMessage " + invocation.getArgument(0)))
+            .when(notificationService).sendMessageToPlayer(any(), any());
+        doAnswer(invocation -> delivered.add("message"))
+            .when(notificationService).sendGlobalMessage("1", WIN_NOTIFICATION);
+
+        for (int round = 0; round < 100; round++) {
+            notificationPublisher.notifyBettingEnd("1");
+            notificationPublisher.sendMessageToPlayer("1", "dave", WIN_NOTIFICATION);
+            notificationPublisher.sendMessageToPlayer("1", "lucy", WIN_NOTIFICATION);
+            notificationPublisher.sendGlobalMessage("1", WIN_NOTIFICATION);
+        }
+
+        verify(notificationService, timeout(5000).times(100)).sendGlobalMessage("1", WIN_NOTIFICATION);
+        assertThat(delivered).hasSize(400);
+        for (int round = 0; round < 100; round++) {
+            assertThat(List.of(delivered.poll(), delivered.poll(), delivered.poll(), delivered.poll()))
+                .containsExactly("biddingClosed", "privateMessage dave", "privateMessage lucy", "message");
+        }
+    }
+
+    @Test
+    void publish_ifRingFull_eventDroppedWithoutBlockingAndCounted() throws InterruptedException {
+        notificationPublisher = new NotificationPublisher(notificationService, gameMetrics, 2, 1, WaitStrategyType.SLEEPING);
+        CountDownLatch deliveryStarted = new CountDownLatch(1);
+        CountDownLatch releaseDelivery = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            deliveryStarted.countDown();
+            return releaseDelivery.await(5, TimeUnit.SECONDS);
+        }).when(notificationService).notifyBettingEnd("1");
+
+        notificationPublisher.notifyBettingEnd("1");
+        assertThat(deliveryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        notificationPublisher.notifyBettingEnd("1");
+        notificationPublisher.notifyBettingEnd("1");
+        notificationPublisher.notifyBettingEnd("1");
+
+        assertThat(gameMetrics.snapshot())
+            .containsEntry("notification.ring.overflow", 2L)
+            .containsEntry("notification.ring.backlog", 2L);
+
+        releaseDelivery.countDown();
+        verify(notificationService, timeout(5000).times(2)).notifyBettingEnd("1");
+    }
+
+    @Test
+    void publish_ifRingFull_playerResultsDeliveredOnPublishingThread() throws InterruptedException {
+        notificationPublisher = new NotificationPublisher(notificationService, gameMetrics, 2, 1, WaitStrategyType.SLEEPING);
+        CountDownLatch deliveryStarted = new CountDownLatch(1);
+        CountDownLatch releaseDelivery = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            deliveryStarted.countDown();
+            return releaseDelivery.await(5, TimeUnit.SECONDS);
+        }).when(notificationService).notifyBettingEnd("1");
+
+        notificationPublisher.notifyBettingEnd("1");
+        assertThat(deliveryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        notificationPublisher.notifyBettingEnd("1");
+        notificationPublisher.notifyBettingEnd("1");
+        notificationPublisher.sendMessageToPlayer("1", "dave", WIN_NOTIFICATION);
+        notificationPublisher.sendMessageToPlayers("1", List.of("lucy"), WIN_NOTIFICATION);
+
+        verify(notificationService).sendMessageToPlayer("dave", WIN_NOTIFICATION);
+        verify(notificationService).sendMessageToPlayers(List.of("lucy"), WIN_NOTIFICATION);
+        assertThat(gameMetrics.snapshot())
+            .containsEntry("notification.ring.overflow", 1L)
+            .containsEntry("notification.ring.overflow.delivered-inline", 2L);
+
+        releaseDelivery.countDown();
+    }
+}
@@ -0,0 +1,65 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rassix.randomNumberGenerator.config.EncodedPayloadMessageConverter;
+import com.rassix.randomNumberGenerator.constant.SlowConsumerPolicy;
+import com.rassix.randomNumberGenerator.service.dto.Notification;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Round end fan-out time of the batched player notifications against sending them one player at a time.
+ */
+@Slf4j
+@Tag("benchmark")
+class NotificationServiceBenchmark {
+
+    @Test
+    void sendMessageToPlayers_ifRoundEndsWithManyPlayers_fanOutTimeReportedAgainstPerPlayerSends() {
+        GameMetrics gameMetrics = new GameMetrics();
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> true);
+        template.setMessageConverter(new CompositeMessageConverter(List.of(
+            new EncodedPayloadMessageConverter(),
+            new MappingJackson2MessageConverter()
+        )));
+        RawSessionRegistry rawSessionRegistry = new RawSessionRegistry(Duration.ofSeconds(10), DataSize.ofKilobytes(512), SlowConsumerPolicy.DROP, gameMetrics);
+        ReplayLog replayLog = new ReplayLog(16, Duration.ofMinutes(2), Clock.systemUTC(), gameMetrics);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        NotificationService notificationService = new NotificationService(template, rawSessionRegistry, replayLog,
+            new PayloadEncoder(new ObjectMapper().findAndRegisterModules(), gameMetrics), executor, 1000);
+        Notification notification = Notification.builder().messageCode("LOSS_NOTIFICATION").build();
+
+        try {
+            for (int playerCount : new int[]{10_000, 100_000, 10_000, 100_000}) {
+                List<String> usernames = IntStream.range(0, playerCount).mapToObj(i -> "player-" + i).collect(Collectors.toList());
+
+                long start = System.nanoTime();
+                usernames.forEach(username -> notificationService.sendMessageToPlayer(username, notification));
+                long perPlayerNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                notificationService.sendMessageToPlayers(usernames, notification).join();
+                long batchNanos = System.nanoTime() - start;
+
+                log.info("{} players notified: one by one in {} ms, batched in {} ms", playerCount,
+                    TimeUnit.NANOSECONDS.toMillis(perPlayerNanos), TimeUnit.NANOSECONDS.toMillis(batchNanos));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,62 +1,131 @@
 package com.rassix.randomNumberGenerator.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rassix.randomNumberGenerator.config.EncodedPayloadMessageConverter;
 import com.rassix.randomNumberGenerator.constant.GamePhase;
+import com.rassix.randomNumberGenerator.constant.SlowConsumerPolicy;
 import com.rassix.randomNumberGenerator.controller.dto.GameInfoResponse;
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
 import com.rassix.randomNumberGenerator.service.dto.Notification;
+import com.rassix.randomNumberGenerator.service.dto.SequencedPayload;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class NotificationServiceTest {
 
+    private static final Instant NOW = Instant.parse("2021-03-01T12:00:00Z");
+
     @Mock
     private SimpMessagingTemplate simpMessagingTemplate;
 
-    @InjectMocks
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private GameMetrics gameMetrics;
+
+    private RawSessionRegistry rawSessionRegistry;
+
+    private ReplayLog replayLog;
+
     private NotificationService notificationService;
 
+    @BeforeEach
+    void setup() {
+        gameMetrics = new GameMetrics();
+        rawSessionRegistry = new RawSessionRegistry(Duration.ofSeconds(10), DataSize.ofKilobytes(512), SlowConsumerPolicy.DROP, gameMetrics);
+        replayLog = new ReplayLog(16, Duration.ofMinutes(2), Clock.fixed(NOW, ZoneOffset.UTC), gameMetrics);
+        notificationService = new NotificationService(simpMessagingTemplate, rawSessionRegistry, replayLog, new PayloadEncoder(objectMapper, gameMetrics), Runnable::run, 2);
+    }
+
     @Test
-    void notifyBettingEnd_ifCalled_sentWithEmptyBody() {
-        notificationService.notifyBettingEnd();
+    void notifyBettingEnd_ifCalled_sentWithEmptyBody() throws IOException {
+        notificationService.notifyBettingEnd("1");
 
-        ArgumentCaptor<Notification> notificationCaptor = ArgumentCaptor.forClass(Notification.class);
+        ArgumentCaptor<EncodedPayload> payloadCaptor = ArgumentCaptor.forClass(EncodedPayload.class);
         Notification expectedObject = Notification.builder().messageCode("BIDDING_CLOSED").build();
 
-        verify(simpMessagingTemplate).convertAndSend(eq("/topic/biddingClosed"), notificationCaptor.capture());
+        verify(simpMessagingTemplate).convertAndSend(eq("/topic/tables/1/biddingClosed"), payloadCaptor.capture(), eq(Map.of("seq", String.valueOf(NOW.toEpochMilli()))));
+
+        assertThat(objectMapper.readValue(payloadCaptor.getValue().getBytes(), Notification.class))
+            .usingRecursiveComparison().isEqualTo(expectedObject);
+    }
+
+    @Test
+    void notifyBettingEnd_ifCalledEveryRound_bodyEncodedOnlyOnce() {
+        notificationService.notifyBettingEnd("1");
+        notificationService.notifyBettingEnd("2");
+        notificationService.notifyBettingEnd("1");
+
+        ArgumentCaptor<EncodedPayload> payloadCaptor = ArgumentCaptor.forClass(EncodedPayload.class);
+        verify(simpMessagingTemplate, times(3)).convertAndSend(any(String.class), payloadCaptor.capture(), any(Map.class));
 
-        assertThat(notificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(expectedObject);
+        assertThat(payloadCaptor.getAllValues()).containsOnly(payloadCaptor.getValue());
+        assertThat(gameMetrics.snapshot())
+            .containsEntry("payload-cache.encodings", 1L)
+            .containsEntry("payload-cache.hits", 2L)
+            .containsEntry("payload-cache.hit-rate", 2 / 3d);
     }
 
     @Test
-    void notifyNewGameStart_ifCalled_sendsDataAboutNewGame() {
+    void notifyNewGameStart_ifCalled_sendsDataAboutNewGame() throws IOException {
         String gameId = "idOfGame";
         Instant bettingEndTime = Instant.now().plus(20, ChronoUnit.SECONDS);
 
-        notificationService.notifyNewGameStart(gameId, bettingEndTime);
+        notificationService.notifyNewGameStart("1", gameId, bettingEndTime);
 
-        ArgumentCaptor<GameInfoResponse> gameInfoCaptor = ArgumentCaptor.forClass(GameInfoResponse.class);
+        ArgumentCaptor<EncodedPayload> payloadCaptor = ArgumentCaptor.forClass(EncodedPayload.class);
 
-        verify(simpMessagingTemplate).convertAndSend(eq("/topic/newGame"), gameInfoCaptor.capture());
+        verify(simpMessagingTemplate).convertAndSend(eq("/topic/tables/1/newGame"), payloadCaptor.capture(), any(Map.class));
 
         GameInfoResponse expectedObject = GameInfoResponse.builder()
+            .tableId("1")
             .gameId(gameId)
             .gamePhase(GamePhase.BETTING_PHASE)
             .bettingEndTime(bettingEndTime)
             .build();
 
-        assertThat(gameInfoCaptor.getValue()).usingRecursiveComparison().isEqualTo(expectedObject);
+        assertThat(objectMapper.readValue(payloadCaptor.getValue().getBytes(), GameInfoResponse.class))
+            .usingRecursiveComparison().isEqualTo(expectedObject);
     }
 
     @Test
@@ -66,14 +135,146 @@ class NotificationServiceTest {
 
         notificationService.sendMessageToPlayer(username, notification);
 
-        verify(simpMessagingTemplate).convertAndSend("/topic/messages/Dave", notification);
+        ArgumentCaptor<EncodedPayload> payloadCaptor = ArgumentCaptor.forClass(EncodedPayload.class);
+        verify(simpMessagingTemplate).convertAndSendToUser(eq("Dave"), eq("/queue/messages"), payloadCaptor.capture(), eq(Map.of("seq", String.valueOf(NOW.toEpochMilli()))));
+        assertThat(new String(payloadCaptor.getValue().getBytes(), StandardCharsets.UTF_8))
+            .isEqualTo("{\"messageCode\":\"CASUAL_MESSAGE\",\"messagePayload\":\"Have a good day!\"}");
+    }
+
+    @Test
+    void notifyBettingEndAndSendMessageToPlayers_ifRawSessionJoined_framesCarryTheirStreamSequence() throws IOException {
+        WebSocketSession session = mock(WebSocketSession.class);
+        lenient().when(session.getId()).thenReturn("session-1");
+        lenient().when(session.isOpen()).thenReturn(true);
+        lenient().when(session.getAttributes()).thenReturn(new HashMap<>());
+        rawSessionRegistry.register(session);
+        rawSessionRegistry.join(session, "1", "dave");
+
+        notificationService.notifyBettingEnd("1");
+        notificationService.notifyBettingEnd("1");
+        notificationService.sendMessageToPlayers(List.of("lucy", "dave"), Notification.builder().messageCode("LOSS_NOTIFICATION").build());
+
+        ArgumentCaptor<TextMessage> frameCaptor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, times(3)).sendMessage(frameCaptor.capture());
+        long firstSequence = NOW.toEpochMilli();
+        assertThat(frameCaptor.getAllValues()).extracting(TextMessage::getPayload).containsExactly(
+            "biddingClosed " + firstSequence + "\n{\"messageCode\":\"BIDDING_CLOSED\",\"messagePayload\":null}",
+            "biddingClosed " + (firstSequence + 1) + "\n{\"messageCode\":\"BIDDING_CLOSED\",\"messagePayload\":null}",
+            "privateMessage " + firstSequence + "\n{\"messageCode\":\"LOSS_NOTIFICATION\",\"messagePayload\":null}"
+        );
     }
 
     @Test
     void sendGlobalMessage_ifCalled_messageIsSentToEveryoneWhoIsSubscribed() {
         Notification notification = Notification.builder().messageCode("CASUAL_MESSAGE").messagePayload("Have a good day!").build();
-        notificationService.sendGlobalMessage(notification);
+        notificationService.sendGlobalMessage("1", notification);
+
+        ArgumentCaptor<EncodedPayload> payloadCaptor = ArgumentCaptor.forClass(EncodedPayload.class);
+        verify(simpMessagingTemplate).convertAndSend(eq("/topic/tables/1/messages/all"), payloadCaptor.capture(), any(Map.class));
+
+        assertThat(new String(payloadCaptor.getValue().getBytes(), StandardCharsets.UTF_8))
+            .isEqualTo("{\"messageCode\":\"CASUAL_MESSAGE\",\"messagePayload\":\"Have a good day!\"}");
+    }
+
+    @Test
+    void sendGlobalMessage_ifSentRepeatedly_messagesNumberedPerStreamAndKeptForReplay() {
+        Queue<Message<?>> sentMessages = new ConcurrentLinkedQueue<>();
+        notificationService = new NotificationService(
+            jsonTemplate((message, timeout) -> sentMessages.add(message)), rawSessionRegistry, replayLog, new PayloadEncoder(objectMapper, gameMetrics), Runnable::run, 2
+        );
+        Notification notification = Notification.builder().messageCode("CASUAL_MESSAGE").build();
+
+        notificationService.sendGlobalMessage("1", notification);
+        notificationService.notifyBettingEnd("1");
+        notificationService.sendGlobalMessage("1", notification);
+        notificationService.sendGlobalMessage("2", notification);
+
+        long firstSequence = NOW.toEpochMilli();
+        assertThat(sentMessages)
+            .extracting(message -> SimpMessageHeaderAccessor.getFirstNativeHeader("seq", message.getHeaders()))
+            .containsExactly(String.valueOf(firstSequence), String.valueOf(firstSequence), String.valueOf(firstSequence + 1), String.valueOf(firstSequence));
+        assertThat(replayLog.getMessagesAfter("/topic/tables/1/messages/all", firstSequence).getMessages())
+            .extracting(SequencedPayload::getSequence)
+            .containsExactly(firstSequence + 1);
+    }
+
+    @Test
+    void sendMessageToPlayers_ifManyPlayers_notificationSerializedOnceAndSentToEveryPlayer() {
+        Queue<Message<?>> sentMessages = new ConcurrentLinkedQueue<>();
+        notificationService = new NotificationService(
+            jsonTemplate((message, timeout) -> sentMessages.add(message)), rawSessionRegistry, replayLog, new PayloadEncoder(objectMapper, gameMetrics), Runnable::run, 2
+        );
+
+        notificationService.sendMessageToPlayers(
+            List.of("Dave", "Lucy", "Arthur"),
+            Notification.builder().messageCode("LOSS_NOTIFICATION").build()
+        );
+
+        assertThat(sentMessages)
+            .extracting(message -> SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+            .containsExactly("/user/Dave/queue/messages", "/user/Lucy/queue/messages", "/user/Arthur/queue/messages");
+        Object sharedPayload = sentMessages.peek().getPayload();
+        assertThat(sentMessages).allSatisfy(message -> assertThat(message.getPayload()).isSameAs(sharedPayload));
+        assertThat(new String((byte[]) sharedPayload, StandardCharsets.UTF_8))
+            .isEqualTo("{\"messageCode\":\"LOSS_NOTIFICATION\",\"messagePayload\":null}");
+    }
+
+    @Test
+    void sendMessageToPlayers_ifNoPlayers_nothingSent() {
+        notificationService.sendMessageToPlayers(List.of(), Notification.builder().messageCode("LOSS_NOTIFICATION").build());
+
+        verifyNoInteractions(simpMessagingTemplate);
+    }
+
+    @Test
+    void sendMessageToPlayers_ifPlayersSpanSeveralBatches_everyPlayerNotified() {
+        Notification notification = Notification.builder().messageCode("LOSS_NOTIFICATION").build();
+        Queue<String> destinations = new ConcurrentLinkedQueue<>();
+        SimpMessagingTemplate template = jsonTemplate((message, timeout) ->
+            destinations.add(SimpMessageHeaderAccessor.getDestination(message.getHeaders())));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        NotificationService batchingNotificationService = new NotificationService(template, rawSessionRegistry, replayLog, new PayloadEncoder(objectMapper, gameMetrics), executor, 1000);
+        List<String> usernames = IntStream.range(0, 2500).mapToObj(i -> "player-" + i).collect(Collectors.toList());
+
+        try {
+            batchingNotificationService.sendMessageToPlayers(usernames, notification).join();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(destinations).containsExactlyInAnyOrderElementsOf(usernames.stream()
+            .map(username -> "/user/" + username + "/queue/messages")
+            .collect(Collectors.toList()));
+    }
+
+    @Test
+    void sendMessageToPlayers_ifChunksStillSending_returnsWithoutWaitingAndNextFanOutWaitsForThem() {
+        Queue<Runnable> pendingChunks = new ConcurrentLinkedQueue<>();
+        notificationService = new NotificationService(simpMessagingTemplate, rawSessionRegistry, replayLog, new PayloadEncoder(objectMapper, gameMetrics), pendingChunks::add, 2);
+
+        CompletableFuture<Void> losses = notificationService.sendMessageToPlayers(List.of("Dave", "Lucy", "Arthur"), Notification.builder().messageCode("LOSS_NOTIFICATION").build());
+        CompletableFuture<Void> reminders = notificationService.sendMessageToPlayers(List.of("Dave"), Notification.builder().messageCode("REMINDER").build());
+
+        assertThat(losses).isNotDone();
+        assertThat(pendingChunks).hasSize(2);
+        verifyNoInteractions(simpMessagingTemplate);
+
+        pendingChunks.poll().run();
+        pendingChunks.poll().run();
+        assertThat(losses).isCompleted();
+        assertThat(reminders).isNotDone();
+        verify(simpMessagingTemplate, times(3)).convertAndSendToUser(any(String.class), eq("/queue/messages"), any(EncodedPayload.class), any(Map.class));
+
+        pendingChunks.poll().run();
+        assertThat(reminders).isCompleted();
+    }
 
-        verify(simpMessagingTemplate).convertAndSend("/topic/messages/all", notification);
+    private SimpMessagingTemplate jsonTemplate(MessageChannel channel) {
+        SimpMessagingTemplate template = new SimpMessagingTemplate(channel);
+        template.setMessageConverter(new CompositeMessageConverter(List.of(
+            new EncodedPayloadMessageConverter(),
+            new MappingJackson2MessageConverter()
+        )));
+        return template;
     }
 }
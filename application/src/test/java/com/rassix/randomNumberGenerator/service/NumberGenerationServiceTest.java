@@ -8,14 +8,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 class NumberGenerationServiceTest {
 
-    private NumberGenerationService numberGenerationService = new NumberGenerationService(new Random());
+    private NumberGenerationService numberGenerationService = new NumberGenerationService();
 
     @Test
     void generateNumber_ifCalled_isNotBelow1AndAbove10() {
+        Random random = new Random();
+
         for(int i = 0; i < 200; i++) {
-            Integer randomNumber = numberGenerationService.generateNumber();
+            Integer randomNumber = numberGenerationService.generateNumber(random);
             assertThat(randomNumber).isBetween(1, 10);
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
+import com.rassix.randomNumberGenerator.service.dto.Notification;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadEncoderTest {
+
+    private final GameMetrics gameMetrics = new GameMetrics();
+
+    private final PayloadEncoder payloadEncoder = new PayloadEncoder(new ObjectMapper(), gameMetrics);
+
+    @Test
+    void encodeConstant_ifCalledAgain_cachedBytesReturned() {
+        Notification notification = Notification.builder().messageCode("BIDDING_CLOSED").build();
+
+        EncodedPayload first = payloadEncoder.encodeConstant("BIDDING_CLOSED", () -> notification);
+        EncodedPayload second = payloadEncoder.encodeConstant("BIDDING_CLOSED", () -> notification);
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first.getBytes(), StandardCharsets.UTF_8))
+            .isEqualTo("{\"messageCode\":\"BIDDING_CLOSED\",\"messagePayload\":null}");
+        assertThat(gameMetrics.snapshot())
+            .containsEntry("payload-cache.encodings", 1L)
+            .containsEntry("payload-cache.hits", 1L)
+            .containsEntry("payload-cache.misses", 1L)
+            .containsKey("payload-cache.encode-mean-us");
+    }
+
+    @Test
+    void encodeForRound_ifVersionChanges_payloadEncodedAgain() {
+        EncodedPayload bettingPhase = payloadEncoder.encodeForRound("1", "game-1/BETTING_PHASE", () -> "betting");
+        EncodedPayload bettingPhaseAgain = payloadEncoder.encodeForRound("1", "game-1/BETTING_PHASE", () -> "betting");
+        EncodedPayload resultsPhase = payloadEncoder.encodeForRound("1", "game-1/RESULTS_PHASE", () -> "results");
+
+        assertThat(bettingPhaseAgain).isSameAs(bettingPhase);
+        assertThat(new String(resultsPhase.getBytes(), StandardCharsets.UTF_8)).isEqualTo("\"results\"");
+        assertThat(gameMetrics.getCount("payload-cache.encodings")).isEqualTo(2);
+    }
+
+    @Test
+    void encodeForRound_ifOtherTable_cachedSeparately() {
+        EncodedPayload firstTable = payloadEncoder.encodeForRound("1", "game-1/BETTING_PHASE", () -> "first");
+        EncodedPayload secondTable = payloadEncoder.encodeForRound("2", "game-2/BETTING_PHASE", () -> "second");
+
+        assertThat(payloadEncoder.encodeForRound("1", "game-1/BETTING_PHASE", () -> "first")).isSameAs(firstTable);
+        assertThat(payloadEncoder.encodeForRound("2", "game-2/BETTING_PHASE", () -> "second")).isSameAs(secondTable);
+    }
+}
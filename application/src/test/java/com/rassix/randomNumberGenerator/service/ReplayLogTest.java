@@ -0,0 +1,112 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.service.dto.EncodedPayload;
+import com.rassix.randomNumberGenerator.service.dto.Replay;
+import com.rassix.randomNumberGenerator.service.dto.SequencedPayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplayLogTest {
+
+    @Mock
+    private Clock clock;
+
+    private final GameMetrics gameMetrics = new GameMetrics();
+
+    private Instant now = Instant.parse("2021-03-01T12:00:00Z");
+    private ReplayLog replayLog;
+
+    @BeforeEach
+    void setup() {
+        when(clock.instant()).thenAnswer(invocation -> now);
+        replayLog = new ReplayLog(3, Duration.ofMinutes(2), clock, gameMetrics);
+    }
+
+    @Test
+    void append_ifStreamsDiffer_eachStreamNumberedConsecutivelyFromItsCreationTime() {
+        long start = now.toEpochMilli();
+
+        assertThat(replayLog.append("/topic/tables/1/newGame", payload("a"))).isEqualTo(start);
+        assertThat(replayLog.append("/topic/tables/1/newGame", payload("b"))).isEqualTo(start + 1);
+        now = now.plusMillis(5);
+        assertThat(replayLog.append("player/dave", payload("c"))).isEqualTo(start + 5);
+        assertThat(replayLog.append("/topic/tables/1/newGame", payload("d"))).isEqualTo(start + 2);
+    }
+
+    @Test
+    void getMessagesAfter_ifMessagesStillKept_onlyMissedMessagesReplayed() {
+        long first = replayLog.append("player/dave", payload("a"));
+        replayLog.append("player/dave", payload("b"));
+        replayLog.append("player/dave", payload("c"));
+
+        Replay replay = replayLog.getMessagesAfter("player/dave", first);
+
+        assertThat(replay.isComplete()).isTrue();
+        assertThat(replay.getMessages()).extracting(SequencedPayload::getSequence).containsExactly(first + 1, first + 2);
+        assertThat(replay.getMessages()).extracting(message -> new String(message.getPayload().getBytes(), StandardCharsets.UTF_8))
+            .containsExactly("b", "c");
+    }
+
+    @Test
+    void getMessagesAfter_ifClientUpToDate_nothingReplayed() {
+        long last = replayLog.append("player/dave", payload("a"));
+
+        Replay replay = replayLog.getMessagesAfter("player/dave", last);
+
+        assertThat(replay.isComplete()).isTrue();
+        assertThat(replay.getMessages()).isEmpty();
+    }
+
+    @Test
+    void getMessagesAfter_ifMissedMessagesEvictedByCount_incompleteReplayOfKeptMessages() {
+        long first = replayLog.append("player/dave", payload("a"));
+        for (int i = 0; i < 4; i++) {
+            replayLog.append("player/dave", payload("b" + i));
+        }
+
+        Replay replay = replayLog.getMessagesAfter("player/dave", first);
+
+        assertThat(replay.isComplete()).isFalse();
+        assertThat(replay.getMessages()).extracting(SequencedPayload::getSequence).containsExactly(first + 2, first + 3, first + 4);
+    }
+
+    @Test
+    void getMessagesAfter_ifMissedMessagesEvictedByAge_incompleteReplay() {
+        long first = replayLog.append("player/dave", payload("a"));
+        replayLog.append("player/dave", payload("b"));
+        now = now.plus(Duration.ofMinutes(3));
+
+        Replay replay = replayLog.getMessagesAfter("player/dave", first);
+
+        assertThat(replay.isComplete()).isFalse();
+        assertThat(replay.getMessages()).isEmpty();
+    }
+
+    @Test
+    void append_ifStreamIdleLongerThanMaxAge_streamDroppedAndRecreatedAboveOldSequences() {
+        long old = replayLog.append("player/dave", payload("a"));
+        now = now.plus(Duration.ofMinutes(3));
+
+        long recreated = replayLog.append("player/lucy", payload("b"));
+
+        assertThat(gameMetrics.snapshot()).containsEntry("replay-log.streams", 1);
+        assertThat(replayLog.getMessagesAfter("player/dave", old).isComplete()).isFalse();
+        assertThat(replayLog.append("player/dave", payload("c"))).isGreaterThan(old + 1).isEqualTo(recreated);
+    }
+
+    private static EncodedPayload payload(String body) {
+        return new EncodedPayload(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
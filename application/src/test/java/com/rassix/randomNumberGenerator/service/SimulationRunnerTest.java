@@ -0,0 +1,74 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.constant.WaitStrategyType;
+import com.rassix.randomNumberGenerator.repository.GameRepository;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.timer.SimulationGameTimer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SimulationRunnerTest {
+
+    private static final Instant START = Instant.parse("2021-01-01T00:00:00Z");
+
+    @Test
+    void run_ifSameSeed_roundsPlayOutIdentically() throws InterruptedException {
+        List<String> firstRun = simulate(42);
+        List<String> secondRun = simulate(42);
+
+        // the second table starts half a round later, so the first has already opened its 51st game
+        assertThat(firstRun).hasSize(2 * 50 + 1);
+        assertThat(firstRun).isEqualTo(secondRun);
+        assertThat(simulate(43)).isNotEqualTo(firstRun);
+    }
+
+    @Test
+    void run_ifFinished_virtualClockAdvancedByAllRounds() throws InterruptedException {
+        SimulationGameTimer timer = new SimulationGameTimer(START);
+        GameMetrics gameMetrics = new GameMetrics();
+        SimulationRunner simulationRunner = createSimulation(timer, new GameRepository(1000, Duration.ofDays(1), timer.getClock()), gameMetrics, 42);
+
+        simulationRunner.run();
+
+        assertThat(gameMetrics.getCount("round.ended")).isEqualTo(100);
+        assertThat(timer.getClock().instant()).isBetween(START.plus(Duration.ofMillis(12500 * 49 + 6250)), START.plus(Duration.ofMillis(12500 * 50 + 6250)));
+    }
+
+    private List<String> simulate(long seed) throws InterruptedException {
+        SimulationGameTimer timer = new SimulationGameTimer(START);
+        GameRepository gameRepository = new GameRepository(1000, Duration.ofDays(1), timer.getClock());
+
+        createSimulation(timer, gameRepository, new GameMetrics(), seed).run();
+
+        return gameRepository.getAllGames().values().stream()
+            .sorted(Comparator.comparing(Game::getBetEndingTime).thenComparing(Game::getTableId))
+            .map(game -> game.getTableId() + " " + game.getBetEndingTime() + " " + game.getWinningNumber() + " "
+                + new TreeMap<>(game.getPlayers()).entrySet().stream()
+                    .map(player -> player.getKey() + ":" + player.getValue().getGuessedNumber() + ":" + player.getValue().getBetAmount())
+                    .collect(Collectors.joining(",")))
+            .collect(Collectors.toList());
+    }
+
+    private SimulationRunner createSimulation(SimulationGameTimer timer, GameRepository gameRepository, GameMetrics gameMetrics, long seed) {
+        BetIngestion betIngestion = new BetIngestion(gameRepository, gameMetrics, 16, 0, WaitStrategyType.BLOCKING);
+        GameService gameService = new GameService(mock(NotificationPublisher.class), betIngestion, gameRepository, 10);
+        TableRegistry tableRegistry = new TableRegistry(new Random(seed), name -> timer, 2, 1);
+        GameScheduler gameScheduler = new GameScheduler(
+            new NumberGenerationService(), gameService, tableRegistry, Runnable::run, gameMetrics, timer.getClock(),
+            Duration.ofSeconds(10), Duration.ofMillis(2500), false
+        );
+        gameScheduler.start();
+
+        return new SimulationRunner(timer, gameService, tableRegistry, gameMetrics, null, timer.getClock(), seed, 100, 20);
+    }
+}
@@ -0,0 +1,61 @@
+package com.rassix.randomNumberGenerator.service;
+
+import com.rassix.randomNumberGenerator.service.timer.TaskSchedulerGameTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TableRegistryTest {
+
+    private TableRegistry tableRegistry;
+
+    @AfterEach
+    void tearDown() {
+        if (tableRegistry != null) {
+            tableRegistry.destroy();
+        }
+    }
+
+    @Test
+    void constructor_ifMoreTablesThanEventLoops_tablesSpreadOverEventLoops() {
+        tableRegistry = new TableRegistry(new Random(), TaskSchedulerGameTimer::new, 5, 2);
+
+        assertThat(tableRegistry.getTables()).extracting(GameTable::getTableId).containsExactly("1", "2", "3", "4", "5");
+        assertThat(tableRegistry.getTables().stream().map(GameTable::getEventLoop).distinct().collect(Collectors.toList()))
+            .hasSize(2);
+        assertThat(tableRegistry.getTable("1").getEventLoop()).isSameAs(tableRegistry.getTable("3").getEventLoop());
+        assertThat(tableRegistry.getTable("1").getEventLoop()).isNotSameAs(tableRegistry.getTable("2").getEventLoop());
+    }
+
+    @Test
+    void constructor_ifFewerTablesThanEventLoops_onlyNeededEventLoopsCreated() {
+        tableRegistry = new TableRegistry(new Random(), TaskSchedulerGameTimer::new, 1, 0);
+
+        assertThat(tableRegistry.getTables()).hasSize(1);
+        assertThat(tableRegistry.getTable("2")).isNull();
+    }
+
+    @Test
+    void constructor_ifSameSeedSource_tablesGetSameRandomStreams() {
+        tableRegistry = new TableRegistry(new Random(42), TaskSchedulerGameTimer::new, 2, 1);
+        TableRegistry otherTableRegistry = new TableRegistry(new Random(42), TaskSchedulerGameTimer::new, 2, 1);
+
+        try {
+            assertThat(tableRegistry.getTable("2").getRandom().nextLong())
+                .isEqualTo(otherTableRegistry.getTable("2").getRandom().nextLong());
+        } finally {
+            otherTableRegistry.destroy();
+        }
+    }
+
+    @Test
+    void constructor_ifNoTablesConfigured_throwsException() {
+        assertThatThrownBy(() -> new TableRegistry(new Random(), TaskSchedulerGameTimer::new, 0, 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
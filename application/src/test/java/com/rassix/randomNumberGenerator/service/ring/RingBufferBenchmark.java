@@ -0,0 +1,67 @@
+package com.rassix.randomNumberGenerator.service.ring;
+
+import com.rassix.randomNumberGenerator.constant.WaitStrategyType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for several producers to hand a batch of events to the consumers, per wait strategy.
+ */
+@Slf4j
+@Tag("benchmark")
+class RingBufferBenchmark {
+
+    private RingBuffer<long[]> ringBuffer;
+
+    @AfterEach
+    void shutdown() {
+        if (ringBuffer != null) {
+            ringBuffer.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategyType.class)
+    void publish_ifManyProducers_handlingTimeReported(WaitStrategyType waitStrategyType) throws InterruptedException {
+        int producers = 4;
+        int eventsPerProducer = 200_000;
+        CountDownLatch handled = new CountDownLatch(producers * eventsPerProducer);
+        ringBuffer = new RingBuffer<>("ring-benchmark", 1024, () -> new long[2], 2, event -> handled.countDown(),
+            WaitStrategy.create(waitStrategyType));
+
+        long start = System.nanoTime();
+        List<Thread> producerThreads = new ArrayList<>();
+        for (int producer = 0; producer < producers; producer++) {
+            long producerId = producer;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < eventsPerProducer; i++) {
+                    long sequence;
+                    while ((sequence = ringBuffer.tryClaim((int) producerId)) < 0) {
+                        Thread.onSpinWait();
+                    }
+                    long[] event = ringBuffer.get(sequence);
+                    event[0] = producerId;
+                    event[1] = i;
+                    ringBuffer.publish(sequence);
+                }
+            });
+            producerThreads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : producerThreads) {
+            thread.join();
+        }
+
+        handled.await(60, TimeUnit.SECONDS);
+        log.info("{} wait strategy: {} events handled in {} ms", waitStrategyType, producers * eventsPerProducer,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,140 @@
+package com.rassix.randomNumberGenerator.service.ring;
+
+import com.rassix.randomNumberGenerator.constant.WaitStrategyType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RingBufferTest {
+
+    private RingBuffer<long[]> ringBuffer;
+
+    @AfterEach
+    void shutdown() {
+        if (ringBuffer != null) {
+            ringBuffer.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategyType.class)
+    void publish_ifManyProducers_everyEventHandledOnceInPublishOrderOfItsPartition(WaitStrategyType waitStrategyType) throws InterruptedException {
+        int producers = 4;
+        int eventsPerProducer = 50_000;
+        CountDownLatch handled = new CountDownLatch(producers * eventsPerProducer);
+        Map<Long, List<Long>> handledByProducer = new ConcurrentHashMap<>();
+        Map<Long, Set<String>> threadsByProducer = new ConcurrentHashMap<>();
+        ringBuffer = new RingBuffer<>("ring-test", 1024, () -> new long[2], 2, event -> {
+            handledByProducer.computeIfAbsent(event[0], x -> new ArrayList<>()).add(event[1]);
+            threadsByProducer.computeIfAbsent(event[0], x -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+            handled.countDown();
+        }, WaitStrategy.create(waitStrategyType));
+
+        List<Thread> producerThreads = new ArrayList<>();
+        for (int producer = 0; producer < producers; producer++) {
+            long producerId = producer;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < eventsPerProducer; i++) {
+                    long sequence;
+                    while ((sequence = ringBuffer.tryClaim((int) producerId)) < 0) {
+                        Thread.onSpinWait();
+                    }
+                    long[] event = ringBuffer.get(sequence);
+                    event[0] = producerId;
+                    event[1] = i;
+                    ringBuffer.publish(sequence);
+                }
+            });
+            producerThreads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : producerThreads) {
+            thread.join();
+        }
+
+        assertThat(handled.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(handledByProducer).hasSize(producers);
+        handledByProducer.values().forEach(events -> assertThat(events).hasSize(eventsPerProducer).isSorted());
+        threadsByProducer.values().forEach(threads -> assertThat(threads).hasSize(1));
+    }
+
+    @Test
+    void tryClaim_ifConsumerWholeRingBehind_claimFailsUntilConsumerCatchesUp() throws InterruptedException {
+        CountDownLatch consumerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseConsumer = new CountDownLatch(1);
+        CountDownLatch handled = new CountDownLatch(5);
+        ringBuffer = new RingBuffer<>("ring-test", 4, () -> new long[1], 1, event -> {
+            consumerBlocked.countDown();
+            awaitQuietly(releaseConsumer);
+            handled.countDown();
+        }, new BlockingWaitStrategy());
+
+        publish(0);
+        assertThat(consumerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < 4; i++) {
+            publish(i);
+        }
+
+        assertThat(ringBuffer.tryClaim(0)).isEqualTo(-1);
+        assertThat(ringBuffer.getBacklog()).isEqualTo(4);
+
+        releaseConsumer.countDown();
+        long sequence;
+        while ((sequence = ringBuffer.tryClaim(0)) < 0) {
+            Thread.onSpinWait();
+        }
+        ringBuffer.publish(sequence);
+        assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void publish_ifHandlerFails_laterEventsStillHandled() throws InterruptedException {
+        CountDownLatch handled = new CountDownLatch(1);
+        Consumer<long[]> handler = event -> {
+            if (event[0] == 0) {
+                throw new IllegalStateException("delivery failed");
+            }
+            handled.countDown();
+        };
+        ringBuffer = new RingBuffer<>("ring-test", 4, () -> new long[1], 1, handler, new SleepingWaitStrategy());
+
+        publish(0);
+        publish(1);
+
+        assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void constructor_ifCapacityNotPowerOfTwo_rejected() {
+        assertThatThrownBy(() -> new RingBuffer<>("ring-test", 1000, Object::new, 1, event -> {}, new BlockingWaitStrategy()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void publish(long value) {
+        long sequence = ringBuffer.tryClaim(0);
+        assertThat(sequence).isNotNegative();
+        ringBuffer.get(sequence)[0] = value;
+        ringBuffer.publish(sequence);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.rassix.randomNumberGenerator.service.timer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of scheduling and cancelling many pending timers on the timing wheel against
+ * {@link ScheduledThreadPoolExecutor}.
+ */
+@Slf4j
+@Tag("benchmark")
+class HashedWheelGameTimerBenchmark {
+
+    @Test
+    void schedule_ifManyPendingTimers_insertAndCancelTimeReportedAgainstJdkScheduler() throws InterruptedException {
+        int timerCount = 200_000;
+        Random random = new Random(42);
+        long[] delaysMillis = new long[timerCount];
+        for (int i = 0; i < timerCount; i++) {
+            delaysMillis[i] = 60_000 + random.nextInt(600_000);
+        }
+        HashedWheelGameTimer wheel = new HashedWheelGameTimer("benchmark-wheel", Duration.ofMillis(1), 512, Clock.systemUTC());
+        ScheduledThreadPoolExecutor jdkScheduler = new ScheduledThreadPoolExecutor(1);
+        jdkScheduler.setRemoveOnCancelPolicy(true);
+        AtomicInteger runs = new AtomicInteger();
+
+        try {
+            for (int round = 0; round < 3; round++) {
+                Instant now = Instant.now();
+                GameTimer.Timeout[] timeouts = new GameTimer.Timeout[timerCount];
+                long start = System.nanoTime();
+                for (int i = 0; i < timerCount; i++) {
+                    timeouts[i] = wheel.schedule(runs::incrementAndGet, now.plusMillis(delaysMillis[i]));
+                }
+                for (GameTimer.Timeout timeout : timeouts) {
+                    timeout.cancel();
+                }
+                long wheelNanos = System.nanoTime() - start;
+
+                ScheduledFuture<?>[] futures = new ScheduledFuture<?>[timerCount];
+                start = System.nanoTime();
+                for (int i = 0; i < timerCount; i++) {
+                    futures[i] = jdkScheduler.schedule(runs::incrementAndGet, delaysMillis[i], TimeUnit.MILLISECONDS);
+                }
+                for (ScheduledFuture<?> future : futures) {
+                    future.cancel(false);
+                }
+                long jdkNanos = System.nanoTime() - start;
+
+                log.info("{} timers scheduled and cancelled: timing wheel {} ms, ScheduledThreadPoolExecutor {} ms",
+                    timerCount, TimeUnit.NANOSECONDS.toMillis(wheelNanos), TimeUnit.NANOSECONDS.toMillis(jdkNanos));
+            }
+        } finally {
+            wheel.shutdown();
+            jdkScheduler.shutdownNow();
+        }
+
+        assertThat(runs).hasValue(0);
+        assertThat(jdkScheduler.getQueue()).isEmpty();
+    }
+}
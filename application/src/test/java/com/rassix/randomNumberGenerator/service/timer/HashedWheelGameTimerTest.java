@@ -0,0 +1,144 @@
+package com.rassix.randomNumberGenerator.service.timer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedWheelGameTimerTest {
+
+    private HashedWheelGameTimer timer;
+
+    @BeforeEach
+    void setup() {
+        timer = new HashedWheelGameTimer("test-wheel", Duration.ofMillis(1), 8, Clock.systemUTC());
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdown();
+    }
+
+    @Test
+    void schedule_ifTasksDueAtDifferentTimes_tasksRunInDeadlineOrderNotBeforeDeadline() throws InterruptedException {
+        Instant now = Instant.now();
+        Queue<String> ran = new ConcurrentLinkedQueue<>();
+        List<Instant> ranAt = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+
+        // further away than one revolution of the 8 ms wheel
+        timer.schedule(() -> record(ran, ranAt, "third", latch), now.plusMillis(60));
+        timer.schedule(() -> record(ran, ranAt, "first", latch), now.plusMillis(5));
+        timer.schedule(() -> record(ran, ranAt, "second", latch), now.plusMillis(30));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran).containsExactly("first", "second", "third");
+        assertThat(ranAt.get(0)).isAfterOrEqualTo(now.plusMillis(5));
+        assertThat(ranAt.get(2)).isAfterOrEqualTo(now.plusMillis(60));
+    }
+
+    @Test
+    void schedule_ifDeadlineBetweenMilliseconds_taskNotRunBeforeDeadline() throws InterruptedException {
+        int taskCount = 100;
+        Instant[] deadlines = new Instant[taskCount];
+        Instant[] ranAt = new Instant[taskCount];
+        CountDownLatch latch = new CountDownLatch(taskCount);
+
+        // scheduled at different fractions of a millisecond, each due 2.9 ms later
+        for (int i = 0; i < taskCount; i++) {
+            int task = i;
+            deadlines[task] = Instant.now().plusMillis(2).plusNanos(900_000);
+            timer.schedule(() -> {
+                ranAt[task] = Instant.now();
+                latch.countDown();
+            }, deadlines[task]);
+            LockSupport.parkNanos(130_000);
+        }
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < taskCount; i++) {
+            assertThat(ranAt[i]).isAfterOrEqualTo(deadlines[i]);
+        }
+    }
+
+    @Test
+    void schedule_ifTimeInPast_taskRunsOnNextTick() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+
+        timer.schedule(latch::countDown, Instant.now().minusSeconds(10));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void schedule_ifClockAhead_timeReadOffTheClock() throws InterruptedException {
+        Clock clock = Clock.offset(Clock.systemUTC(), Duration.ofHours(1));
+        HashedWheelGameTimer clockTimer = new HashedWheelGameTimer("clock-wheel", Duration.ofMillis(1), 8, clock);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        try {
+            clockTimer.schedule(latch::countDown, clock.instant().plusMillis(5));
+
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            clockTimer.shutdown();
+        }
+    }
+
+    @Test
+    void cancel_ifTaskNotRunYet_taskNeverRuns() throws InterruptedException {
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        GameTimer.Timeout timeout = timer.schedule(cancelledRuns::incrementAndGet, Instant.now().plusMillis(20));
+        timer.schedule(latch::countDown, Instant.now().plusMillis(40));
+
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(cancelledRuns).hasValue(0);
+    }
+
+    @Test
+    void schedule_ifTaskFails_laterTasksStillRun() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+
+        timer.schedule(() -> {
+            throw new IllegalStateException("task failed");
+        }, Instant.now());
+        timer.schedule(latch::countDown, Instant.now().plusMillis(10));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void schedule_ifShutDown_throwsException() {
+        timer.shutdown();
+
+        assertThatThrownBy(() -> timer.schedule(() -> {}, Instant.now()))
+            .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private static void record(Queue<String> ran, List<Instant> ranAt, String name, CountDownLatch latch) {
+        ran.add(name);
+        synchronized (ranAt) {
+            ranAt.add(Instant.now());
+        }
+        latch.countDown();
+    }
+}
@@ -0,0 +1,69 @@
+package com.rassix.randomNumberGenerator.service.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimulationGameTimerTest {
+
+    private final Instant start = Instant.parse("2021-01-01T00:00:00Z");
+
+    private final SimulationGameTimer timer = new SimulationGameTimer(start);
+
+    @Test
+    void runNextTask_ifTasksScheduled_clockJumpsToEachTaskInTimeOrder() {
+        List<String> ran = new ArrayList<>();
+
+        timer.schedule(() -> ran.add("late " + timer.getClock().instant()), start.plusSeconds(20));
+        timer.schedule(() -> ran.add("early " + timer.getClock().instant()), start.plusSeconds(10));
+
+        assertThat(timer.runNextTask()).isTrue();
+        assertThat(timer.runNextTask()).isTrue();
+        assertThat(timer.runNextTask()).isFalse();
+
+        assertThat(ran).containsExactly("early 2021-01-01T00:00:10Z", "late 2021-01-01T00:00:20Z");
+    }
+
+    @Test
+    void runNextTask_ifTasksDueAtSameTime_tasksRunInSchedulingOrder() {
+        List<Integer> ran = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            int task = i;
+            timer.schedule(() -> ran.add(task), start.plusSeconds(1));
+        }
+        while (timer.runNextTask()) {
+        }
+
+        assertThat(ran).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    void runNextTask_ifTaskScheduledInPast_clockDoesNotGoBack() {
+        timer.schedule(() -> {}, start.plusSeconds(10));
+        timer.runNextTask();
+        timer.schedule(() -> {}, start);
+        timer.runNextTask();
+
+        assertThat(timer.getClock().instant()).isEqualTo(start.plusSeconds(10));
+    }
+
+    @Test
+    void cancel_ifTaskNotRunYet_taskSkipped() {
+        List<String> ran = new ArrayList<>();
+
+        GameTimer.Timeout timeout = timer.schedule(() -> ran.add("cancelled"), start.plusSeconds(1));
+        timer.schedule(() -> ran.add("kept"), start.plusSeconds(2));
+
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        while (timer.runNextTask()) {
+        }
+
+        assertThat(ran).containsExactly("kept");
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -15,7 +16,7 @@ public class TestConfig {
     @Primary
     public NumberGenerationService numberGenerationService() {
         NumberGenerationService mock = mock(NumberGenerationService.class);
-        when(mock.generateNumber()).thenReturn(3);
+        when(mock.generateNumber(any())).thenReturn(3);
         return mock;
     }
 }
@@ -0,0 +1,99 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.Application;
+import com.rassix.randomNumberGenerator.TestConfig;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.GameService;
+import com.rassix.randomNumberGenerator.service.dto.AdmissionLimits;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    classes = Application.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "game.round.betting-duration=60s",
+        "game.admission.address.rate=0.1",
+        "game.admission.address.burst=2",
+        "game.admission.admin-token=test-admin-token"
+    }
+)
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import(TestConfig.class)
+public class AdmissionControlEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private GameService gameService;
+
+    @Test
+    void shouldTurnAwayBetsOverAddressLimit_untilLimitRaisedWhileRunning() {
+        String gameId = awaitActiveGameId();
+
+        ResponseEntity<String> dave = placeBet(gameId, "dave");
+        ResponseEntity<String> lucy = placeBet(gameId, "lucy");
+        ResponseEntity<String> mike = placeBet(gameId, "mike");
+
+        assertThat(dave.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(lucy.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(mike.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(mike.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+        assertThat(mike.getBody()).contains("\"errorCode\":\"TOO_MANY_BETS\"");
+
+        assertThat(putLimits(new AdmissionLimits(5.0, 10, 0.0, 1, 10000), "wrong-token").getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(placeBet(gameId, "mike").getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        assertThat(putLimits(new AdmissionLimits(5.0, 10, 0.0, 1, 10000), "test-admin-token").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(restTemplate.getForObject("/admission/limits", AdmissionLimits.class).getAddressRate()).isZero();
+        assertThat(placeBet(gameId, "mike").getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(gameService.getGameDetails(gameId).getPlayers()).containsOnlyKeys("dave", "lucy", "mike");
+    }
+
+    private ResponseEntity<String> placeBet(String gameId, String username) {
+        return restTemplate.postForEntity("/game/addPlayer/" + gameId,
+            Map.of("username", username, "guessedNumber", 3, "bid", BigDecimal.ONE), String.class);
+    }
+
+    private ResponseEntity<String> putLimits(AdmissionLimits limits, String adminToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(AdmissionController.ADMIN_TOKEN_HEADER, adminToken);
+        return restTemplate.exchange("/admission/limits", HttpMethod.PUT, new HttpEntity<>(limits, headers), String.class);
+    }
+
+    /**
+     * The first round starts on the table's event loop once the application is ready, not before the test starts.
+     */
+    private String awaitActiveGameId() {
+        long deadline = System.nanoTime() + SECONDS.toNanos(5);
+        Map.Entry<String, Game> activeGame = gameService.getActiveGame("1");
+        while (activeGame == null && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(1_000_000);
+            activeGame = gameService.getActiveGame("1");
+        }
+        assertThat(activeGame).isNotNull();
+        return activeGame.getKey();
+    }
+
+}
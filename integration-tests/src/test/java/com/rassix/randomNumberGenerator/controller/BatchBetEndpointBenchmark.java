@@ -0,0 +1,134 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.Application;
+import com.rassix.randomNumberGenerator.TestConfig;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayersResponse;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.GameService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bets per second of the batch bet endpoint against the single bet endpoint.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(
+    classes = Application.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "game.round.betting-duration=60s",
+        // every bet of the benchmark comes from the same address
+        "game.admission.address.rate=0"
+    }
+)
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import(TestConfig.class)
+public class BatchBetEndpointBenchmark {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private GameService gameService;
+
+    @Test
+    void shouldReportBetsPerSecond_ifPlacedSinglyAndInBatches() {
+        int bets = 2_000;
+        int batchSize = 500;
+        String gameId = awaitActiveGameId();
+
+        placeSingleBets(gameId, "warmup-single-", 200);
+        placeBatches(gameId, "warmup-batch-", 200, 100);
+
+        long singleStart = System.nanoTime();
+        int singleAccepted = placeSingleBets(gameId, "single-", bets);
+        long singleNanos = System.nanoTime() - singleStart;
+
+        long batchStart = System.nanoTime();
+        int batchAccepted = placeBatches(gameId, "batch-", bets, batchSize);
+        long batchNanos = System.nanoTime() - batchStart;
+
+        log.info("Placed {} bets: single bet endpoint {} requests/s; batch endpoint with {} bets per request {} bets/s",
+            bets, bets * 1_000_000_000L / singleNanos, batchSize, bets * 1_000_000_000L / batchNanos);
+
+        assertThat(singleAccepted).isEqualTo(bets);
+        assertThat(batchAccepted).isEqualTo(bets);
+        assertThat(gameService.getGameDetails(gameId).getPlayers()).hasSize(2 * bets + 400);
+    }
+
+    /**
+     * The first round starts on the table's event loop once the application is ready, not before the test starts.
+     */
+    private String awaitActiveGameId() {
+        long deadline = System.nanoTime() + SECONDS.toNanos(5);
+        Map.Entry<String, Game> activeGame = gameService.getActiveGame("1");
+        while (activeGame == null && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(1_000_000);
+            activeGame = gameService.getActiveGame("1");
+        }
+        assertThat(activeGame).isNotNull();
+        return activeGame.getKey();
+    }
+
+    private int placeSingleBets(String gameId, String usernamePrefix, int bets) {
+        int accepted = 0;
+        for (int i = 0; i < bets; i++) {
+            ResponseEntity<String> response = restTemplate.postForEntity("/game/addPlayer/" + gameId,
+                new HttpEntity<>(bet(usernamePrefix + i), jsonHeaders()), String.class);
+            if (response.getStatusCode() == HttpStatus.CREATED) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    private int placeBatches(String gameId, String usernamePrefix, int bets, int batchSize) {
+        int accepted = 0;
+        for (int from = 0; from < bets; from += batchSize) {
+            List<AddPlayerRequest> batch = new ArrayList<>(batchSize);
+            for (int i = from; i < Math.min(from + batchSize, bets); i++) {
+                batch.add(bet(usernamePrefix + i));
+            }
+            AddPlayersResponse response = restTemplate.postForObject("/game/addPlayers/" + gameId,
+                new HttpEntity<>(batch, jsonHeaders()), AddPlayersResponse.class);
+            accepted += response.getAcceptedCount();
+        }
+        return accepted;
+    }
+
+    private static AddPlayerRequest bet(String username) {
+        return new AddPlayerRequest(username, 1 + Math.floorMod(username.hashCode(), 10), new BigDecimal("1.50"));
+    }
+
+    private static HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+
+}
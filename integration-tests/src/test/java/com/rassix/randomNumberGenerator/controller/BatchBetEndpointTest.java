@@ -0,0 +1,86 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.Application;
+import com.rassix.randomNumberGenerator.TestConfig;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.GameService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    classes = Application.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "game.round.betting-duration=60s"
+)
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import(TestConfig.class)
+public class BatchBetEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private GameService gameService;
+
+    @Test
+    void shouldReportResultOfEveryBet_ifBatchPlaced() {
+        String gameId = awaitActiveGameId();
+
+        ResponseEntity<String> response = restTemplate.postForEntity("/game/addPlayers/" + gameId, json(
+            "[{\"username\":\"dave\",\"guessedNumber\":3,\"bid\":31},"
+                + "{\"username\":\"lucy\",\"guessedNumber\":0,\"bid\":31},"
+                + "{\"username\":\"dave\",\"guessedNumber\":4,\"bid\":5}]"
+        ), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(
+            "{\"gameId\":\"" + gameId + "\",\"acceptedCount\":1,\"rejectedCount\":2,\"results\":["
+                + "{\"index\":0,\"username\":\"dave\",\"accepted\":true},"
+                + "{\"index\":1,\"username\":\"lucy\",\"accepted\":false,\"errorCode\":\"INVALID_REQUEST\",\"errorMessage\":\"guessedNumber must be greater than or equal to 1\"},"
+                + "{\"index\":2,\"username\":\"dave\",\"accepted\":false,\"errorCode\":\"PLAYER_EXISTS\",\"errorMessage\":\"Player dave already exists in game\"}]}"
+        );
+    }
+
+    /**
+     * The first round starts on the table's event loop once the application is ready, not before the test starts.
+     */
+    private String awaitActiveGameId() {
+        long deadline = System.nanoTime() + SECONDS.toNanos(5);
+        Map.Entry<String, Game> activeGame = gameService.getActiveGame("1");
+        while (activeGame == null && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(1_000_000);
+            activeGame = gameService.getActiveGame("1");
+        }
+        assertThat(activeGame).isNotNull();
+        return activeGame.getKey();
+    }
+
+    private static HttpEntity<String> json(String body) {
+        return new HttpEntity<>(body, jsonHeaders());
+    }
+
+    private static HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.Application;
+import com.rassix.randomNumberGenerator.TestConfig;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.GameService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    classes = Application.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "game.round.betting-duration=60s"
+)
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import(TestConfig.class)
+public class IdempotentBetEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private GameService gameService;
+
+    @Test
+    void shouldAnswerRetryWithOriginalResult_ifSentWithSameIdempotencyKey() {
+        String gameId = awaitActiveGameId();
+
+        ResponseEntity<String> first = placeBet(gameId, "bet-1", "{\"username\":\"dave\",\"guessedNumber\":3,\"bid\":31}");
+        ResponseEntity<String> retry = placeBet(gameId, "bet-1", "{\"username\":\"dave\",\"guessedNumber\":3,\"bid\":31}");
+        ResponseEntity<String> withoutKey = placeBet(gameId, null, "{\"username\":\"dave\",\"guessedNumber\":3,\"bid\":31}");
+        ResponseEntity<String> reused = placeBet(gameId, "bet-1", "{\"username\":\"dave\",\"guessedNumber\":4,\"bid\":31}");
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(withoutKey.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(withoutKey.getBody()).contains("\"errorCode\":\"PLAYER_EXISTS\"");
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(reused.getBody()).contains("\"errorCode\":\"IDEMPOTENCY_KEY_REUSED\"");
+        assertThat(gameService.getGameDetails(gameId).getPlayers()).containsOnlyKeys("dave");
+    }
+
+    private ResponseEntity<String> placeBet(String gameId, String idempotencyKey, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (idempotencyKey != null) {
+            headers.set(PlayerController.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        }
+        return restTemplate.postForEntity("/game/addPlayer/" + gameId, new HttpEntity<>(body, headers), String.class);
+    }
+
+    /**
+     * The first round starts on the table's event loop once the application is ready, not before the test starts.
+     */
+    private String awaitActiveGameId() {
+        long deadline = System.nanoTime() + SECONDS.toNanos(5);
+        Map.Entry<String, Game> activeGame = gameService.getActiveGame("1");
+        while (activeGame == null && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(1_000_000);
+            activeGame = gameService.getActiveGame("1");
+        }
+        assertThat(activeGame).isNotNull();
+        return activeGame.getKey();
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.rassix.randomNumberGenerator.Application;
+import com.rassix.randomNumberGenerator.TestConfig;
+import com.rassix.randomNumberGenerator.service.NotificationPublisher;
+import com.rassix.randomNumberGenerator.service.dto.Notification;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Table event latency of the raw websocket endpoint against the STOMP endpoint.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import(TestConfig.class)
+public class RawWebSocketEndpointBenchmark {
+
+    private static final String LATENCY_PROBE = "LATENCY_PROBE";
+
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    private NotificationPublisher notificationPublisher;
+
+    @Test
+    void shouldReportTableEventLatency_ifConnectedOverStompAndRawEndpoint() throws Exception {
+        int probes = 2_000;
+
+        BlockingQueue<Long> stompReceived = new LinkedBlockingQueue<>();
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new SimpleMessageConverter());
+        StompSession stompSession = stompClient
+            .connect(String.format("ws://localhost:%d/game-ws", port), new StompSessionHandlerAdapter() {})
+            .get(1, SECONDS);
+        stompSession.subscribe("/topic/tables/1/messages/all", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                long received = System.nanoTime();
+                if (new String((byte[]) payload).contains(LATENCY_PROBE)) {
+                    stompReceived.add(received);
+                }
+            }
+        });
+        // the subscription is registered asynchronously, the first probes wait until it is
+        long[] stompLatencies = measureLatencies(probes, stompReceived);
+        stompSession.disconnect();
+
+        BlockingQueue<Long> rawReceived = new LinkedBlockingQueue<>();
+        BlockingQueue<String> joined = new LinkedBlockingQueue<>();
+        WebSocketSession rawSession = connectRaw(frame -> {
+            long received = System.nanoTime();
+            if (frame.contains(LATENCY_PROBE)) {
+                rawReceived.add(received);
+            } else if (frame.startsWith("joined")) {
+                joined.add(frame);
+            }
+        });
+        rawSession.sendMessage(new TextMessage("join\n{\"tableId\":\"1\"}"));
+        assertThat(joined.poll(5, SECONDS)).isNotNull();
+        long[] rawLatencies = measureLatencies(probes, rawReceived);
+        rawSession.close();
+
+        log.info("Table event latency over {} probes: STOMP p50 {} us, p99 {} us; raw websocket p50 {} us, p99 {} us",
+            probes, percentile(stompLatencies, 50), percentile(stompLatencies, 99),
+            percentile(rawLatencies, 50), percentile(rawLatencies, 99));
+
+        assertThat(rawLatencies).hasSize(probes);
+        assertThat(stompLatencies).hasSize(probes);
+    }
+
+    /**
+     * Sends one probe at a time through the same path the game uses for table events and waits for it to arrive.
+     */
+    private long[] measureLatencies(int probes, BlockingQueue<Long> received) throws InterruptedException {
+        Notification probe = Notification.builder().messageCode(LATENCY_PROBE).build();
+        long[] latencies = new long[probes];
+        int measured = 0;
+        int lost = 0;
+        while (measured < probes) {
+            long sent = System.nanoTime();
+            notificationPublisher.sendGlobalMessage("1", probe);
+            Long arrived = received.poll(100, MILLISECONDS);
+            if (arrived != null) {
+                latencies[measured++] = (arrived - sent) / 1_000;
+            } else {
+                assertThat(++lost).as("lost probes").isLessThan(50);
+            }
+        }
+        received.clear();
+        return latencies;
+    }
+
+    private static long percentile(long[] latencies, int percentile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+    private WebSocketSession connectRaw(Consumer<String> frameConsumer) throws Exception {
+        return new StandardWebSocketClient()
+            .doHandshake(new TextWebSocketHandler() {
+                @Override
+                protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                    frameConsumer.accept(message.getPayload());
+                }
+            }, String.format("ws://localhost:%d/game-raw", port))
+            .get(1, SECONDS);
+    }
+}
@@ -0,0 +1,109 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rassix.randomNumberGenerator.Application;
+import com.rassix.randomNumberGenerator.TestConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import(TestConfig.class)
+public class RawWebSocketEndpointTest {
+
+    @LocalServerPort
+    private Integer port;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldPlaceBetAndReceiveRoundEvents_ifConnectedToRawEndpoint() throws Exception {
+        BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+        WebSocketSession session = connectRaw("dave", frames::add);
+
+        session.sendMessage(new TextMessage("join\n{\"tableId\":\"1\",\"username\":\"dave\"}"));
+        JsonNode activeGame = body(poll(frames, "joined"));
+        String gameId = activeGame.get("gameId").asText();
+        assertThat(activeGame.get("gamePhase").asText()).isEqualTo("BETTING_PHASE");
+
+        session.sendMessage(new TextMessage("bet\n{\"gameId\":\"" + gameId + "\",\"guessedNumber\":3,\"bid\":31}"));
+        assertThat(body(poll(frames, "betAccepted")).get("gameId").asText()).isEqualTo(gameId);
+
+        session.sendMessage(new TextMessage("bet\n{\"gameId\":\"" + gameId + "\",\"guessedNumber\":4,\"bid\":31}"));
+        assertThat(body(poll(frames, "error")).get("errorCode").asText()).isEqualTo("PLAYER_EXISTS");
+
+        assertThat(body(poll(frames, "biddingClosed")).get("messageCode").asText()).isEqualTo("BIDDING_CLOSED");
+        String privateMessage = poll(frames, "privateMessage");
+        long sequence = Long.parseLong(privateMessage.substring("privateMessage ".length(), privateMessage.indexOf('\n')));
+        assertThat(privateMessage).isEqualTo(
+            "privateMessage " + sequence + "\n{\"messageCode\":\"WIN_NOTIFICATION\",\"messagePayload\":{\"name\":\"dave\",\"wonAmount\":306.90}}"
+        );
+        assertThat(body(poll(frames, "message")).get("messagePayload").get("winnerCount").asInt()).isEqualTo(1);
+        assertThat(body(poll(frames, "newGame")).get("gameId").asText()).isNotEqualTo(gameId);
+
+        session.sendMessage(new TextMessage("replay\n{\"destination\":\"/user/queue/messages\",\"lastSequence\":" + (sequence - 1) + "}"));
+        JsonNode replay = body(poll(frames, "replay"));
+        assertThat(replay.get("messages").get(0).get("sequence").asLong()).isEqualTo(sequence);
+        assertThat(replay.get("messages").get(0).get("body").get("messageCode").asText()).isEqualTo("WIN_NOTIFICATION");
+
+        session.close();
+    }
+
+    @Test
+    void shouldRejectJoin_ifUsernameIsNotTheLogin() throws Exception {
+        BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+        WebSocketSession session = connectRaw("dave", frames::add);
+
+        session.sendMessage(new TextMessage("join\n{\"tableId\":\"1\",\"username\":\"lucy\"}"));
+        assertThat(body(poll(frames, "error")).get("errorCode").asText()).isEqualTo("USERNAME_MISMATCH");
+
+        session.close();
+    }
+
+    private WebSocketSession connectRaw(String login, Consumer<String> frameConsumer) throws Exception {
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.add("login", login);
+        return new StandardWebSocketClient()
+            .doHandshake(new TextWebSocketHandler() {
+                @Override
+                protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                    frameConsumer.accept(message.getPayload());
+                }
+            }, headers, URI.create(String.format("ws://localhost:%d/game-raw", port)))
+            .get(1, SECONDS);
+    }
+
+    private static String poll(BlockingQueue<String> frames, String type) throws InterruptedException {
+        String frame;
+        do {
+            frame = frames.poll(16, SECONDS);
+            assertThat(frame).as("%s frame", type).isNotNull();
+        } while (!frame.startsWith(type + "\n") && !frame.startsWith(type + " "));
+        return frame;
+    }
+
+    private JsonNode body(String frame) throws IOException {
+        return objectMapper.readTree(frame.substring(frame.indexOf('\n') + 1));
+    }
+}
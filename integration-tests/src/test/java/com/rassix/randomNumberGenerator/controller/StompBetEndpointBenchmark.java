@@ -0,0 +1,181 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rassix.randomNumberGenerator.Application;
+import com.rassix.randomNumberGenerator.TestConfig;
+import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
+import com.rassix.randomNumberGenerator.controller.dto.BetRequest;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.GameService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bet round trip over a STOMP session against the HTTP bet endpoint.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(
+    classes = Application.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "game.round.betting-duration=60s",
+        // every bet of the benchmark comes from the same address
+        "game.admission.address.rate=0"
+    }
+)
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import(TestConfig.class)
+public class StompBetEndpointBenchmark {
+
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private GameService gameService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private WebSocketStompClient stompClient;
+
+    @BeforeEach
+    public void setup() {
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @Test
+    void shouldReportBetRoundTrip_ifPlacedOverHttpAndStompSession() throws Exception {
+        int bets = 300;
+        String gameId = awaitActiveGameId();
+
+        placeHttpBets(gameId, "warmup-http-", 100);
+        long[] httpLatencies = placeHttpBets(gameId, "http-", bets);
+
+        BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+        List<StompSession> sessions = new ArrayList<>(bets + 100);
+        for (int i = 0; i < bets + 100; i++) {
+            sessions.add(connectAs("stomp-" + i, replies));
+        }
+        // the reply subscriptions are registered asynchronously, the warmup bets wait until they are
+        Thread.sleep(200);
+        placeStompBets(gameId, sessions.subList(0, 100), replies);
+        long[] stompLatencies = placeStompBets(gameId, sessions.subList(100, sessions.size()), replies);
+        sessions.forEach(StompSession::disconnect);
+
+        log.info("Bet round trip over {} bets: HTTP p50 {} us, p99 {} us; STOMP p50 {} us, p99 {} us",
+            bets, percentile(httpLatencies, 50), percentile(httpLatencies, 99),
+            percentile(stompLatencies, 50), percentile(stompLatencies, 99));
+
+        assertThat(gameService.getGameDetails(gameId).getPlayers()).hasSize(2 * (bets + 100));
+    }
+
+    /**
+     * The first round starts on the table's event loop once the application is ready, not before the test starts.
+     */
+    private String awaitActiveGameId() {
+        long deadline = System.nanoTime() + SECONDS.toNanos(5);
+        Map.Entry<String, Game> activeGame = gameService.getActiveGame("1");
+        while (activeGame == null && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(1_000_000);
+            activeGame = gameService.getActiveGame("1");
+        }
+        assertThat(activeGame).isNotNull();
+        return activeGame.getKey();
+    }
+
+    private long[] placeHttpBets(String gameId, String usernamePrefix, int bets) {
+        long[] latencies = new long[bets];
+        for (int i = 0; i < bets; i++) {
+            long sent = System.nanoTime();
+            HttpStatus status = restTemplate.postForEntity("/game/addPlayer/" + gameId,
+                new AddPlayerRequest(usernamePrefix + i, 3, BigDecimal.ONE), String.class).getStatusCode();
+            latencies[i] = (System.nanoTime() - sent) / 1_000;
+            assertThat(status).isEqualTo(HttpStatus.CREATED);
+        }
+        return latencies;
+    }
+
+    private long[] placeStompBets(String gameId, List<StompSession> sessions, BlockingQueue<String> replies) throws Exception {
+        long[] latencies = new long[sessions.size()];
+        for (int i = 0; i < sessions.size(); i++) {
+            long sent = System.nanoTime();
+            sessions.get(i).send("/app/bet", new BetRequest(gameId, 3, BigDecimal.ONE));
+            String reply = replies.poll(3, SECONDS);
+            latencies[i] = (System.nanoTime() - sent) / 1_000;
+            assertThat(read(reply).get("messageCode").asText()).isEqualTo("BET_ACCEPTED");
+        }
+        return latencies;
+    }
+
+    private StompSession connectAs(String username, BlockingQueue<String> replies) throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.setLogin(username);
+        StompSession session = stompClient
+            .connect(String.format("ws://localhost:%d/game-ws", port), new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() {})
+            .get(1, SECONDS);
+
+        session.subscribe("/user/queue/bets", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                replies.add(new String((byte[]) payload));
+            }
+        });
+        return session;
+    }
+
+    private JsonNode read(String reply) throws IOException {
+        assertThat(reply).isNotNull();
+        return objectMapper.readTree(reply);
+    }
+
+    private static long percentile(long[] latencies, int percentile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.rassix.randomNumberGenerator.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rassix.randomNumberGenerator.Application;
+import com.rassix.randomNumberGenerator.TestConfig;
+import com.rassix.randomNumberGenerator.controller.dto.BetRequest;
+import com.rassix.randomNumberGenerator.repository.model.Game;
+import com.rassix.randomNumberGenerator.service.GameService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    classes = Application.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "game.round.betting-duration=60s"
+)
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import(TestConfig.class)
+public class StompBetEndpointTest {
+
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    private GameService gameService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private WebSocketStompClient stompClient;
+
+    @BeforeEach
+    public void setup() {
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @Test
+    void shouldAcknowledgeOrRejectBet_ifPlacedOverStompSession() throws Exception {
+        String gameId = awaitActiveGameId();
+        BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+        StompSession session = connectAs("dave", replies);
+        Thread.sleep(200);
+
+        session.send("/app/bet", new BetRequest(gameId, 3, new BigDecimal("31")));
+        assertThat(replies.poll(3, SECONDS)).isEqualTo(
+            "{\"messageCode\":\"BET_ACCEPTED\",\"messagePayload\":{\"gameId\":\"" + gameId + "\",\"guessedNumber\":3,\"bid\":31}}"
+        );
+
+        session.send("/app/bet", new BetRequest(gameId, 4, new BigDecimal("31")));
+        assertThat(read(replies.poll(3, SECONDS)).get("messagePayload").get("errorCode").asText()).isEqualTo("PLAYER_EXISTS");
+
+        session.send("/app/bet", new BetRequest(gameId, 11, new BigDecimal("31")));
+        assertThat(replies.poll(3, SECONDS)).isEqualTo(
+            "{\"messageCode\":\"BET_REJECTED\",\"messagePayload\":{\"errorCode\":\"INVALID_REQUEST\",\"errorMessage\":\"guessedNumber must be less than or equal to 10\"}}"
+        );
+
+        assertThat(gameService.getGameDetails(gameId).getPlayers()).containsOnlyKeys("dave");
+    }
+
+    /**
+     * The first round starts on the table's event loop once the application is ready, not before the test starts.
+     */
+    private String awaitActiveGameId() {
+        long deadline = System.nanoTime() + SECONDS.toNanos(5);
+        Map.Entry<String, Game> activeGame = gameService.getActiveGame("1");
+        while (activeGame == null && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(1_000_000);
+            activeGame = gameService.getActiveGame("1");
+        }
+        assertThat(activeGame).isNotNull();
+        return activeGame.getKey();
+    }
+
+    private StompSession connectAs(String username, BlockingQueue<String> replies) throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.setLogin(username);
+        StompSession session = stompClient
+            .connect(String.format("ws://localhost:%d/game-ws", port), new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() {})
+            .get(1, SECONDS);
+
+        session.subscribe("/user/queue/bets", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                replies.add(new String((byte[]) payload));
+            }
+        });
+        return session;
+    }
+
+    private JsonNode read(String reply) throws IOException {
+        assertThat(reply).isNotNull();
+        return objectMapper.readTree(reply);
+    }
+
+}
@@ -7,6 +7,7 @@ import com.rassix.randomNumberGenerator.TestConfig;
 import com.rassix.randomNumberGenerator.constant.GamePhase;
 import com.rassix.randomNumberGenerator.controller.dto.AddPlayerRequest;
 import com.rassix.randomNumberGenerator.controller.dto.GameInfoResponse;
+import com.rassix.randomNumberGenerator.controller.dto.ReplayRequest;
 import com.rassix.randomNumberGenerator.service.dto.Notification;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,7 +27,10 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.socket.WebSocketHttpHeaders;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 import org.springframework.web.socket.sockjs.client.SockJsClient;
@@ -45,6 +49,10 @@ import java.util.concurrent.TimeoutException;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -80,7 +88,7 @@ public class GameSchedulerTest {
             .connect(getWsPath(), new StompSessionHandlerAdapter() {})
             .get(1, SECONDS);
 
-        session.subscribe("/app/topic/getActiveGame", new StompFrameHandler() {
+        session.subscribe("/app/topic/tables/1/getActiveGame", new StompFrameHandler() {
             @Override
             public Type getPayloadType(StompHeaders headers) {
                 return byte[].class;
@@ -112,7 +120,7 @@ public class GameSchedulerTest {
             .connect(getWsPath(), new StompSessionHandlerAdapter() {})
             .get(1, SECONDS);
 
-        session.subscribe("/topic/biddingClosed", new StompFrameHandler() {
+        session.subscribe("/topic/tables/1/biddingClosed", new StompFrameHandler() {
             @Override
             public Type getPayloadType(StompHeaders headers) {
                 return byte[].class;
@@ -145,7 +153,7 @@ public class GameSchedulerTest {
             .connect(getWsPath(), new StompSessionHandlerAdapter() {})
             .get(1, SECONDS);
 
-        session.subscribe("/topic/newGame", new StompFrameHandler() {
+        session.subscribe("/topic/tables/1/newGame", new StompFrameHandler() {
             @Override
             public Type getPayloadType(StompHeaders headers) {
                 return byte[].class;
@@ -174,11 +182,9 @@ public class GameSchedulerTest {
         BlockingQueue<Notification> blockingQueue = new ArrayBlockingQueue(1);
         BlockingQueue<GameInfoResponse> gameInfoBlockingQueue = new ArrayBlockingQueue(1);
 
-        StompSession session = stompClient
-            .connect(getWsPath(), new StompSessionHandlerAdapter() {})
-            .get(1, SECONDS);
+        StompSession session = connectAs("dave");
 
-        session.subscribe("/app/topic/getActiveGame", new StompFrameHandler() {
+        session.subscribe("/app/topic/tables/1/getActiveGame", new StompFrameHandler() {
             @Override
             public Type getPayloadType(StompHeaders headers) {
                 return byte[].class;
@@ -196,7 +202,7 @@ public class GameSchedulerTest {
             }
         });
 
-        session.subscribe("/topic/messages/dave", new StompFrameHandler() {
+        session.subscribe("/user/queue/messages", new StompFrameHandler() {
             @Override
             public Type getPayloadType(StompHeaders headers) {
                 return byte[].class;
@@ -216,11 +222,7 @@ public class GameSchedulerTest {
 
         GameInfoResponse gameInfo = gameInfoBlockingQueue.poll(3, SECONDS);
 
-        mockMvc.perform( MockMvcRequestBuilders
-            .post("/game/addPlayer/" + gameInfo.getGameId())
-            .content(asJsonString(new AddPlayerRequest("dave", 2, new BigDecimal("30"))))
-            .contentType(MediaType.APPLICATION_JSON)
-            .accept(MediaType.APPLICATION_JSON))
+        placeBet(gameInfo.getGameId(), new AddPlayerRequest("dave", 2, new BigDecimal("30")))
             .andExpect(status().isCreated());
 
         Notification result = blockingQueue.poll(16, SECONDS);
@@ -234,11 +236,9 @@ public class GameSchedulerTest {
         BlockingQueue<String> globalWinNotificationBlockingQueue = new ArrayBlockingQueue(1);
         BlockingQueue<GameInfoResponse> gameInfoBlockingQueue = new ArrayBlockingQueue(1);
 
-        StompSession session = stompClient
-            .connect(getWsPath(), new StompSessionHandlerAdapter() {})
-            .get(1, SECONDS);
+        StompSession session = connectAs("dave");
 
-        session.subscribe("/app/topic/getActiveGame", new StompFrameHandler() {
+        session.subscribe("/app/topic/tables/1/getActiveGame", new StompFrameHandler() {
             @Override
             public Type getPayloadType(StompHeaders headers) {
                 return byte[].class;
@@ -256,7 +256,7 @@ public class GameSchedulerTest {
             }
         });
 
-        session.subscribe("/topic/messages/dave", new StompFrameHandler() {
+        session.subscribe("/user/queue/messages", new StompFrameHandler() {
             @Override
             public Type getPayloadType(StompHeaders headers) {
                 return byte[].class;
@@ -269,7 +269,7 @@ public class GameSchedulerTest {
             }
         });
 
-        session.subscribe("/topic/messages/all", new StompFrameHandler() {
+        session.subscribe("/topic/tables/1/messages/all", new StompFrameHandler() {
             @Override
             public Type getPayloadType(StompHeaders headers) {
                 return byte[].class;
@@ -284,11 +284,7 @@ public class GameSchedulerTest {
 
         GameInfoResponse gameInfo = gameInfoBlockingQueue.poll(3, SECONDS);
 
-        mockMvc.perform( MockMvcRequestBuilders
-            .post("/game/addPlayer/" + gameInfo.getGameId())
-            .content(asJsonString(new AddPlayerRequest("dave", 3, new BigDecimal("31"))))
-            .contentType(MediaType.APPLICATION_JSON)
-            .accept(MediaType.APPLICATION_JSON))
+        placeBet(gameInfo.getGameId(), new AddPlayerRequest("dave", 3, new BigDecimal("31")))
             .andExpect(status().isCreated());
 
         String winNotificationJson = winNotificationBlockingQueue.poll(15, SECONDS);
@@ -299,8 +295,92 @@ public class GameSchedulerTest {
         );
 
         assertThat(globalWinNotification).isEqualTo(
-            "{\"messageCode\":\"WINNER_LISTING\",\"messagePayload\":[{\"name\":\"dave\",\"wonAmount\":306.90}]}"
+            "{\"messageCode\":\"WINNER_LISTING\",\"messagePayload\":{\"gameId\":\"" + gameInfo.getGameId() + "\","
+                + "\"topWinners\":[{\"name\":\"dave\",\"wonAmount\":306.90}],\"winnerCount\":1,\"totalWonAmount\":306.90}}"
         );
+
+        mockMvc.perform(MockMvcRequestBuilders
+            .get("/game/" + gameInfo.getGameId() + "/winners")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "max-age=3600, public"))
+            .andExpect(jsonPath("$.totalWinners").value(1))
+            .andExpect(jsonPath("$.winners[0].name").value("dave"));
+    }
+
+    @Test
+    void shouldReplayMissedPrivateMessage_ifAskedAfterReconnect() throws Exception {
+        BlockingQueue<GameInfoResponse> gameInfoBlockingQueue = new ArrayBlockingQueue(1);
+        BlockingQueue<Long> winNotificationSequenceBlockingQueue = new ArrayBlockingQueue(1);
+        BlockingQueue<String> replayBlockingQueue = new ArrayBlockingQueue(1);
+
+        StompSession session = connectAs("dave");
+
+        session.subscribe("/app/topic/tables/1/getActiveGame", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                try {
+                    gameInfoBlockingQueue.add(objectMapper.readValue(new String((byte[]) payload), GameInfoResponse.class));
+                } catch (JsonProcessingException e) {
+                    throw new RuntimeException();
+                }
+            }
+        });
+
+        session.subscribe("/user/queue/messages", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                winNotificationSequenceBlockingQueue.add(Long.parseLong(headers.getFirst(NotificationService.SEQUENCE_HEADER)));
+            }
+        });
+
+        GameInfoResponse gameInfo = gameInfoBlockingQueue.poll(3, SECONDS);
+
+        placeBet(gameInfo.getGameId(), new AddPlayerRequest("dave", 3, new BigDecimal("31")))
+            .andExpect(status().isCreated());
+
+        Long winNotificationSequence = winNotificationSequenceBlockingQueue.poll(15, SECONDS);
+        assertThat(winNotificationSequence).isNotNull();
+        session.disconnect();
+
+        StompSession reconnectedSession = connectAs("dave");
+        reconnectedSession.subscribe("/user/queue/replay", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                replayBlockingQueue.add(new String((byte[]) payload));
+            }
+        });
+        Thread.sleep(200);
+        reconnectedSession.send("/app/replay", new ReplayRequest("/user/queue/messages", winNotificationSequence - 1));
+
+        assertThat(replayBlockingQueue.poll(3, SECONDS)).isEqualTo(
+            "{\"destination\":\"/user/queue/messages\",\"complete\":true,\"messages\":[{\"sequence\":" + winNotificationSequence + ","
+                + "\"body\":{\"messageCode\":\"WIN_NOTIFICATION\",\"messagePayload\":{\"name\":\"dave\",\"wonAmount\":306.90}}}]}"
+        );
+    }
+
+    private StompSession connectAs(String username) throws InterruptedException, ExecutionException, TimeoutException {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.setLogin(username);
+
+        return stompClient
+            .connect(getWsPath(), new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() {})
+            .get(1, SECONDS);
     }
 
     private String getWsPath() {
@@ -321,4 +401,17 @@ public class GameSchedulerTest {
         }
     }
 
+    /**
+     * Bets are answered asynchronously, once the table's bet writer added them.
+     */
+    private ResultActions placeBet(String gameId, AddPlayerRequest addPlayerRequest) throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+            .post("/game/addPlayer/" + gameId)
+            .content(asJsonString(addPlayerRequest))
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }